@@ -0,0 +1,72 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Connection scalability of the chat server engines
+ * Each operation is one ChatLoadGenerator run - every connection sends its
+ * requests - against the NIO event loop, a virtual thread per connection
+ * (Java 21+) or a fixed pool of platform threads. A pool smaller than the
+ * connection count times out and fails that run instead of hanging. The
+ * server keeps its users and messages in a scratch directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatServerBenchmark {
+
+    private static final int RESPONSE_TIMEOUT_MILLIS = 5000;
+
+    @Param({"nio", "virtual", "platform"})
+    public String engine;
+
+    @Param({"100", "1000"})
+    public int connections;
+
+    @Param({"20"})
+    public int requests;
+
+    private File directory;
+    private Object server;
+    private int port;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = TempStorage.create();
+        QuickChat.useMessageStorage("json", directory);
+        QuickChat.useUserStorage("json", directory);
+        server = QuickChat.newChatServer(engine);
+        port = QuickChat.startServer(server, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        QuickChat.closeServer(server);
+        QuickChat.useMessageStorage("memory", directory); // Closes the journals before they are deleted
+        QuickChat.useUserStorage("memory", directory);
+        TempStorage.delete(directory);
+    }
+
+    @Benchmark
+    public Object load() {
+        return QuickChat.runLoad(port, connections, requests, RESPONSE_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,68 @@
+package quickchat.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Message hash creation and full message construction (ID plus hash)
+ * legacyHash repeats the original regex-split hash for comparison.
+ * Run with -prof gc to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashingBenchmark {
+
+    @Param({"Hi Mike, can you join us for dinner tonight", "Hello", "  Where are you?\tYou are late!  "})
+    public String text;
+
+    private Object message;
+
+    @Setup
+    public void setUp() {
+        message = QuickChat.newMessage("+27838968976", text, 7);
+    }
+
+    @Benchmark
+    public String createMessageHash() {
+        return QuickChat.createMessageHash(message);
+    }
+
+    @Benchmark
+    public String legacyHash() {
+        return legacyHash("0012345678", 7, text);
+    }
+
+    @Benchmark
+    public Object newMessage() {
+        return QuickChat.newMessage("+27838968976", text, 7);
+    }
+
+    // The original hash: trim, split on whitespace and concatenate
+    private static String legacyHash(String messageID, int messageNumber, String messageText) {
+        String firstTwoDigits = messageID.substring(0, 2);
+        String msgNum = String.valueOf(messageNumber);
+        String trimmedText = messageText.trim();
+        String firstWord = "";
+        String lastWord = "";
+        if (!trimmedText.isEmpty()) {
+            String[] words = trimmedText.split("\\s+");
+            firstWord = words.length > 0 ? words[0].toUpperCase() : "";
+            lastWord = words.length > 1 ? words[words.length - 1].toUpperCase() : firstWord;
+        }
+        return firstTwoDigits + ":" + msgNum + ":" + firstWord + lastWord;
+    }
+}
@@ -0,0 +1,80 @@
+package quickchat.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Message ID generation, alone and with every hardware thread sharing one generator
+ * The legacy benchmarks repeat the original new-Random-per-call scheme for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+
+    private Object sequence;
+    private Object random;
+
+    @Setup
+    public void setUp() {
+        sequence = QuickChat.newSequenceIdGenerator();
+        random = QuickChat.newRandomIdGenerator();
+    }
+
+    @Benchmark
+    public String sequenceIds() {
+        return QuickChat.nextId(sequence);
+    }
+
+    @Benchmark
+    public String randomIds() {
+        return QuickChat.nextId(random);
+    }
+
+    @Benchmark
+    public String legacyIds() {
+        return legacyId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sequenceIdsContended() {
+        return QuickChat.nextId(sequence);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomIdsContended() {
+        return QuickChat.nextId(random);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyIdsContended() {
+        return legacyId();
+    }
+
+    // The original generator: a new Random and ten nextInt calls per ID
+    private static String legacyId() {
+        Random random = new Random();
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            id.append(random.nextInt(10));
+        }
+        return id.toString();
+    }
+}
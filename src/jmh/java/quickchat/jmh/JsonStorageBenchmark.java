@@ -0,0 +1,72 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading the stored-message JSON snapshot
+ * Each operation writes or reads the whole file, so results are per file.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonStorageBenchmark {
+
+    @Param({"1000", "100000"})
+    public int messages;
+
+    private List<Object> source;
+    private File directory;
+    private File saved;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            source.add(QuickChat.newMessage("+27838968976", "Where are you? You are late! #" + i, i));
+        }
+        directory = Files.createTempDirectory("quickchat-jmh").toFile();
+        saved = new File(directory, "stored_messages.json");
+        QuickChat.writeJson(saved, source);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long save() {
+        File target = new File(directory, "save.json");
+        QuickChat.writeJson(target, source);
+        return target.length();
+    }
+
+    @Benchmark
+    public long load() {
+        return QuickChat.readJson(saved, message -> { });
+    }
+}
@@ -0,0 +1,85 @@
+package quickchat.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Login against a directory of the given number of registered users
+ * Users are registered once per trial through the normal registration path,
+ * into the memory store - login never touches the disk, and registering
+ * through a durable store would time the journal instead (see
+ * UserStorageBenchmark). Larger directories: -Djmh.args="-p users=1000000 Login".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "Ch&&sec@ke99!";
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    private String[] usernames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void register() {
+        QuickChat.useUserStorage("memory", null);
+        QuickChat.clearAllUsers();
+        usernames = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = username(i);
+            QuickChat.registerUser(QuickChat.newLogin("Bench", "User"), usernames[i], PASSWORD,
+                "+27" + (800_000_000 + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void clear() {
+        QuickChat.clearAllUsers();
+    }
+
+    // Usernames must be at most five characters and contain an underscore
+    private static String username(int i) {
+        char[] name = {'_', 'a', 'a', 'a', 'a'};
+        for (int position = 4; position > 0; position--) {
+            name[position] = ALPHABET.charAt(i % ALPHABET.length());
+            i /= ALPHABET.length();
+        }
+        return new String(name);
+    }
+
+    @Benchmark
+    public boolean authenticateUser() {
+        next = next + 1 == usernames.length ? 0 : next + 1;
+        return QuickChat.authenticateUser(usernames[next], PASSWORD);
+    }
+
+    @Benchmark
+    public boolean authenticateWrongPassword() {
+        next = next + 1 == usernames.length ? 0 : next + 1;
+        return QuickChat.authenticateUser(usernames[next], "Wrong@Pass1");
+    }
+
+    @Benchmark
+    public boolean authenticateUnknownUser() {
+        return QuickChat.authenticateUser("no_1", PASSWORD);
+    }
+}
@@ -0,0 +1,107 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Send, store, delete and search against a store of the given size
+ * The store is filled once per trial, journalled to a scratch directory; write
+ * benchmarks delete what they add so the size stays put. Messages go to 1,000
+ * recipients round robin. The default sizes finish in a few minutes; larger
+ * stores need a larger heap, e.g.
+ * -Djmh.args="-p messages=1000000 -jvmArgsAppend -Xmx4g MessageStore".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageStoreBenchmark {
+
+    private static final int RECIPIENTS = 1000;
+
+    @Param({"1000", "10000"})
+    public int messages;
+
+    private File directory;
+    private String[] ids;
+    private String recipient;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        directory = TempStorage.create();
+        QuickChat.useMessageStorage("json", directory);
+        QuickChat.clearAllMessages();
+        ids = new String[Math.min(messages, 100_000)];
+        for (int i = 0; i < messages; i++) {
+            Object message = QuickChat.newMessage(recipient(i), "Message number " + i + " for the benchmark", i);
+            QuickChat.sentMessage(message, i % 3 == 0 ? "disregard" : "send");
+            if (i < ids.length) {
+                ids[i] = QuickChat.getMessageID(message);
+            }
+        }
+        recipient = recipient(RECIPIENTS / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void clear() {
+        QuickChat.clearAllMessages();
+        QuickChat.useMessageStorage("memory", directory); // Closes the journals before they are deleted
+        TempStorage.delete(directory);
+    }
+
+    private static String recipient(int i) {
+        return "+27" + (838_000_000 + i % RECIPIENTS);
+    }
+
+    @Benchmark
+    public boolean sendAndDelete() {
+        Object message = QuickChat.newMessage("+27838968976", "Hi Mike, can you join us for dinner tonight", 0);
+        QuickChat.sentMessage(message, "send");
+        return QuickChat.deleteMessageByHash(QuickChat.getMessageHash(message));
+    }
+
+    @Benchmark
+    public boolean storeAndDelete() {
+        Object message = QuickChat.newMessage("+27838968976", "Where are you? You are late!", 0);
+        QuickChat.sentMessage(message, "store");
+        return QuickChat.deleteMessageByHash(QuickChat.getMessageHash(message));
+    }
+
+    @Benchmark
+    public String searchByMessageID() {
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return QuickChat.searchByMessageID(ids[next]);
+    }
+
+    @Benchmark
+    public Object searchByRecipientPage() {
+        return QuickChat.searchByRecipient(recipient, 0, 50);
+    }
+
+    @Benchmark
+    public Object searchByRecipient() {
+        return QuickChat.searchByRecipient(recipient);
+    }
+
+    @Benchmark
+    public String findLongestMessage() {
+        return QuickChat.findLongestMessage();
+    }
+}
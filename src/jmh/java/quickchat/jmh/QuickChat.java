@@ -0,0 +1,714 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bridge from the benchmark package to the QuickChat classes
+ * JMH refuses benchmarks in the default package, and a named package cannot
+ * import classes from the default package, so every call goes through a
+ * method handle resolved once at class load. The handles are static final,
+ * which lets the JIT inline them like direct calls. QuickChat types appear
+ * here as Object.
+ */
+final class QuickChat {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    // Login
+    private static final MethodHandle NEW_LOGIN = constructor("Login");
+    private static final MethodHandle NEW_LOGIN_NAMED = constructor("Login", String.class, String.class);
+    private static final MethodHandle CHECK_USER_NAME = virtual("Login", "checkUserName", boolean.class, String.class);
+    private static final MethodHandle CHECK_PASSWORD = virtual("Login", "checkPasswordComplexity", boolean.class, String.class);
+    private static final MethodHandle CHECK_CELL = virtual("Login", "checkCellPhoneNumber", boolean.class, String.class);
+    private static final MethodHandle REGISTER_USER = virtual("Login", "registerUser", String.class, String.class, String.class, String.class);
+    private static final MethodHandle AUTHENTICATE = statik("Login", "authenticateUser", boolean.class, String.class, String.class);
+    private static final MethodHandle CLEAR_USERS = statik("Login", "clearAllUsers", void.class);
+    private static final MethodHandle SET_USERNAME = virtual("Login", "setUsername", void.class, String.class);
+    private static final MethodHandle SET_PASSWORD = virtual("Login", "setPassword", void.class, String.class);
+    private static final MethodHandle SET_CELL = virtual("Login", "setCellPhoneNumber", void.class, String.class);
+    private static final MethodHandle CREATE_USER_STORE = statik("UserStore", "create", type("UserStore"), String.class, String.class);
+    private static final MethodHandle USE_USER_STORAGE = statik("Login", "useStorage", void.class, type("UserStore"));
+
+    // Message
+    private static final MethodHandle NEW_MESSAGE = constructor("Message", String.class, String.class, int.class);
+    private static final MethodHandle CHECK_MESSAGE_ID = virtual("Message", "checkMessageID", boolean.class, String.class);
+    private static final MethodHandle CHECK_LENGTH = virtual("Message", "checkMessageLength", String.class, String.class);
+    private static final MethodHandle CREATE_HASH = virtual("Message", "createMessageHash", String.class);
+    private static final MethodHandle SENT_MESSAGE = virtual("Message", "sentMessage", String.class, String.class);
+    private static final MethodHandle GET_ID = virtual("Message", "getMessageID", String.class);
+    private static final MethodHandle GET_HASH = virtual("Message", "getMessageHash", String.class);
+    private static final MethodHandle GET_RECIPIENT = virtual("Message", "getRecipientCell", String.class);
+    private static final MethodHandle GET_TEXT = virtual("Message", "getMessageText", String.class);
+    private static final MethodHandle DELETE_BY_HASH = statik("Message", "deleteMessageByHash", boolean.class, String.class);
+    private static final MethodHandle SEARCH_BY_ID = statik("Message", "searchByMessageID", String.class, String.class);
+    private static final MethodHandle SEARCH_BY_RECIPIENT = statik("Message", "searchByRecipient", List.class, String.class);
+    private static final MethodHandle SEARCH_PAGE = statik("Message", "searchByRecipient", List.class, String.class, int.class, int.class);
+    private static final MethodHandle FIND_LONGEST = statik("Message", "findLongestMessage", String.class);
+    private static final MethodHandle CLEAR_MESSAGES = statik("Message", "clearAllMessages", void.class);
+    private static final MethodHandle USE_MESSAGE_STORAGE = statik("Message", "useStorage", void.class, String.class, String.class);
+    private static final MethodHandle SET_LAZY_LOADING = statik("Message", "setLazyLoading", void.class, boolean.class);
+    private static final MethodHandle SET_PAGE_CACHE_SIZE = statik("Message", "setPageCacheSize", void.class, int.class);
+    private static final MethodHandle OPEN_STORED = statik("Message", "openStoredMessages", void.class);
+
+    // ID generation and phone validation
+    private static final MethodHandle NEW_SEQUENCE_IDS = constructor("SequenceMessageIdGenerator");
+    private static final MethodHandle NEW_RANDOM_IDS = constructor("RandomMessageIdGenerator");
+    private static final MethodHandle NEXT_ID = virtual("MessageIdGenerator", "nextId", String.class);
+    private static final MethodHandle PARSE_PHONE_RULES = statik("PhoneNumberValidator", "parse", type("PhoneNumberValidator"), String.class);
+    private static final MethodHandle IS_VALID_PHONE = virtual("PhoneNumberValidator", "isValid", boolean.class, String.class);
+
+    // JSON storage
+    private static final MethodHandle READ_JSON = statik("StreamingMessageLoader", "read", long.class, File.class, Consumer.class);
+    private static final MethodHandle WRITE_JSON = statik("StreamingMessageLoader", "write", void.class, File.class, Consumer.class);
+
+    // Comprehensive report
+    private static final MethodHandle STATUS = statik("MessageStatus", "valueOf", type("MessageStatus"), String.class);
+    private static final MethodHandle NEW_LIST_STORE = constructor("ConcurrentMessageStore");
+    private static final MethodHandle LIST_STORE_ADD = virtual("ConcurrentMessageStore", "add", boolean.class, type("Message"), type("MessageStatus"));
+    private static final MethodHandle LIST_STORE_MESSAGES = virtual("ConcurrentMessageStore", "getMessages", List.class, type("MessageStatus"));
+    private static final MethodHandle NEW_REPORT = constructor("MessageReport", type("ConcurrentMessageStore"));
+    private static final MethodHandle REPORT_WRITE_ALL = virtual("MessageReport", "writeAll", void.class, Writer.class);
+    private static final MethodHandle REPORT_WRITE_NEXT = virtual("MessageReport", "writeNext", int.class, Writer.class, int.class);
+    static final int REPORT_PAGE_MESSAGES = intConstant("MessageReport", "DEFAULT_PAGE_MESSAGES");
+
+    // Chat server
+    private static final MethodHandle NEW_HANDLER = constructor("ChatRequestHandler");
+    private static final MethodHandle CREATE_SERVER = statik("ChatServer", "create", type("ChatServer"), String.class, type("ChatRequestHandler"));
+    private static final MethodHandle SERVER_START = virtual("ChatServer", "start", int.class, int.class);
+    private static final MethodHandle SERVER_CLOSE = virtual("ChatServer", "close", void.class);
+    private static final MethodHandle RUN_LOAD = statik("ChatLoadGenerator", "run", type("ChatLoadGenerator$Result"),
+        String.class, int.class, int.class, int.class, int.class);
+
+    // Storage backends
+    private static final MethodHandle CREATE_MESSAGE_STORE = statik("MessageStore", "create", type("MessageStore"), String.class, String.class, String.class);
+    private static final MethodHandle STORE_APPEND = virtual("MessageStore", "append", void.class, type("Message"));
+    private static final MethodHandle STORE_APPEND_ALL = virtual("MessageStore", "appendAll", void.class, Collection.class);
+    private static final MethodHandle STORE_REMOVE = virtual("MessageStore", "remove", void.class, type("Message"));
+    private static final MethodHandle STORE_LOAD = virtual("MessageStore", "load", void.class, Consumer.class);
+    private static final MethodHandle STORE_RESET = virtual("MessageStore", "reset", void.class);
+    private static final MethodHandle STORE_CLOSE = virtual("MessageStore", "close", void.class);
+    private static final MethodHandle COMPACT = virtual("MessageJournal", "compactAsync", void.class);
+    private static final MethodHandle AWAIT_COMPACTION = virtual("MessageJournal", "awaitCompaction", void.class);
+    private static final MethodHandle USER_STORE_REFRESH = virtual("UserStore", "refresh", void.class);
+    private static final MethodHandle USER_STORE_REGISTER = virtual("UserStore", "register", boolean.class, type("Login"));
+    private static final MethodHandle USER_STORE_DIRECTORY = virtual("UserStore", "getDirectory", type("UserDirectory"));
+    private static final MethodHandle USER_STORE_CLOSE = virtual("UserStore", "close", void.class);
+    private static final MethodHandle DIRECTORY_SIZE = virtual("UserDirectory", "size", int.class);
+
+    private QuickChat() {
+    }
+
+    // ==========================================
+    // LOGIN
+    // ==========================================
+
+    static Object newLogin() {
+        try {
+            return (Object) NEW_LOGIN.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newLogin(String firstName, String lastName) {
+        try {
+            return (Object) NEW_LOGIN_NAMED.invokeExact(firstName, lastName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean checkUserName(Object login, String username) {
+        try {
+            return (boolean) CHECK_USER_NAME.invokeExact(login, username);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean checkPasswordComplexity(Object login, String password) {
+        try {
+            return (boolean) CHECK_PASSWORD.invokeExact(login, password);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean checkCellPhoneNumber(Object login, String number) {
+        try {
+            return (boolean) CHECK_CELL.invokeExact(login, number);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String registerUser(Object login, String username, String password, String number) {
+        try {
+            return (String) REGISTER_USER.invokeExact(login, username, password, number);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean authenticateUser(String username, String password) {
+        try {
+            return (boolean) AUTHENTICATE.invokeExact(username, password);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void clearAllUsers() {
+        try {
+            CLEAR_USERS.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setUsername(Object login, String username) {
+        try {
+            SET_USERNAME.invokeExact(login, username);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setPassword(Object login, String password) {
+        try {
+            SET_PASSWORD.invokeExact(login, password);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setCellPhoneNumber(Object login, String number) {
+        try {
+            SET_CELL.invokeExact(login, number);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // Switches Login to a new store of the backend, closing the previous one
+    static void useUserStorage(String backend, File directory) {
+        try {
+            USE_USER_STORAGE.invokeExact(createUserStore(backend, directory));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // MESSAGE
+    // ==========================================
+
+    static Object newMessage(String recipientCell, String messageText, int messageNumber) {
+        try {
+            return (Object) NEW_MESSAGE.invokeExact(recipientCell, messageText, messageNumber);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean checkMessageID(Object message, String messageID) {
+        try {
+            return (boolean) CHECK_MESSAGE_ID.invokeExact(message, messageID);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String checkMessageLength(Object message, String text) {
+        try {
+            return (String) CHECK_LENGTH.invokeExact(message, text);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String createMessageHash(Object message) {
+        try {
+            return (String) CREATE_HASH.invokeExact(message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String sentMessage(Object message, String action) {
+        try {
+            return (String) SENT_MESSAGE.invokeExact(message, action);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String getMessageID(Object message) {
+        try {
+            return (String) GET_ID.invokeExact(message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String getMessageHash(Object message) {
+        try {
+            return (String) GET_HASH.invokeExact(message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String getRecipientCell(Object message) {
+        try {
+            return (String) GET_RECIPIENT.invokeExact(message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String getMessageText(Object message) {
+        try {
+            return (String) GET_TEXT.invokeExact(message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean deleteMessageByHash(String hash) {
+        try {
+            return (boolean) DELETE_BY_HASH.invokeExact(hash);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String searchByMessageID(String messageID) {
+        try {
+            return (String) SEARCH_BY_ID.invokeExact(messageID);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static List<?> searchByRecipient(String recipient) {
+        try {
+            return (List<?>) SEARCH_BY_RECIPIENT.invokeExact(recipient);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static List<?> searchByRecipient(String recipient, int offset, int limit) {
+        try {
+            return (List<?>) SEARCH_PAGE.invokeExact(recipient, offset, limit);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String findLongestMessage() {
+        try {
+            return (String) FIND_LONGEST.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void clearAllMessages() {
+        try {
+            CLEAR_MESSAGES.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // Switches every message list to the backend, closing the previous stores
+    static void useMessageStorage(String backend, File directory) {
+        try {
+            USE_MESSAGE_STORAGE.invokeExact(backend, directory.getPath());
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setLazyLoading(boolean lazy) {
+        try {
+            SET_LAZY_LOADING.invokeExact(lazy);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setPageCacheSize(int pages) {
+        try {
+            SET_PAGE_CACHE_SIZE.invokeExact(pages);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void openStoredMessages() {
+        try {
+            OPEN_STORED.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // IDS AND PHONE NUMBERS
+    // ==========================================
+
+    static Object newSequenceIdGenerator() {
+        try {
+            return (Object) NEW_SEQUENCE_IDS.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newRandomIdGenerator() {
+        try {
+            return (Object) NEW_RANDOM_IDS.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String nextId(Object generator) {
+        try {
+            return (String) NEXT_ID.invokeExact(generator);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object parsePhoneRules(String rules) {
+        try {
+            return (Object) PARSE_PHONE_RULES.invokeExact(rules);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean isValidPhone(Object validator, String number) {
+        try {
+            return (boolean) IS_VALID_PHONE.invokeExact(validator, number);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // JSON STORAGE
+    // ==========================================
+
+    static long readJson(File file, Consumer<Object> consumer) {
+        try {
+            return (long) READ_JSON.invokeExact(file, consumer);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void writeJson(File file, List<Object> messages) {
+        Consumer<Consumer<Object>> source = sink -> messages.forEach(sink);
+        try {
+            WRITE_JSON.invokeExact(file, source);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // COMPREHENSIVE REPORT
+    // ==========================================
+
+    // A MessageStatus constant, e.g. "SENT"
+    static Object status(String name) {
+        try {
+            return (Object) STATUS.invokeExact(name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // A standalone ConcurrentMessageStore, not the one behind Message
+    static Object newMessageLists() {
+        try {
+            return (Object) NEW_LIST_STORE.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean addToList(Object lists, Object message, Object status) {
+        try {
+            return (boolean) LIST_STORE_ADD.invokeExact(lists, message, status);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static List<?> getMessages(Object lists, Object status) {
+        try {
+            return (List<?>) LIST_STORE_MESSAGES.invokeExact(lists, status);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newReport(Object lists) {
+        try {
+            return (Object) NEW_REPORT.invokeExact(lists);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void writeAll(Object report, Writer out) {
+        try {
+            REPORT_WRITE_ALL.invokeExact(report, out);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int writeNext(Object report, Writer out, int maxMessages) {
+        try {
+            return (int) REPORT_WRITE_NEXT.invokeExact(report, out, maxMessages);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // CHAT SERVER
+    // ==========================================
+
+    // A server of the given engine with a fresh request handler, not yet started
+    static Object newChatServer(String engine) {
+        try {
+            return (Object) CREATE_SERVER.invokeExact(engine, (Object) NEW_HANDLER.invokeExact());
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int startServer(Object server, int port) {
+        try {
+            return (int) SERVER_START.invokeExact(server, port);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void closeServer(Object server) {
+        try {
+            SERVER_CLOSE.invokeExact(server);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // One ChatLoadGenerator run against a local server
+    static Object runLoad(int port, int connections, int requestsPerConnection, int responseTimeoutMillis) {
+        try {
+            return (Object) RUN_LOAD.invokeExact("127.0.0.1", port, connections, requestsPerConnection, responseTimeoutMillis);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // STORAGE BACKENDS
+    // ==========================================
+
+    static Object createMessageStore(String backend, File directory, String name) {
+        try {
+            return (Object) CREATE_MESSAGE_STORE.invokeExact(backend, directory.getPath(), name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void append(Object store, Object message) {
+        try {
+            STORE_APPEND.invokeExact(store, message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void appendAll(Object store, Collection<?> messages) {
+        try {
+            STORE_APPEND_ALL.invokeExact(store, messages);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void remove(Object store, Object message) {
+        try {
+            STORE_REMOVE.invokeExact(store, message);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void load(Object store, Consumer<Object> consumer) {
+        try {
+            STORE_LOAD.invokeExact(store, consumer);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void reset(Object store) {
+        try {
+            STORE_RESET.invokeExact(store);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void closeStore(Object store) {
+        try {
+            STORE_CLOSE.invokeExact(store);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // Folds a json store's segments into its snapshot and page index, then waits for it
+    static void compact(Object journal) {
+        try {
+            COMPACT.invokeExact(journal);
+            AWAIT_COMPACTION.invokeExact(journal);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object createUserStore(String backend, File directory) {
+        String path = directory != null ? directory.getPath() : null; // The memory store needs none
+        try {
+            return (Object) CREATE_USER_STORE.invokeExact(backend, path);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void refresh(Object userStore) {
+        try {
+            USER_STORE_REFRESH.invokeExact(userStore);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static boolean register(Object userStore, Object login) {
+        try {
+            return (boolean) USER_STORE_REGISTER.invokeExact(userStore, login);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int userCount(Object userStore) {
+        try {
+            return (int) DIRECTORY_SIZE.invokeExact((Object) USER_STORE_DIRECTORY.invokeExact(userStore));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void closeUserStore(Object userStore) {
+        try {
+            USER_STORE_CLOSE.invokeExact(userStore);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // ==========================================
+    // HANDLE LOOKUP
+    // ==========================================
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("QuickChat class not on the classpath: " + name, e);
+        }
+    }
+
+    private static int intConstant(String owner, String name) {
+        try {
+            return type(owner).getField(name).getInt(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constant " + owner + "." + name, e);
+        }
+    }
+
+    private static MethodHandle constructor(String owner, Class<?>... parameters) {
+        try {
+            return generic(LOOKUP.findConstructor(type(owner), MethodType.methodType(void.class, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constructor on " + owner, e);
+        }
+    }
+
+    private static MethodHandle virtual(String owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            return generic(LOOKUP.findVirtual(type(owner), name, MethodType.methodType(returnType, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + owner + "." + name, e);
+        }
+    }
+
+    private static MethodHandle statik(String owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            return generic(LOOKUP.findStatic(type(owner), name, MethodType.methodType(returnType, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + owner + "." + name, e);
+        }
+    }
+
+    // Replaces every default-package type in the signature with Object so
+    // callers here can name it
+    private static MethodHandle generic(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isQuickChatType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isQuickChatType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isQuickChatType(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,140 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The streamed comprehensive report against the original ways of producing it
+ * stringBuilder builds the whole report in memory as the GUI used to, printf
+ * prints every line to an autoflushing PrintStream as the console used to,
+ * and streamed writes through MessageReport to a buffered file writer, all to
+ * a file in a scratch directory. firstPage is what the GUI now renders before
+ * the dialog opens. Run with -prof gc to see bytes allocated per report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    private static final String[] RECIPIENTS = {"+27838968976", "+27838884567", "+27838123456", "+27834557896"};
+    private static final String[] STATUSES = {"SENT", "STORED", "DISREGARDED"};
+
+    @Param({"1000", "100000"})
+    public int messages;
+
+    private Object lists;
+    private Object[] statuses;
+    private File directory;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        statuses = new Object[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            statuses[i] = QuickChat.status(STATUSES[i]);
+        }
+        lists = QuickChat.newMessageLists();
+        for (int i = 0; i < messages; i++) {
+            Object message = QuickChat.newMessage(RECIPIENTS[i % RECIPIENTS.length],
+                "Where are you? You are late! I have asked you to be on time. #" + i, i);
+            QuickChat.addToList(lists, message, statuses[i % statuses.length]);
+        }
+        directory = TempStorage.create();
+        file = new File(directory, "report.txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TempStorage.delete(directory);
+    }
+
+    @Benchmark
+    public long stringBuilder() throws IOException {
+        Files.write(file.toPath(), legacyBuild().getBytes(StandardCharsets.UTF_8));
+        return file.length();
+    }
+
+    @Benchmark
+    public long printf() throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), true, "UTF-8")) {
+            legacyPrint(out);
+        }
+        return file.length();
+    }
+
+    @Benchmark
+    public long streamed() throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            QuickChat.writeAll(QuickChat.newReport(lists), out);
+        }
+        return file.length();
+    }
+
+    @Benchmark
+    public String firstPage() {
+        StringWriter page = new StringWriter();
+        QuickChat.writeNext(QuickChat.newReport(lists), page, QuickChat.REPORT_PAGE_MESSAGES);
+        return page.toString();
+    }
+
+    // The GUI report as it was built before MessageReport - abridged to the message sections
+    private String legacyBuild() {
+        StringBuilder report = new StringBuilder();
+        report.append("QUICKCHAT COMPREHENSIVE REPORT\n");
+        report.append("=".repeat(50)).append("\n\n");
+        for (int s = 0; s < statuses.length; s++) {
+            report.append(STATUSES[s]).append(":\n");
+            report.append("-".repeat(50)).append("\n");
+            int i = 0;
+            for (Object msg : QuickChat.getMessages(lists, statuses[s])) {
+                report.append("Message ").append(++i).append(":\n");
+                report.append("   Hash: ").append(QuickChat.getMessageHash(msg)).append("\n");
+                report.append("   Recipient: ").append(QuickChat.getRecipientCell(msg)).append("\n");
+                report.append("   Message: ").append(QuickChat.getMessageText(msg)).append("\n\n");
+            }
+        }
+        report.append("=".repeat(50));
+        return report.toString();
+    }
+
+    // The console report as it was printed before MessageReport - abridged the same way
+    private void legacyPrint(PrintStream out) {
+        out.println("         QUICKCHAT COMPREHENSIVE REPORT");
+        out.println("=".repeat(50));
+        for (int s = 0; s < statuses.length; s++) {
+            out.println(STATUSES[s] + ":");
+            out.println("-".repeat(50));
+            int i = 0;
+            for (Object msg : QuickChat.getMessages(lists, statuses[s])) {
+                out.printf("Message %d:\n", ++i);
+                out.printf("   Hash: %s\n", QuickChat.getMessageHash(msg));
+                out.printf("   Recipient: %s\n", QuickChat.getRecipientCell(msg));
+                out.printf("   Message: %s\n\n", QuickChat.getMessageText(msg));
+            }
+        }
+        out.println("=".repeat(50));
+    }
+}
@@ -0,0 +1,89 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The stored-message part of time-to-first-menu, eager against lazy
+ * Eager startup decodes every stored message before the menu appears; lazy
+ * startup only checks the page index and faults pages in on the first search.
+ * Every measurement is one call in a fresh fork, so the numbers are cold
+ * starts like the real app. The snapshot is written to a scratch directory in
+ * the trial setup. For the whole application, run QuickChatApp with
+ * -Dquickchat.startupTiming=true (and -Dquickchat.lazyLoad=true) instead.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final String[] RECIPIENTS = {"+27838968976", "+27838884567", "+27838123456", "+27834557896"};
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    @Param({"1000", "100000"})
+    public int messages;
+
+    @Param({"64"})
+    public int cachePages;
+
+    private File directory;
+    private String probeId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Object> batch = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            batch.add(QuickChat.newMessage(RECIPIENTS[i % RECIPIENTS.length],
+                "Where are you? You are late! I have asked you to be on time. #" + i, i));
+        }
+        probeId = QuickChat.getMessageID(batch.get(messages / 2));
+
+        directory = TempStorage.create();
+        Object journal = QuickChat.createMessageStore("json", directory, "stored");
+        QuickChat.appendAll(journal, batch);
+        QuickChat.compact(journal);
+        QuickChat.closeStore(journal);
+
+        QuickChat.useMessageStorage("json", directory);
+        QuickChat.setLazyLoading(lazy);
+        QuickChat.setPageCacheSize(cachePages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        QuickChat.useMessageStorage("memory", directory); // Closes the journals before they are deleted
+        TempStorage.delete(directory);
+    }
+
+    @Benchmark
+    public void startup() {
+        QuickChat.openStoredMessages();
+    }
+
+    @Benchmark
+    public String startupAndFirstSearch() {
+        QuickChat.openStoredMessages();
+        return QuickChat.searchByMessageID(probeId);
+    }
+}
@@ -0,0 +1,139 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The json, binary and memory message store backends compared
+ * Each operation appends, loads or removes a whole batch, so results are per
+ * batch. Stores live in a scratch directory and are opened again for every
+ * iteration, so the durable backends load from disk. Users are compared in
+ * UserStorageBenchmark.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StorageBackendBenchmark {
+
+    /**
+     * The backend under test and the messages written to it
+     */
+    @State(Scope.Benchmark)
+    public static class Batch {
+
+        @Param({"json", "binary", "memory"})
+        public String backend;
+
+        @Param({"1000", "100000"})
+        public int messages;
+
+        List<Object> batch;
+        File directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            batch = new ArrayList<>(messages);
+            for (int i = 0; i < messages; i++) {
+                batch.add(QuickChat.newMessage("+27838968976",
+                    "Where are you? You are late! I have asked you to be on time. #" + i, i));
+            }
+            directory = TempStorage.create();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            TempStorage.delete(directory);
+        }
+    }
+
+    /**
+     * A store emptied before every iteration
+     */
+    @State(Scope.Benchmark)
+    public static class EmptyStore {
+        Object store;
+
+        @Setup(Level.Iteration)
+        public void open(Batch batch) {
+            store = QuickChat.createMessageStore(batch.backend, batch.directory, "empty");
+            QuickChat.reset(store);
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() {
+            QuickChat.closeStore(store);
+        }
+    }
+
+    /**
+     * A store holding the whole batch, written again before every iteration
+     */
+    @State(Scope.Benchmark)
+    public static class FilledStore {
+        Object store;
+
+        @Setup(Level.Iteration)
+        public void open(Batch batch) {
+            store = QuickChat.createMessageStore(batch.backend, batch.directory, "filled");
+            QuickChat.reset(store);
+            QuickChat.appendAll(store, batch.batch);
+            if (!batch.backend.equals("memory")) {
+                QuickChat.closeStore(store);
+                store = QuickChat.createMessageStore(batch.backend, batch.directory, "filled");
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() {
+            QuickChat.closeStore(store);
+        }
+    }
+
+    @Benchmark
+    public Object append(Batch batch, EmptyStore empty) {
+        for (Object message : batch.batch) {
+            QuickChat.append(empty.store, message);
+        }
+        return empty.store;
+    }
+
+    @Benchmark
+    public Object appendAll(Batch batch, EmptyStore empty) {
+        QuickChat.appendAll(empty.store, batch.batch);
+        return empty.store;
+    }
+
+    @Benchmark
+    public long load(FilledStore filled) {
+        long[] loaded = {0};
+        QuickChat.load(filled.store, message -> loaded[0]++);
+        return loaded[0];
+    }
+
+    // Every tenth message, one delete at a time as the app makes them
+    @Benchmark
+    public Object remove(Batch batch, FilledStore filled) {
+        for (int i = 0; i < batch.batch.size(); i += 10) {
+            QuickChat.remove(filled.store, batch.batch.get(i));
+        }
+        return filled.store;
+    }
+}
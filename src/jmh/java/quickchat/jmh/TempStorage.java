@@ -0,0 +1,43 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Scratch storage directories for benchmarks
+ * Benchmarks point the QuickChat stores at one of these in their trial setup
+ * so they never read or overwrite the application's data directory.
+ */
+final class TempStorage {
+
+    private TempStorage() {
+    }
+
+    /**
+     * Creates an empty directory under the system temp directory
+     * @return the new directory
+     * @throws IOException if it could not be created
+     */
+    static File create() throws IOException {
+        return Files.createTempDirectory("quickchat-jmh").toFile();
+    }
+
+    /**
+     * Deletes a directory and everything in it
+     * @param directory the directory to delete
+     */
+    static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    delete(file);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+}
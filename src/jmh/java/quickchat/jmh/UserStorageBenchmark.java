@@ -0,0 +1,104 @@
+package quickchat.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The json, binary and memory user store backends compared
+ * register adds every user to an empty store; load opens a store of every
+ * user cold, as at startup. Results are per batch of users. Stores live in
+ * a scratch directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserStorageBenchmark {
+
+    @Param({"json", "binary", "memory"})
+    public String backend;
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    private File directory;
+    private File emptyDirectory;
+    private File filledDirectory;
+    private List<Object> logins;
+    private Object store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = TempStorage.create();
+        emptyDirectory = new File(directory, "empty");
+        filledDirectory = new File(directory, "filled");
+        logins = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Object login = QuickChat.newLogin("Bench", "User");
+            QuickChat.setUsername(login, "u_" + i);
+            QuickChat.setPassword(login, "Ch&&sec@ke99!");
+            QuickChat.setCellPhoneNumber(login, "+27" + (800_000_000 + i));
+            logins.add(login);
+        }
+
+        Object filled = QuickChat.createUserStore(backend, filledDirectory);
+        QuickChat.refresh(filled);
+        for (Object login : logins) {
+            QuickChat.register(filled, login);
+        }
+        QuickChat.closeUserStore(filled);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TempStorage.delete(directory);
+    }
+
+    @Setup(Level.Iteration)
+    public void openEmpty() {
+        TempStorage.delete(emptyDirectory);
+        store = QuickChat.createUserStore(backend, emptyDirectory);
+        QuickChat.refresh(store);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeEmpty() {
+        QuickChat.closeUserStore(store);
+    }
+
+    @Benchmark
+    public Object register() {
+        for (Object login : logins) {
+            QuickChat.register(store, login);
+        }
+        return store;
+    }
+
+    // The memory backend keeps nothing, so it loads no users
+    @Benchmark
+    public int load() {
+        Object filled = QuickChat.createUserStore(backend, filledDirectory);
+        QuickChat.refresh(filled);
+        int loaded = QuickChat.userCount(filled);
+        QuickChat.closeUserStore(filled);
+        return loaded;
+    }
+}
@@ -0,0 +1,94 @@
+package quickchat.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Input validation run on every registration and every message
+ * Each benchmark checks one valid and one invalid value. The phone regex
+ * benchmarks repeat the original String.matches check, and the same regex
+ * precompiled, for comparison with PhoneNumberValidator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final String PHONE_REGEX = "^\\+27[0-9]{9}$";
+    private static final Pattern PHONE_PATTERN = Pattern.compile(PHONE_REGEX);
+
+    private Object login;
+    private Object message;
+    private Object phoneValidator;
+    private String longText;
+
+    @Setup
+    public void setUp() {
+        login = QuickChat.newLogin();
+        message = QuickChat.newMessage("+27838968976", "Hi Mike, can you join us for dinner tonight", 0);
+        phoneValidator = QuickChat.parsePhoneRules("27:9");
+        longText = new String(new char[300]).replace('\0', 'x');
+    }
+
+    @Benchmark
+    public void checkUserName(Blackhole bh) {
+        bh.consume(QuickChat.checkUserName(login, "kyl_1"));
+        bh.consume(QuickChat.checkUserName(login, "kyle!!!!!!!"));
+    }
+
+    @Benchmark
+    public void checkPasswordComplexity(Blackhole bh) {
+        bh.consume(QuickChat.checkPasswordComplexity(login, "Ch&&sec@ke99!"));
+        bh.consume(QuickChat.checkPasswordComplexity(login, "password"));
+    }
+
+    @Benchmark
+    public void checkCellPhoneNumber(Blackhole bh) {
+        bh.consume(QuickChat.checkCellPhoneNumber(login, "+27838968976"));
+        bh.consume(QuickChat.checkCellPhoneNumber(login, "08966553"));
+    }
+
+    @Benchmark
+    public void phoneNumberValidator(Blackhole bh) {
+        bh.consume(QuickChat.isValidPhone(phoneValidator, "+27838968976"));
+        bh.consume(QuickChat.isValidPhone(phoneValidator, "08966553"));
+    }
+
+    @Benchmark
+    public void phoneStringMatches(Blackhole bh) {
+        bh.consume("+27838968976".matches(PHONE_REGEX));
+        bh.consume("08966553".matches(PHONE_REGEX));
+    }
+
+    @Benchmark
+    public void phonePrecompiledPattern(Blackhole bh) {
+        bh.consume(PHONE_PATTERN.matcher("+27838968976").matches());
+        bh.consume(PHONE_PATTERN.matcher("08966553").matches());
+    }
+
+    @Benchmark
+    public void checkMessageLength(Blackhole bh) {
+        bh.consume(QuickChat.checkMessageLength(message, "Hi Mike, can you join us for dinner tonight"));
+        bh.consume(QuickChat.checkMessageLength(message, longText));
+    }
+
+    @Benchmark
+    public void checkMessageID(Blackhole bh) {
+        bh.consume(QuickChat.checkMessageID(message, "0012345678"));
+        bh.consume(QuickChat.checkMessageID(message, "12345"));
+    }
+}
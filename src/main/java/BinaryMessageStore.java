@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Message store backed by a compact memory-mapped binary file
+ * Wraps MappedMessageStore and remembers where each message's record is,
+ * so a deletion flips the record's flag in place instead of rewriting
+ * anything. Deleted records keep their space until the store is reset.
+ */
+public class BinaryMessageStore implements MessageStore {
+
+    private final MappedMessageStore file;
+
+    // Record offset of every live message, by message ID
+    private final Map<String, Long> offsetsById = new HashMap<>();
+
+    /**
+     * Opens (or creates) a binary message file
+     * @param filePath path of the file
+     * @throws IOException if the file could not be opened
+     */
+    public BinaryMessageStore(String filePath) throws IOException {
+        this.file = new MappedMessageStore(filePath);
+    }
+
+    @Override
+    public synchronized void append(Message message) throws IOException {
+        offsetsById.put(message.getMessageID(), file.append(message));
+    }
+
+    @Override
+    public synchronized void appendAll(Collection<Message> messages) throws IOException {
+        for (Message message : messages) {
+            offsetsById.put(message.getMessageID(), file.append(message));
+        }
+    }
+
+    @Override
+    public synchronized void remove(Message message) {
+        Long offset = offsetsById.remove(message.getMessageID());
+        if (offset != null) {
+            file.delete(offset);
+        }
+    }
+
+    @Override
+    public synchronized void load(Consumer<Message> consumer) {
+        offsetsById.clear();
+        file.forEachRecord(record -> {
+            Message message = record.toMessage();
+            offsetsById.put(message.getMessageID(), record.getOffset());
+            consumer.accept(message);
+        });
+    }
+
+    @Override
+    public synchronized void reset() {
+        file.clear();
+        offsetsById.clear();
+    }
+
+    @Override
+    public void close() {
+        file.close();
+    }
+
+    /**
+     * Gets the underlying mapped file
+     * @return the mapped message file
+     */
+    public MappedMessageStore getFile() {
+        return file;
+    }
+}
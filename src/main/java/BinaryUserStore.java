@@ -0,0 +1,299 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User store backed by a compact binary file
+ * Every registration is appended as one record, so registering costs the
+ * same however many users exist, and loading is a single read of the file
+ * with no JSON parsing. A record cut short by a crash is dropped on load.
+ * Records are forced to disk in batches, like the JSON registration log,
+ * and a batch that stops short is synced once its oldest record is old enough.
+ * If the file cannot be read, nothing is appended to it until it can.
+ *
+ * File layout: [int magic][int version] then one record per user:
+ * [byte field mask][for each present field: unsigned short byte length, UTF-8 bytes]
+ * Fields in order: username, password, cell phone number, first name, last name.
+ */
+public class BinaryUserStore implements UserStore {
+
+    private static final int MAGIC = 0x51435553; // "QCUS"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int FIELD_COUNT = 5;
+
+    // Force to disk after this many unsynced records...
+    private static final int SYNC_BATCH_SIZE = 32;
+
+    // ...or once the oldest unsynced record is this old
+    private static final long SYNC_INTERVAL_MS = 200;
+
+    // Shared by every store - a sync is one short fsync, so one thread is enough
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "binary-user-store-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final UserDirectory directory = new UserDirectory();
+    private volatile boolean loaded;
+    private FileChannel channel;
+    private int unsyncedRecords;
+    private long firstUnsyncedAt;
+
+    /**
+     * Creates a store for the given binary file
+     * @param filePath path of the users file
+     */
+    public BinaryUserStore(String filePath) {
+        this.file = new File(filePath);
+    }
+
+    @Override
+    public UserDirectory getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Loads the users the first time it is called
+     * This process is the only writer, so the resident users never go stale.
+     * A failed load is tried again on the next call.
+     */
+    @Override
+    public void refresh() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try {
+                directory.replaceAll(readAll());
+                loaded = true;
+            } catch (IOException e) {
+                System.err.println("Error loading users: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean register(Login user) {
+        refresh();
+        if (!directory.add(user)) {
+            return false;
+        }
+        if (!loaded) {
+            // Appending could bury records that are still to be read
+            System.err.println("Error saving user: users file could not be loaded, "
+                + user.getUsername() + " is kept in memory only");
+            return true;
+        }
+        try {
+            ByteBuffer record = ByteBuffer.wrap(encode(user));
+            FileChannel out = openChannel();
+            while (record.hasRemaining()) {
+                out.write(record);
+            }
+
+            if (unsyncedRecords == 0) {
+                firstUnsyncedAt = System.currentTimeMillis();
+                FLUSHER.schedule(this::syncIfDue, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            unsyncedRecords++;
+            if (unsyncedRecords >= SYNC_BATCH_SIZE
+                    || System.currentTimeMillis() - firstUnsyncedAt >= SYNC_INTERVAL_MS) {
+                out.force(false);
+                unsyncedRecords = 0;
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving user: " + e.getMessage());
+        }
+        return true;
+    }
+
+    // Runs on the flusher; a batch started after the one that scheduled this is left to its own task
+    private synchronized void syncIfDue() {
+        if (channel == null || unsyncedRecords == 0
+                || System.currentTimeMillis() - firstUnsyncedAt < SYNC_INTERVAL_MS) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error syncing users: " + e.getMessage());
+        }
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Rewrites the file from the resident users
+     * Written to a temporary file first so a crash never leaves half a file
+     */
+    @Override
+    public synchronized void save() {
+        try {
+            closeChannel();
+            ensureParentDirectory();
+            File tempFile = new File(file.getPath() + ".tmp");
+            try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                bytes.write(header());
+                for (Login user : directory.getUsers()) {
+                    bytes.write(encode(user));
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            loaded = true;
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    // ========== FILE ACCESS ==========
+
+    private List<Login> readAll() throws IOException {
+        List<Login> users = new ArrayList<>();
+        if (!file.exists()) {
+            return users;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buffer.remaining() < FILE_HEADER_BYTES) {
+            return users;
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a QuickChat user file: " + file);
+        }
+
+        int lastComplete = buffer.position();
+        while (buffer.hasRemaining()) {
+            Login user = decode(buffer);
+            if (user == null) {
+                // Torn record at the tail - cut it off so new records follow the last good one
+                try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    out.truncate(lastComplete);
+                }
+                break;
+            }
+            users.add(user);
+            lastComplete = buffer.position();
+        }
+        return users;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            ensureParentDirectory();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() < FILE_HEADER_BYTES) {
+                // New file, or a header cut short by a crash - start it again
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(header()));
+            }
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing user file: " + e.getMessage());
+        }
+        channel = null;
+        unsyncedRecords = 0;
+    }
+
+    private void ensureParentDirectory() {
+        File dataDir = file.getAbsoluteFile().getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+    }
+
+    // ========== RECORD CODEC ==========
+
+    private static byte[] header() {
+        return ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).array();
+    }
+
+    private static byte[] encode(Login user) throws IOException {
+        String[] fields = {user.getUsername(), user.getPassword(), user.getCellPhoneNumber(),
+            user.getFirstName(), user.getLastName()};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        int mask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        bytes.write(mask);
+        for (String field : fields) {
+            if (field != null) {
+                byte[] utf8 = field.getBytes(StandardCharsets.UTF_8);
+                if (utf8.length > 0xFFFF) {
+                    throw new IOException("User field too long to store");
+                }
+                bytes.write(utf8.length >>> 8);
+                bytes.write(utf8.length);
+                bytes.write(utf8);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // Returns null if the buffer ends part way through the record
+    private static Login decode(ByteBuffer buffer) {
+        int mask = buffer.get();
+        String[] fields = new String[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if ((mask & (1 << i)) == 0) {
+                continue;
+            }
+            if (buffer.remaining() < 2) {
+                return null;
+            }
+            int length = Short.toUnsignedInt(buffer.getShort());
+            if (buffer.remaining() < length) {
+                return null;
+            }
+            fields[i] = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+
+        Login user = new Login(fields[3], fields[4]);
+        user.setUsername(fields[0]);
+        user.setPassword(fields[1]);
+        user.setCellPhoneNumber(fields[2]);
+        return user;
+    }
+}
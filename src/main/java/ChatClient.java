@@ -0,0 +1,69 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * Blocking client for the QuickChat server protocol
+ * Sends one request and waits for its response; used by the load
+ * generator and the tests.
+ */
+public class ChatClient implements Closeable {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * Connects to a QuickChat server
+     * @param host the server host
+     * @param port the server port
+     * @throws IOException if the connection fails
+     */
+    public ChatClient(String host, int port) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), 10_000);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Sends a request and waits for the response
+     * @param fields the request fields, operation first
+     * @return the response fields, OK or ERR first
+     * @throws IOException if the connection fails or the server closes it
+     */
+    public String[] call(String... fields) throws IOException {
+        ByteBuffer frame = ChatProtocol.encodeFrame(fields);
+        out.write(frame.array(), frame.arrayOffset(), frame.remaining());
+        out.flush();
+
+        int length = in.readInt();
+        if (length < 0 || length > ChatProtocol.MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return ChatProtocol.decodePayload(payload);
+    }
+
+    /**
+     * Limits how long call waits for a response
+     * @param millis the timeout in milliseconds, or 0 to wait forever
+     * @throws IOException if the socket is closed
+     */
+    public void setResponseTimeout(int millis) throws IOException {
+        socket.setSoTimeout(millis);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
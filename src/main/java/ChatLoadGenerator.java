@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for the QuickChat server
+ * Opens the requested number of connections up front, logs each one in and
+ * then drives a send/search mix over all of them at once, recording the
+ * latency of every request. Reports throughput and latency percentiles.
+ *
+ * Usage: java ChatLoadGenerator [host] [port] [connections] [requestsPerConnection]
+ */
+public class ChatLoadGenerator {
+
+    // Driver threads - each one round-robins over its share of the connections
+    private static final int MAX_DRIVER_THREADS = 64;
+
+    private static final String USERNAME = "ld_1";
+    private static final String PASSWORD = "Ch&&sec@ke99!";
+    private static final String RECIPIENT = "+27838968976";
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5050;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        System.out.println(run(host, port, connections, requests));
+    }
+
+    /**
+     * Runs one load test against a running server
+     * @param host the server host
+     * @param port the server port
+     * @param connections how many simultaneous connections to open
+     * @param requestsPerConnection how many requests each connection sends
+     * @return throughput and latency figures
+     * @throws Exception if the connections cannot be set up
+     */
+    public static Result run(String host, int port, int connections, int requestsPerConnection) throws Exception {
+        return run(host, port, connections, requestsPerConnection, 0);
+    }
+
+    /**
+     * Runs one load test, giving up on any response slower than the timeout
+     * A server that cannot serve every connection at once (a fixed thread
+     * pool smaller than the connection count) fails fast instead of hanging.
+     * @param host the server host
+     * @param port the server port
+     * @param connections how many simultaneous connections to open
+     * @param requestsPerConnection how many requests each connection sends
+     * @param responseTimeoutMillis longest wait for one response, or 0 for no limit
+     * @return throughput and latency figures
+     * @throws Exception if the connections cannot be set up or a response times out
+     */
+    public static Result run(String host, int port, int connections, int requestsPerConnection,
+                             int responseTimeoutMillis) throws Exception {
+        // One shared account - a duplicate REGISTER from an earlier run is fine
+        try (ChatClient setup = new ChatClient(host, port)) {
+            setup.setResponseTimeout(responseTimeoutMillis);
+            setup.call(ChatProtocol.REGISTER, "Load", "Test", USERNAME, PASSWORD, RECIPIENT);
+        }
+
+        List<ChatClient> clients = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                ChatClient client = new ChatClient(host, port);
+                clients.add(client);
+                client.setResponseTimeout(responseTimeoutMillis);
+                String[] response = client.call(ChatProtocol.LOGIN, USERNAME, PASSWORD);
+                if (!ChatProtocol.OK.equals(response[0])) {
+                    throw new IOException("Login failed: " + response[1]);
+                }
+            }
+
+            int threads = Math.min(connections, MAX_DRIVER_THREADS);
+            long[][] latencies = new long[threads][];
+            AtomicLong errors = new AtomicLong();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long elapsed;
+            try {
+                List<Future<?>> drivers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int driver = t;
+                    List<ChatClient> share = new ArrayList<>();
+                    for (int i = t; i < connections; i += threads) {
+                        share.add(clients.get(i));
+                    }
+                    drivers.add(pool.submit(() -> {
+                        latencies[driver] = drive(share, requestsPerConnection, errors, start);
+                        return null;
+                    }));
+                }
+
+                long startTime = System.nanoTime();
+                start.countDown();
+                for (Future<?> future : drivers) {
+                    future.get();
+                }
+                elapsed = System.nanoTime() - startTime;
+            } finally {
+                // Drivers still waiting on a response are released when their clients close below
+                pool.shutdownNow();
+            }
+
+            int total = 0;
+            for (long[] driverLatencies : latencies) {
+                total += driverLatencies.length;
+            }
+            long[] all = new long[total];
+            int position = 0;
+            for (long[] driverLatencies : latencies) {
+                System.arraycopy(driverLatencies, 0, all, position, driverLatencies.length);
+                position += driverLatencies.length;
+            }
+            Arrays.sort(all);
+            return new Result(connections, all, errors.get(), elapsed);
+        } finally {
+            for (ChatClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private static long[] drive(List<ChatClient> share, int requestsPerConnection, AtomicLong errors,
+                                CountDownLatch start) throws Exception {
+        long[] latencies = new long[share.size() * requestsPerConnection];
+        String[] lastSentIds = new String[share.size()];
+        int recorded = 0;
+        start.await();
+
+        for (int round = 0; round < requestsPerConnection; round++) {
+            for (int c = 0; c < share.size(); c++) {
+                // Three sends to every ID search
+                boolean search = round % 4 == 3 && lastSentIds[c] != null;
+                long begin = System.nanoTime();
+                String[] response = search
+                    ? share.get(c).call(ChatProtocol.SEARCH_ID, lastSentIds[c])
+                    : share.get(c).call(ChatProtocol.SEND, "send", RECIPIENT, "Load test message " + round);
+                latencies[recorded++] = System.nanoTime() - begin;
+
+                if (!ChatProtocol.OK.equals(response[0])) {
+                    errors.incrementAndGet();
+                } else if (!search) {
+                    lastSentIds[c] = response[2];
+                }
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Throughput and latency figures from one run
+     */
+    public static class Result {
+        private final int connections;
+        private final long[] sortedLatencies;
+        private final long errors;
+        private final long elapsedNanos;
+
+        public Result(int connections, long[] sortedLatencies, long errors, long elapsedNanos) {
+            this.connections = connections;
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getConnections() { return connections; }
+        public long getRequests() { return sortedLatencies.length; }
+        public long getErrors() { return errors; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Gets the completed requests per second
+         * @return throughput
+         */
+        public double getRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : sortedLatencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Gets a latency percentile
+         * @param percentile between 0 and 100
+         * @return the latency in milliseconds
+         */
+        public double getLatencyMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d connections, %,d requests (%d errors) in %.1f ms: %,.0f req/s, "
+                    + "p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                connections, getRequests(), errors, elapsedNanos / 1e6, getRequestsPerSecond(),
+                getLatencyMillis(50), getLatencyMillis(99), getLatencyMillis(100));
+        }
+    }
+}
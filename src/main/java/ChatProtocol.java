@@ -0,0 +1,121 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format for the QuickChat server
+ * Every request and response is one frame: a 4-byte big-endian length
+ * followed by that many bytes of UTF-8. The payload is a list of fields
+ * separated by tabs; the first field of a request is the operation and the
+ * first field of a response is OK or ERR. Tabs, newlines and backslashes
+ * inside a field are escaped as \t, \n and \\.
+ *
+ * Requests:
+ *   REGISTER firstName lastName username password cellPhoneNumber
+ *   LOGIN username password
+ *   SEND send|store|disregard recipientCell messageText  -> OK result messageID messageHash
+ *   SEARCH_ID messageID                                  -> OK messageText
+ *   SEARCH_RECIPIENT recipientCell [offset limit]        -> OK total messageText...
+ *   DELETE messageHash
+ *   LONGEST                                              -> OK messageText
+ *   PING                                                 -> OK PONG
+ */
+public final class ChatProtocol {
+
+    // Largest payload either side will accept - bigger frames close the connection
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    public static final String OK = "OK";
+    public static final String ERROR = "ERR";
+
+    public static final String REGISTER = "REGISTER";
+    public static final String LOGIN = "LOGIN";
+    public static final String SEND = "SEND";
+    public static final String SEARCH_ID = "SEARCH_ID";
+    public static final String SEARCH_RECIPIENT = "SEARCH_RECIPIENT";
+    public static final String DELETE = "DELETE";
+    public static final String LONGEST = "LONGEST";
+    public static final String PING = "PING";
+
+    private ChatProtocol() {
+    }
+
+    /**
+     * Encodes fields as one complete frame, length prefix included
+     * @param fields the fields to send
+     * @return buffer ready to be written
+     */
+    public static ByteBuffer encodeFrame(String... fields) {
+        byte[] payload = joinFields(fields).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + payload.length);
+        frame.putInt(payload.length).put(payload);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Decodes a frame payload back into fields
+     * @param payload the UTF-8 payload, without the length prefix
+     * @return the fields
+     */
+    public static String[] decodePayload(byte[] payload) {
+        return splitFields(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Joins fields with tabs, escaping each field
+     * @param fields the fields to join
+     * @return the joined payload
+     */
+    static String joinFields(String... fields) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                joined.append('\t');
+            }
+            String field = fields[i] == null ? "" : fields[i];
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                switch (c) {
+                    case '\t':
+                        joined.append("\\t");
+                        break;
+                    case '\n':
+                        joined.append("\\n");
+                        break;
+                    case '\\':
+                        joined.append("\\\\");
+                        break;
+                    default:
+                        joined.append(c);
+                }
+            }
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Splits a payload on tabs and unescapes each field
+     * @param payload the joined payload
+     * @return the fields
+     */
+    static String[] splitFields(String payload) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < payload.length()) {
+                char escaped = payload.charAt(++i);
+                field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns protocol requests into calls on Login and Message
+ * Holds no state of its own, so one handler can serve every connection of
+ * every server engine; per-connection state lives in ChatSession.
+ */
+public class ChatRequestHandler {
+
+    // Page size for SEARCH_RECIPIENT when the client does not give one
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Handles one request
+     * @param session the state of the connection the request came in on
+     * @param request the request fields, operation first
+     * @return the response fields, OK or ERR first
+     */
+    public String[] handle(ChatSession session, String[] request) {
+        if (request.length == 0 || request[0].isEmpty()) {
+            return error("Empty request");
+        }
+
+        try {
+            switch (request[0]) {
+                case ChatProtocol.PING:
+                    return ok("PONG");
+                case ChatProtocol.REGISTER:
+                    return register(request);
+                case ChatProtocol.LOGIN:
+                    return login(session, request);
+                default:
+                    break;
+            }
+
+            // Everything else needs a logged-in user, as in the GUI
+            if (!session.isAuthenticated()) {
+                return error("Please login first");
+            }
+
+            switch (request[0]) {
+                case ChatProtocol.SEND:
+                    return send(session, request);
+                case ChatProtocol.SEARCH_ID:
+                    return searchById(request);
+                case ChatProtocol.SEARCH_RECIPIENT:
+                    return searchByRecipient(request);
+                case ChatProtocol.DELETE:
+                    return delete(request);
+                case ChatProtocol.LONGEST:
+                    return ok(Message.findLongestMessage());
+                default:
+                    return error("Unknown operation: " + request[0]);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + request[0] + ": " + e.getMessage());
+            return error("Internal error: " + e.getMessage());
+        }
+    }
+
+    private String[] register(String[] request) {
+        if (request.length != 6) {
+            return error("Usage: REGISTER firstName lastName username password cellPhoneNumber");
+        }
+        Login newUser = new Login(request[1], request[2]);
+        String result = newUser.registerUser(request[3], request[4], request[5]);
+        return result.contains("successfully") ? ok(result) : error(result);
+    }
+
+    private String[] login(ChatSession session, String[] request) {
+        if (request.length != 3) {
+            return error("Usage: LOGIN username password");
+        }
+        if (!Login.authenticateUser(request[1], request[2])) {
+            return error("Username or password incorrect, please try again.");
+        }
+        Login user = Login.getUserByUsername(request[1]);
+        session.setUser(user);
+        return ok(user.returnLoginStatus(true));
+    }
+
+    private String[] send(ChatSession session, String[] request) {
+        if (request.length != 4) {
+            return error("Usage: SEND send|store|disregard recipientCell messageText");
+        }
+        // Rejected requests never reach the constructor, so they take no message ID or number
+        String rejection = Message.rejectionReason(request[1], request[2], request[3]);
+        if (rejection != null) {
+            return error(rejection);
+        }
+
+        Message message = new Message(request[2], request[3], session.nextMessageNumber());
+        String result = message.sentMessage(request[1]);
+        return ok(result, message.getMessageID(), message.getMessageHash());
+    }
+
+    private String[] searchById(String[] request) {
+        if (request.length != 2) {
+            return error("Usage: SEARCH_ID messageID");
+        }
+        String text = Message.searchByMessageID(request[1]);
+        return text != null ? ok(text) : error("Message not found");
+    }
+
+    private String[] searchByRecipient(String[] request) {
+        if (request.length != 2 && request.length != 4) {
+            return error("Usage: SEARCH_RECIPIENT recipientCell [offset limit]");
+        }
+        int offset = 0;
+        int limit = DEFAULT_PAGE_SIZE;
+        if (request.length == 4) {
+            try {
+                offset = Integer.parseInt(request[2]);
+                limit = Integer.parseInt(request[3]);
+            } catch (NumberFormatException e) {
+                return error("Offset and limit must be numbers");
+            }
+        }
+
+        List<Message> page = Message.searchByRecipient(request[1], offset, limit);
+        List<String> response = new ArrayList<>(page.size() + 2);
+        response.add(ChatProtocol.OK);
+        response.add(String.valueOf(Message.countByRecipient(request[1])));
+        for (Message message : page) {
+            response.add(message.getMessageText());
+        }
+        return response.toArray(new String[0]);
+    }
+
+    private String[] delete(String[] request) {
+        if (request.length != 2) {
+            return error("Usage: DELETE messageHash");
+        }
+        return Message.deleteMessageByHash(request[1])
+            ? ok("Message successfully deleted")
+            : error("Message not found");
+    }
+
+    private static String[] ok(String... fields) {
+        String[] response = new String[fields.length + 1];
+        response[0] = ChatProtocol.OK;
+        System.arraycopy(fields, 0, response, 1, fields.length);
+        return response;
+    }
+
+    private static String[] error(String message) {
+        return new String[] {ChatProtocol.ERROR, message};
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A QuickChat server engine
+ * Every engine speaks ChatProtocol on localhost and answers requests with a
+ * ChatRequestHandler; they differ only in how connections are scheduled.
+ */
+public interface ChatServer extends Closeable {
+
+    /**
+     * Binds to localhost and starts serving
+     * @param port the port to listen on, or 0 for any free port
+     * @return the port actually bound
+     * @throws IOException if the port cannot be bound
+     */
+    int start(int port) throws IOException;
+
+    /**
+     * Gets the port the server is listening on
+     * @return the bound port
+     */
+    int getPort();
+
+    /**
+     * Waits until the server has been closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitTermination() throws InterruptedException;
+
+    /**
+     * Stops accepting connections and closes every open one
+     */
+    @Override
+    void close();
+
+    /**
+     * Gets how many client connections have been accepted
+     * @return connection count
+     */
+    long getConnectionsAccepted();
+
+    /**
+     * Gets how many requests have been answered
+     * @return request count
+     */
+    long getRequestsHandled();
+
+    /**
+     * Creates a server engine by name
+     * @param engine "nio", "virtual" or "platform"
+     * @param handler the request handler
+     * @return the server, not yet started
+     */
+    static ChatServer create(String engine, ChatRequestHandler handler) {
+        switch (engine.toLowerCase()) {
+            case "nio":
+                return new NioChatServer(handler);
+            case "virtual":
+                return ThreadPerConnectionChatServer.withVirtualThreads(handler);
+            case "platform":
+                return ThreadPerConnectionChatServer.withPlatformThreads(handler,
+                    ThreadPerConnectionChatServer.DEFAULT_PLATFORM_THREADS);
+            default:
+                throw new IllegalArgumentException("Unknown server engine: " + engine + " (use nio, virtual or platform)");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Per-connection state for the QuickChat server
+ * Remembers who logged in on the connection and numbers their messages
+ */
+public class ChatSession {
+
+    private Login user;
+    private int messageCount;
+
+    /**
+     * Gets the user logged in on this connection
+     * @return the user, or null before a successful LOGIN
+     */
+    public Login getUser() {
+        return user;
+    }
+
+    /**
+     * Records a successful login
+     * @param user the authenticated user
+     */
+    public void setUser(Login user) {
+        this.user = user;
+    }
+
+    /**
+     * Checks whether a user has logged in on this connection
+     * @return true once LOGIN has succeeded
+     */
+    public boolean isAuthenticated() {
+        return user != null;
+    }
+
+    /**
+     * Gets the number for the next message sent on this connection
+     * @return the message number, starting at 0
+     */
+    public int nextMessageNumber() {
+        return messageCount++;
+    }
+}
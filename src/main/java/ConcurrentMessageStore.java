@@ -0,0 +1,224 @@
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe store for the sent, stored and disregarded message lists
+ * Message delegates all of its in-memory bookkeeping here.
+ *
+ * Writers take one of a fixed set of lock stripes chosen by recipient cell
+ * number, so sends and deletes for different recipients run in parallel while
+ * two writers touching the same message are always serialized. Readers take
+ * no lock at all: the lists and indexes are concurrent collections, so
+ * searches and reports run alongside writes and see a weakly consistent view.
+ */
+public class ConcurrentMessageStore {
+
+    // Power of two so a stripe can be picked with a mask
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<MessageStatus, SequencedMessages> messagesByStatus = new EnumMap<>(MessageStatus.class);
+    private final MessageIndex index = new MessageIndex();
+
+    public ConcurrentMessageStore() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        for (MessageStatus status : MessageStatus.values()) {
+            messagesByStatus.put(status, new SequencedMessages());
+        }
+    }
+
+    // ==========================================
+    // WRITES
+    // ==========================================
+
+    /**
+     * Adds a message with the given status
+     * @param message the message to add
+     * @param status which list the message goes in
+     * @return true if added, false if the message is already in the store
+     */
+    public boolean add(Message message, MessageStatus status) {
+        ReentrantLock lock = lockFor(message);
+        lock.lock();
+        try {
+            if (index.contains(message)) {
+                return false;
+            }
+            message.setStatus(status);
+            messagesByStatus.get(status).add(message);
+            index.add(message);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a whole batch of messages while holding every stripe once
+     * Cheaper than one add call per message when the batch is large, and
+     * readers never see part of a batch in one list but not another.
+     * @param batch the messages to add, grouped by status
+     * @return the number of messages added; ones already in the store are skipped
+     */
+    public int addAll(Map<MessageStatus, ? extends Collection<Message>> batch) {
+        int added = 0;
+        lockAll();
+        try {
+            for (Map.Entry<MessageStatus, ? extends Collection<Message>> entry : batch.entrySet()) {
+                SequencedMessages messages = messagesByStatus.get(entry.getKey());
+                for (Message message : entry.getValue()) {
+                    if (index.contains(message)) {
+                        continue;
+                    }
+                    message.setStatus(entry.getKey());
+                    messages.add(message);
+                    index.add(message);
+                    added++;
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+        return added;
+    }
+
+    /**
+     * Removes a message from its list and from every index
+     * @param message the message to remove
+     * @return true if removed, false if it was not in the store
+     */
+    public boolean remove(Message message) {
+        ReentrantLock lock = lockFor(message);
+        lock.lock();
+        try {
+            if (!index.remove(message)) {
+                return false;
+            }
+            messagesByStatus.get(message.getStatus()).remove(message);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest message with the given hash
+     * If another thread deletes the same message first, the next message
+     * with that hash (if any) is removed instead.
+     * @param messageHash the hash to delete
+     * @return the removed message, or null if no message has that hash
+     */
+    public Message removeFirstByHash(String messageHash) {
+        Message candidate;
+        while ((candidate = index.findFirstByHash(messageHash)) != null) {
+            if (remove(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes every message with the given status
+     * @param status the list to empty
+     */
+    public void removeAll(MessageStatus status) {
+        for (Message message : messagesByStatus.get(status)) {
+            remove(message);
+        }
+    }
+
+    /**
+     * Removes every message
+     * Holds every stripe so no writer sees a half-cleared store
+     */
+    public void clear() {
+        lockAll();
+        try {
+            for (SequencedMessages messages : messagesByStatus.values()) {
+                messages.clear();
+            }
+            index.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    /**
+     * Gets every message with the given status in the order they were created
+     * @param status the list to view
+     * @return live read-only view of the list
+     */
+    public List<Message> getMessages(MessageStatus status) {
+        return new MessageListView(messagesByStatus.get(status));
+    }
+
+    /**
+     * Gets the number of messages with the given status
+     * @param status the list to count
+     * @return message count
+     */
+    public int count(MessageStatus status) {
+        return messagesByStatus.get(status).size();
+    }
+
+    /**
+     * Gets the combined text length of the messages with the given status
+     * Read from a running counter - the list is not walked
+     * @param status the list to measure
+     * @return total characters
+     */
+    public long characters(MessageStatus status) {
+        return messagesByStatus.get(status).getTotalCharacters();
+    }
+
+    /**
+     * Gets the number of messages across all lists
+     * @return total message count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Gets the index used for lookups by ID, recipient, hash and length
+     * @return the message index
+     */
+    public MessageIndex getIndex() {
+        return index;
+    }
+
+    // Always locks in stripe order so two whole-store writers cannot deadlock
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Picks the lock stripe for a message's recipient
+     * @param message the message being written
+     * @return the stripe guarding that recipient
+     */
+    private ReentrantLock lockFor(Message message) {
+        String recipient = message.getRecipientCell();
+        int hash = recipient == null ? 0 : recipient.hashCode();
+        hash ^= hash >>> 16;
+        return locks[hash & (LOCK_STRIPES - 1)];
+    }
+}
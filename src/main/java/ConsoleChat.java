@@ -0,0 +1,304 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Console front end for QuickChat
+ * Reads one command per line from stdin or a batch file and runs it through
+ * the same ChatRequestHandler as the network server, so scripted runs
+ * exercise exactly the Login and Message logic the GUI uses - without a
+ * single modal dialog. Arguments are separated by spaces; wrap an argument
+ * in double quotes to include spaces (\" and \\ escape inside quotes).
+ * Blank lines and lines starting with # are ignored.
+ *
+ * Commands:
+ *   register firstName lastName username password cellPhoneNumber
+ *   login username password
+ *   send send|store|disregard recipientCell "message text"
+ *   bulk count send|store|disregard recipientCell "message text"
+ *   search id messageID
+ *   search recipient recipientCell [offset limit]
+ *   delete messageHash
+ *   longest
+ *   report [file]
+ *   stats
+ *   help
+ *   quit
+ */
+public class ConsoleChat {
+
+    private final ChatRequestHandler handler;
+    private final PrintStream out;
+    private final boolean quiet;
+    private final ChatSession session = new ChatSession();
+
+    // Totals across the whole run
+    private long operations;
+    private long errors;
+    private long startNanos = System.nanoTime();
+
+    /**
+     * Creates a console session
+     * @param handler the request handler
+     * @param out where results are printed
+     * @param quiet if true, only errors and the final summary are printed
+     */
+    public ConsoleChat(ChatRequestHandler handler, PrintStream out, boolean quiet) {
+        this.handler = handler;
+        this.out = out;
+        this.quiet = quiet;
+    }
+
+    /**
+     * Runs every command from the reader until it ends or quit is read
+     * @param in the command source
+     * @param interactive if true, a prompt is printed before each command
+     * @return the number of commands that failed
+     * @throws IOException if the command source cannot be read
+     */
+    public long run(BufferedReader in, boolean interactive) throws IOException {
+        startNanos = System.nanoTime();
+        int lineNumber = 0;
+        String line;
+        while (true) {
+            if (interactive) {
+                out.print("> ");
+                out.flush();
+            }
+            if ((line = in.readLine()) == null) {
+                break;
+            }
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (!execute(trimmed, lineNumber)) {
+                break;
+            }
+        }
+        printSummary();
+        return errors;
+    }
+
+    /**
+     * Runs a single command line
+     * @param line the command
+     * @param lineNumber the line number, for error messages
+     * @return false if the command was quit
+     */
+    boolean execute(String line, int lineNumber) {
+        List<String> args;
+        try {
+            args = tokenize(line);
+        } catch (IllegalArgumentException e) {
+            report(lineNumber, new String[] {ChatProtocol.ERROR, e.getMessage()});
+            return true;
+        }
+
+        String command = args.get(0).toLowerCase();
+        switch (command) {
+            case "quit":
+            case "exit":
+                return false;
+            case "help":
+                out.println("Commands: register, login, send, bulk, search id, search recipient, "
+                    + "delete, longest, report, stats, quit");
+                return true;
+            case "report":
+                report(args, lineNumber);
+                return true;
+            case "stats":
+                printSummary();
+                return true;
+            case "bulk":
+                bulk(args, lineNumber);
+                return true;
+            default:
+                String[] request = toRequest(command, args);
+                if (request == null) {
+                    report(lineNumber, new String[] {ChatProtocol.ERROR, "Unknown command: " + line + " (type help)"});
+                } else {
+                    report(lineNumber, handler.handle(session, request));
+                }
+                return true;
+        }
+    }
+
+    /**
+     * Maps a console command onto a protocol request
+     * @return the request, or null if the command is unknown
+     */
+    private static String[] toRequest(String command, List<String> args) {
+        List<String> request = new ArrayList<>(args.size());
+        switch (command) {
+            case "register":
+                request.add(ChatProtocol.REGISTER);
+                break;
+            case "login":
+                request.add(ChatProtocol.LOGIN);
+                break;
+            case "send":
+                request.add(ChatProtocol.SEND);
+                break;
+            case "delete":
+                request.add(ChatProtocol.DELETE);
+                break;
+            case "longest":
+                request.add(ChatProtocol.LONGEST);
+                break;
+            case "search":
+                // "search id X" or "search recipient X"
+                if (args.size() > 1 && args.get(1).equalsIgnoreCase("id")) {
+                    request.add(ChatProtocol.SEARCH_ID);
+                } else if (args.size() > 1 && args.get(1).equalsIgnoreCase("recipient")) {
+                    request.add(ChatProtocol.SEARCH_RECIPIENT);
+                } else {
+                    return null;
+                }
+                request.addAll(args.subList(Math.min(2, args.size()), args.size()));
+                return request.toArray(new String[0]);
+            default:
+                return null;
+        }
+        request.addAll(args.subList(1, args.size()));
+        return request.toArray(new String[0]);
+    }
+
+    /**
+     * Sends the same message count times - bulk count action recipient text
+     * The copies go through Message.sendBatch, so they are validated together,
+     * indexed in one step and persisted with a single journal write.
+     */
+    private void bulk(List<String> args, int lineNumber) {
+        if (args.size() != 5) {
+            report(lineNumber, new String[] {ChatProtocol.ERROR, "Usage: bulk count send|store|disregard recipientCell \"message text\""});
+            return;
+        }
+        int count;
+        try {
+            count = Integer.parseInt(args.get(1));
+        } catch (NumberFormatException e) {
+            report(lineNumber, new String[] {ChatProtocol.ERROR, "Count must be a number"});
+            return;
+        }
+        if (!session.isAuthenticated()) {
+            report(lineNumber, new String[] {ChatProtocol.ERROR, "Please login first"});
+            return;
+        }
+
+        List<OutgoingMessage> batch = new ArrayList<>(count);
+        OutgoingMessage item = new OutgoingMessage(args.get(3), args.get(4), args.get(2));
+        for (int i = 0; i < count; i++) {
+            batch.add(item);
+        }
+        MessageBatchResult result = Message.sendBatch(batch);
+
+        operations += count;
+        errors += result.getFailureCount();
+        if (!result.getFailures().isEmpty()) {
+            out.println("ERR line " + lineNumber + ": " + result.getFailures().values().iterator().next());
+        }
+        if (!quiet) {
+            out.println("OK " + result.getAccepted().size() + " of " + count + " messages processed (" + result + ")");
+        }
+    }
+
+    private void report(List<String> args, int lineNumber) {
+        if (args.size() > 1) {
+            String path = args.get(1);
+            report(lineNumber, Message.exportComprehensiveReport(path)
+                ? new String[] {ChatProtocol.OK, "Report written to " + path}
+                : new String[] {ChatProtocol.ERROR, "Could not write report to " + path});
+            return;
+        }
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out));
+            Message.writeComprehensiveReport(writer);
+            writer.flush(); // out stays open for the next command
+        } catch (IOException e) {
+            report(lineNumber, new String[] {ChatProtocol.ERROR, "Could not write report: " + e.getMessage()});
+        }
+    }
+
+    private void report(int lineNumber, String[] response) {
+        operations++;
+        if (ChatProtocol.ERROR.equals(response[0])) {
+            errors++;
+            out.println("ERR line " + lineNumber + ": " + response[1]);
+        } else if (!quiet) {
+            out.println(String.join(" | ", response));
+        }
+    }
+
+    private void printSummary() {
+        long elapsed = System.nanoTime() - startNanos;
+        out.printf("%,d operations, %,d errors in %.1f ms (%,.0f ops/s)%n",
+            operations, errors, elapsed / 1e6, elapsed == 0 ? 0.0 : operations * 1e9 / elapsed);
+    }
+
+    /**
+     * Splits a command line on spaces, keeping double-quoted arguments together
+     * @param line the command line
+     * @return the arguments
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    token.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote");
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Gets how many operations have run, counting each message of a bulk send
+     * @return operation count
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Gets how many operations failed
+     * @return error count
+     */
+    public long getErrors() {
+        return errors;
+    }
+}
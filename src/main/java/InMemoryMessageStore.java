@@ -0,0 +1,53 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Message store that keeps everything in memory
+ * Nothing survives a restart. Useful for tests, demos and measuring how
+ * much of a workload is spent on persistence.
+ */
+public class InMemoryMessageStore implements MessageStore {
+
+    // Persisted messages by ID, in the order they were added
+    private final Map<String, Message> messages = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void append(Message message) {
+        messages.put(message.getMessageID(), message);
+    }
+
+    @Override
+    public synchronized void appendAll(Collection<Message> batch) {
+        for (Message message : batch) {
+            messages.put(message.getMessageID(), message);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Message message) {
+        messages.remove(message.getMessageID());
+    }
+
+    @Override
+    public void load(Consumer<Message> consumer) {
+        List<Message> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(messages.values());
+        }
+        snapshot.forEach(consumer);
+    }
+
+    @Override
+    public synchronized void reset() {
+        messages.clear();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
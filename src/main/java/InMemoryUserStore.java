@@ -0,0 +1,34 @@
+/**
+ * User store that keeps everything in memory
+ * Registrations are lost on restart. Useful for tests, demos and load
+ * generation where the registration log would only get in the way.
+ */
+public class InMemoryUserStore implements UserStore {
+
+    private final UserDirectory directory = new UserDirectory();
+
+    @Override
+    public UserDirectory getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void refresh() {
+        // Always up to date
+    }
+
+    @Override
+    public boolean register(Login user) {
+        return directory.add(user);
+    }
+
+    @Override
+    public void save() {
+        // Nothing to write
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,356 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JSON file backed user store for QuickChat
+ * Keeps the parsed users resident in a UserDirectory and only re-reads
+ * the files when their modification time or size has changed on disk.
+ *
+ * The JSON file is a snapshot; registrations since the last snapshot are
+ * appended to a UserJournal next to it (users.json -> users.log) and folded
+ * into a new snapshot on a background thread once the journal is as large
+ * as the snapshot, so each rewrite is paid for by as many bytes of
+ * registrations and registering stays O(1) amortized.
+ *
+ * Safe for concurrent use. A registration claims its username with the
+ * directory's lock-free putIfAbsent and only takes the store lock to append
+ * to the journal; saves and reloads are serialized on the same lock, and
+ * lookups go straight to the directory. Once the users have been loaded, a
+ * refresh that finds another thread already refreshing simply returns - the
+ * directory it reads is always complete.
+ *
+ * This is the "json" UserStore backend.
+ */
+public class JsonUserStore implements UserStore {
+
+    // Fold the journal into a fresh snapshot once it is as large as the snapshot,
+    // but never while it is smaller than this
+    private static final long COMPACTION_MIN_BYTES = 64 * 1024;
+
+    // Single background worker shared by every store, so registrations never wait on a snapshot write
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Gson GSON = new Gson();
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Type USER_LIST_TYPE = new TypeToken<List<Login>>(){}.getType();
+
+    private final File file;
+    private final UserJournal journal;
+    private final UserDirectory directory = new UserDirectory();
+
+    // Guards the file state below and every write to the files
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    // File state the directory was last synchronised with
+    private FileTime loadedModifiedTime;
+    private long loadedSize = -1;
+    private long loadedJournalSize = -1;
+
+    // Bumped whenever the directory is replaced or saved, so a compaction that
+    // started before then throws its snapshot away instead of publishing it
+    private long generation;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    // Counters so callers can confirm the file I/O has gone away
+    private volatile long cacheHits;
+    private volatile long reloadCount;
+
+    /**
+     * Creates a store for the given JSON snapshot file
+     * @param filePath path of the users JSON file
+     */
+    public JsonUserStore(String filePath) {
+        this.file = new File(filePath);
+        this.journal = new UserJournal(journalPathFor(filePath));
+    }
+
+    /**
+     * Gets the directory holding the resident users
+     * @return the user directory
+     */
+    @Override
+    public UserDirectory getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Makes sure the resident users match the files on disk
+     * The snapshot is only parsed again if it changed since the last load or
+     * save; if only the journal grew, just the new records are replayed
+     */
+    @Override
+    public void refresh() {
+        if (loaded) {
+            if (!lock.tryLock()) {
+                return; // Another thread is already refreshing
+            }
+        } else {
+            lock.lock(); // Nothing loaded yet - wait rather than read an empty directory
+        }
+        try {
+            ensureParentDirectory();
+
+            if (!file.exists()) {
+                // Start from an empty snapshot, but keep the journal - its
+                // registrations are replayed on top, not thrown away
+                try (FileWriter writer = new FileWriter(file)) {
+                    writer.write("[]");
+                }
+                List<Login> journaledUsers = new ArrayList<>();
+                long replayed = journal.replay(0, journaledUsers::add);
+                directory.reload(journaledUsers);
+                generation++;
+                rememberFileState();
+                loadedJournalSize = replayed;
+                return;
+            }
+
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            long journalSize = journal.getFile().length();
+            boolean snapshotUnchanged = attributes.lastModifiedTime().equals(loadedModifiedTime)
+                && attributes.size() == loadedSize;
+
+            if (snapshotUnchanged && journalSize == loadedJournalSize) {
+                cacheHits++;
+                return;
+            }
+
+            if (snapshotUnchanged && journalSize > loadedJournalSize) {
+                // Another writer appended registrations - replay just the tail
+                loadedJournalSize = journal.replay(loadedJournalSize, directory::add);
+                reloadCount++;
+                return;
+            }
+
+            List<Login> loadedUsers;
+            try (FileReader reader = new FileReader(file)) {
+                loadedUsers = GSON.fromJson(reader, USER_LIST_TYPE);
+            }
+            if (loadedUsers == null) {
+                loadedUsers = new ArrayList<>();
+            }
+
+            // Snapshot and journal are swapped in together so lookups never miss a user;
+            // reload keeps registrations that are in the directory but not yet journaled
+            loadedJournalSize = journal.replay(0, loadedUsers::add);
+            directory.reload(loadedUsers);
+            generation++;
+            reloadCount++;
+            loadedModifiedTime = attributes.lastModifiedTime();
+            loadedSize = attributes.size();
+        } catch (IOException e) {
+            System.err.println("Error loading users from JSON: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("JSON parsing error for users: " + e.getMessage());
+        } finally {
+            loaded = true;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a newly registered user and records it in the journal
+     * @param user the user to register
+     * @return true if registered, false if the username is already taken
+     */
+    @Override
+    public boolean register(Login user) {
+        // putIfAbsent - of two threads registering the same username only one gets past here
+        if (!directory.add(user)) {
+            return false;
+        }
+
+        lock.lock();
+        try {
+            journal.append(user);
+            loadedJournalSize = journal.getFile().length();
+
+            if (loadedJournalSize >= Math.max(COMPACTION_MIN_BYTES, loadedSize)
+                    && compactionScheduled.compareAndSet(false, true)) {
+                COMPACTOR.submit(this::compactQuietly);
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving users to JSON: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Writes all resident users to a fresh snapshot and empties the journal
+     * The snapshot is written to a temporary file first so a crash can never
+     * leave a truncated users.json behind
+     */
+    @Override
+    public void save() {
+        lock.lock();
+        try {
+            ensureParentDirectory();
+
+            File tempFile = new File(file.getPath() + ".tmp");
+            try (FileWriter writer = new FileWriter(tempFile)) {
+                PRETTY_GSON.toJson(directory.getUsers(), writer);
+            }
+            Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.truncate();
+            generation++;
+
+            // Our own write must not trigger a reload on the next refresh
+            rememberFileState();
+        } catch (IOException e) {
+            System.err.println("Error saving users to JSON: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot without holding up registrations
+     * Only the journal length is read under the store lock; the snapshot is
+     * written outside it, and the lock is taken again just to rename it into
+     * place and drop the journal records it now holds. Registrations made
+     * meanwhile stay in the journal - any that also reached the snapshot are
+     * skipped as duplicates on replay.
+     * @throws IOException if the snapshot or the journal could not be written
+     */
+    public void compact() throws IOException {
+        long journaled;
+        long startGeneration;
+        lock.lock();
+        try {
+            ensureParentDirectory();
+            journaled = journal.getFile().length();
+            startGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        // Every journaled user was added to the directory before its record was written
+        File tempFile = new File(file.getPath() + ".compact.tmp");
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            PRETTY_GSON.toJson(directory.getUsers(), writer);
+        }
+
+        lock.lock();
+        try {
+            if (generation != startGeneration) {
+                // Saved or reloaded meanwhile - the directory we wrote is out of date
+                Files.deleteIfExists(tempFile.toPath());
+                return;
+            }
+            Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.discardBefore(journaled);
+            rememberFileState();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for any scheduled compaction to finish
+     */
+    public void awaitCompaction() {
+        try {
+            COMPACTOR.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Error waiting for user journal compaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a running compaction, then forces pending journal records to
+     * disk and releases the log file
+     */
+    @Override
+    public void close() {
+        awaitCompaction();
+        journal.close();
+    }
+
+    /**
+     * Gets how many refreshes were served from memory
+     * @return number of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Gets how many times the files were actually parsed
+     * @return number of reloads
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Resets the hit and reload counters
+     */
+    public void resetCounters() {
+        cacheHits = 0;
+        reloadCount = 0;
+    }
+
+    /**
+     * Gets the journal holding registrations since the last snapshot
+     * @return the user journal
+     */
+    public UserJournal getJournal() {
+        return journal;
+    }
+
+    private void compactQuietly() {
+        compactionScheduled.set(false);
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Error compacting users JSON: " + e.getMessage());
+        }
+    }
+
+    private static String journalPathFor(String filePath) {
+        if (filePath.endsWith(".json")) {
+            return filePath.substring(0, filePath.length() - ".json".length()) + ".log";
+        }
+        return filePath + ".log";
+    }
+
+    private void ensureParentDirectory() {
+        File dataDir = file.getAbsoluteFile().getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+    }
+
+    private void rememberFileState() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        loadedModifiedTime = attributes.lastModifiedTime();
+        loadedSize = attributes.size();
+        loadedJournalSize = journal.getFile().length();
+    }
+}
@@ -1,13 +1,3 @@
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import java.io.FileWriter;
-import java.io.FileReader;
-import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Login class for QuickChat application
  * Handles user registration and authentication with persistent JSON storage
@@ -24,8 +14,18 @@ public class Login {
     private String firstName;
     private String lastName;
     
-    // Static list to store all registered users
-    private static List<Login> registeredUsers = new ArrayList<>();
+    // Static user store that keeps the registered users resident between calls -
+    // users.json unless another backend is chosen with quickchat.storage or useStorage
+    private static volatile UserStore userStore =
+        UserStore.create(System.getProperty("quickchat.storage", "json"), "data");
+    
+    // Directory of all registered users, indexed by username and cell number
+    private static volatile UserDirectory registeredUsers = userStore.getDirectory();
+    
+    static {
+        // Make sure batched journal writes reach the disk on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> userStore.close()));
+    }
     
     // Default constructor
     public Login() {
@@ -124,25 +124,9 @@ public class Login {
      * @return true if phone number is valid, false otherwise
      */
     public boolean checkCellPhoneNumber(String cellPhoneNumber) {
-        /*
-         * The following regular expression was generated using Claude AI
-         * Anthropic. (2024). Claude (Version 3.5) [Large language model].
-         * https://claude.ai/
-         * Prompt: "i need regex for south african phone numbers +27 something, 
-         * but max 10 chars total. regex is confusing help!"
-         */
-        
-        // Check if phone number is null or empty
-        if (cellPhoneNumber == null || cellPhoneNumber.isEmpty()) {
-            return false;
-        }
-        
-        // Check if phone number starts with +27 (South African country code)
-        // and has the correct format: +27 followed by 9 digits (total 12 characters)
-        // Based on test case: +27838968976 should be valid
-        String regex = "^\\+27[0-9]{9}$";
-        
-        return cellPhoneNumber.matches(regex);
+        // +27 followed by 9 digits (total 12 characters) under the default rule,
+        // e.g. +27838968976. Checked character by character - no regex per call.
+        return PhoneNumberValidator.getDefault().isValid(cellPhoneNumber);
     }
     
     /**
@@ -183,9 +167,10 @@ public class Login {
         this.password = password;
         this.cellPhoneNumber = cellPhoneNumber;
         
-        // Add to registered users list and save to JSON
-        registeredUsers.add(this);
-        saveUsersToJSON();
+        // Add to registered users and append the registration to the journal
+        if (!userStore.register(this)) {
+            return "Username already exists. Please choose a different username.";
+        }
         
         return "User registered successfully.";
     }
@@ -202,14 +187,9 @@ public class Login {
         // Load users from JSON
         loadUsersFromJSON();
         
-        // Search for user with matching credentials
-        for (Login user : registeredUsers) {
-            if (user.username.equals(username) && user.password.equals(password)) {
-                return true;
-            }
-        }
-        
-        return false;
+        // Look up the user directly instead of scanning every account
+        Login user = registeredUsers.findByUsername(username);
+        return user != null && user.password != null && user.password.equals(password);
     }
     
     /**
@@ -219,14 +199,17 @@ public class Login {
      */
     public static Login getUserByUsername(String username) {
         loadUsersFromJSON();
-        
-        for (Login user : registeredUsers) {
-            if (user.username.equals(username)) {
-                return user;
-            }
-        }
-        
-        return null;
+        return registeredUsers.findByUsername(username);
+    }
+    
+    /**
+     * Gets user details by cell phone number
+     * @param cellPhoneNumber The cell number to find
+     * @return Login object if found, null otherwise
+     */
+    public static Login getUserByCellPhoneNumber(String cellPhoneNumber) {
+        loadUsersFromJSON();
+        return registeredUsers.findByCellPhoneNumber(cellPhoneNumber);
     }
     
     /**
@@ -296,60 +279,40 @@ public class Login {
     // ========== JSON STORAGE METHODS ==========
     
     /**
-     * Saves all registered users to JSON file
+     * Saves all registered users to a fresh JSON snapshot
      */
     private static void saveUsersToJSON() {
-        try {
-            // Ensure data directory exists
-            java.io.File dataDir = new java.io.File("data");
-            if (!dataDir.exists()) {
-                dataDir.mkdirs();
-            }
-            
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            FileWriter writer = new FileWriter("data/users.json");
-            gson.toJson(registeredUsers, writer);
-            writer.close();
-        } catch (IOException e) {
-            System.err.println("Error saving users to JSON: " + e.getMessage());
-        }
+        userStore.save();
     }
     
     /**
      * Loads registered users from JSON file
+     * The file is only parsed again when it has changed on disk
      */
     private static void loadUsersFromJSON() {
-        try {
-            // Ensure data directory exists
-            java.io.File dataDir = new java.io.File("data");
-            if (!dataDir.exists()) {
-                dataDir.mkdirs();
-            }
-            
-            java.io.File jsonFile = new java.io.File("data/users.json");
-            if (!jsonFile.exists()) {
-                // Create empty JSON file if it doesn't exist
-                try (java.io.FileWriter writer = new java.io.FileWriter(jsonFile)) {
-                    writer.write("[]");
-                }
-                return;
-            }
-            
-            Gson gson = new Gson();
-            FileReader reader = new FileReader(jsonFile);
-            Type listType = new TypeToken<List<Login>>(){}.getType();
-            List<Login> loadedUsers = gson.fromJson(reader, listType);
-            reader.close();
-            
-            if (loadedUsers != null) {
-                registeredUsers.clear();
-                registeredUsers.addAll(loadedUsers);
-            }
-        } catch (IOException e) {
-            System.err.println("Error loading users from JSON: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("JSON parsing error for users: " + e.getMessage());
-        }
+        userStore.refresh();
+    }
+    
+    /**
+     * Gets the backing user store
+     * The default JsonUserStore also exposes cache hit and reload counters
+     * @return the user store
+     */
+    public static UserStore getUserStore() {
+        return userStore;
+    }
+    
+    /**
+     * Switches the backend registered users are persisted to
+     * Call at startup, before users are loaded or registered. The previous
+     * backend is closed; nothing is copied across.
+     * @param store the new backend
+     */
+    public static void useStorage(UserStore store) {
+        UserStore previous = userStore;
+        userStore = store;
+        registeredUsers = store.getDirectory();
+        previous.close();
     }
     
     /**
@@ -358,12 +321,7 @@ public class Login {
      * @return true if username exists, false otherwise
      */
     private static boolean isUsernameExists(String username) {
-        for (Login user : registeredUsers) {
-            if (user.username.equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return registeredUsers.containsUsername(username);
     }
     
     /**
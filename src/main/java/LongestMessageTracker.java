@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps messages ordered by text length so the longest ones are always at hand
+ * Adding or removing a message is O(log n), and the longest message is found
+ * without scanning every list. Messages of equal length keep the order they
+ * were added in, so the earliest one wins a tie. Safe for concurrent use.
+ *
+ * Each message is ordered by the text length it had when it was added, so a
+ * message whose text is changed while tracked can still be found and removed.
+ */
+public class LongestMessageTracker {
+
+    // Longest text first, then oldest first
+    private static final Comparator<Entry> LONGEST_FIRST =
+        Comparator.comparingInt((Entry entry) -> entry.length).reversed()
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final ConcurrentSkipListSet<Entry> messagesByLength = new ConcurrentSkipListSet<>(LONGEST_FIRST);
+
+    // Finds the entry a message was added with, whatever its text is now
+    private final Map<Long, Entry> entriesBySequence = new ConcurrentHashMap<>();
+
+    /**
+     * Starts tracking a message
+     * @param message the message to track
+     */
+    public void add(Message message) {
+        if (message.getMessageText() == null) {
+            return;
+        }
+        Entry entry = new Entry(message);
+        if (entriesBySequence.putIfAbsent(entry.sequence, entry) == null) {
+            messagesByLength.add(entry);
+        }
+    }
+
+    /**
+     * Stops tracking a message, including the current longest one
+     * @param message the message to remove
+     */
+    public void remove(Message message) {
+        Entry entry = entriesBySequence.get(message.getSequence());
+        if (entry != null && entry.message == message && entriesBySequence.remove(entry.sequence, entry)) {
+            messagesByLength.remove(entry);
+        }
+    }
+
+    /**
+     * Gets the longest tracked message
+     * @return the longest message, or null if nothing is tracked
+     */
+    public Message longest() {
+        // pollFirst would remove it, and first() throws when empty
+        for (Entry entry : messagesByLength) {
+            return entry.message;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the K longest tracked messages, longest first
+     * @param k how many messages to return
+     * @return up to k messages
+     */
+    public List<Message> topK(int k) {
+        List<Message> result = new ArrayList<>(Math.max(0, Math.min(k, 16)));
+        for (Entry entry : messagesByLength) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(entry.message);
+        }
+        return result;
+    }
+
+    /**
+     * Stops tracking every message
+     */
+    public void clear() {
+        entriesBySequence.clear();
+        messagesByLength.clear();
+    }
+
+    // A message and the text length it was ordered by when it was added
+    private static final class Entry {
+        final Message message;
+        final long sequence;
+        final int length;
+
+        Entry(Message message) {
+            this.message = message;
+            this.sequence = message.getSequence();
+            this.length = message.getMessageText().length();
+        }
+    }
+}
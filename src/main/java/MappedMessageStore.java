@@ -0,0 +1,401 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Memory-mapped binary message store for QuickChat
+ *
+ * Messages are small and highly structured, so instead of pretty-printed JSON
+ * each one is stored as a fixed-width header followed by its variable-length
+ * UTF-8 text and hash. Opening the file only reads the file header, and
+ * records are read in place from the mapped buffer.
+ *
+ * File header (32 bytes): [int magic][int version][long write position][int record count][int live count][8 reserved]
+ * Record header (44 bytes):
+ *   [byte flags][byte id length][byte cell length][byte reserved]
+ *   [int message number][short text length][short hash length]
+ *   [16 bytes message ID][16 bytes recipient cell]
+ * followed by the text bytes and the hash bytes. Null strings use length 0xFF / 0xFFFF.
+ */
+public class MappedMessageStore {
+
+    private static final int MAGIC = 0x51434D53; // "QCMS"
+    private static final int VERSION = 1;
+
+    static final int FILE_HEADER_BYTES = 32;
+    static final int RECORD_HEADER_BYTES = 44;
+
+    private static final int ID_FIELD_BYTES = 16;
+    private static final int CELL_FIELD_BYTES = 16;
+    private static final int NULL_SHORT_FIELD = 0xFF;
+    private static final int NULL_LONG_FIELD = 0xFFFF;
+
+    private static final byte FLAG_LIVE = 1;
+    private static final byte FLAG_DELETED = 2;
+
+    private static final long INITIAL_MAPPING_BYTES = 1024 * 1024;
+
+    // Offsets inside the file header
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int RECORD_COUNT_OFFSET = 16;
+    private static final int LIVE_COUNT_OFFSET = 20;
+
+    // Offsets inside a record header
+    private static final int FLAGS_OFFSET = 0;
+    private static final int ID_LENGTH_OFFSET = 1;
+    private static final int CELL_LENGTH_OFFSET = 2;
+    private static final int NUMBER_OFFSET = 4;
+    private static final int TEXT_LENGTH_OFFSET = 8;
+    private static final int HASH_LENGTH_OFFSET = 10;
+    private static final int ID_OFFSET = 12;
+    private static final int CELL_OFFSET = 28;
+
+    private final File file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long writePosition;
+    private int recordCount;
+    private int liveCount;
+
+    /**
+     * Read-only flyweight over a record in the mapped buffer
+     * The same instance is reused while iterating, so copy out anything you keep
+     */
+    public class Record {
+        private int offset;
+
+        public long getOffset() { return offset; }
+
+        public boolean isLive() { return buffer.get(offset + FLAGS_OFFSET) == FLAG_LIVE; }
+
+        public int getMessageNumber() { return buffer.getInt(offset + NUMBER_OFFSET); }
+
+        /**
+         * Gets the UTF-8 length of the message text without decoding it
+         * @return text length in bytes, or -1 for a null text
+         */
+        public int getTextByteLength() {
+            int length = Short.toUnsignedInt(buffer.getShort(offset + TEXT_LENGTH_OFFSET));
+            return length == NULL_LONG_FIELD ? -1 : length;
+        }
+
+        /**
+         * Compares the stored recipient with the given one without decoding it
+         * @param recipientCell the recipient to compare against
+         * @return true if they are equal
+         */
+        public boolean recipientEquals(String recipientCell) {
+            return asciiEquals(offset + CELL_OFFSET, buffer.get(offset + CELL_LENGTH_OFFSET), recipientCell);
+        }
+
+        /**
+         * Compares the stored message ID with the given one without decoding it
+         * @param messageID the ID to compare against
+         * @return true if they are equal
+         */
+        public boolean messageIdEquals(String messageID) {
+            return asciiEquals(offset + ID_OFFSET, buffer.get(offset + ID_LENGTH_OFFSET), messageID);
+        }
+
+        public String getMessageID() { return readAscii(offset + ID_OFFSET, buffer.get(offset + ID_LENGTH_OFFSET)); }
+
+        public String getRecipientCell() { return readAscii(offset + CELL_OFFSET, buffer.get(offset + CELL_LENGTH_OFFSET)); }
+
+        public String getMessageText() {
+            return readUtf8(offset + RECORD_HEADER_BYTES, getTextByteLength());
+        }
+
+        public String getMessageHash() {
+            int textLength = Math.max(0, getTextByteLength());
+            int hashLength = Short.toUnsignedInt(buffer.getShort(offset + HASH_LENGTH_OFFSET));
+            return readUtf8(offset + RECORD_HEADER_BYTES + textLength, hashLength == NULL_LONG_FIELD ? -1 : hashLength);
+        }
+
+        /**
+         * Decodes the record into a Message
+         * @return the decoded message
+         */
+        public Message toMessage() {
+            return Message.restore(getMessageID(), getRecipientCell(), getMessageText(), getMessageHash(), getMessageNumber());
+        }
+
+        int length() {
+            int textLength = Math.max(0, getTextByteLength());
+            int hashLength = Short.toUnsignedInt(buffer.getShort(offset + HASH_LENGTH_OFFSET));
+            return RECORD_HEADER_BYTES + textLength + (hashLength == NULL_LONG_FIELD ? 0 : hashLength);
+        }
+    }
+
+    /**
+     * Opens (or creates) a mapped message file
+     * Only the file header is read, so opening does not depend on the message count
+     *
+     * @param filePath path of the binary message file
+     * @throws IOException if the file could not be opened or is not a message store
+     */
+    public MappedMessageStore(String filePath) throws IOException {
+        this.file = new File(filePath);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        this.channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long existingSize = channel.size();
+        map(Math.max(existingSize, INITIAL_MAPPING_BYTES));
+
+        if (existingSize < FILE_HEADER_BYTES) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            writePosition = FILE_HEADER_BYTES;
+            writeFileHeader();
+        } else {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("Not a QuickChat message store: " + filePath);
+            }
+            writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+            recordCount = buffer.getInt(RECORD_COUNT_OFFSET);
+            liveCount = buffer.getInt(LIVE_COUNT_OFFSET);
+        }
+    }
+
+    /**
+     * Appends a message
+     * @param message the message to store
+     * @return offset of the new record, used to delete it later
+     * @throws IOException if a field does not fit the record layout or the file could not grow
+     */
+    public synchronized long append(Message message) throws IOException {
+        byte[] id = ascii(message.getMessageID(), ID_FIELD_BYTES, "message ID");
+        byte[] cell = ascii(message.getRecipientCell(), CELL_FIELD_BYTES, "recipient cell");
+        byte[] text = utf8(message.getMessageText(), "message text");
+        byte[] hash = utf8(message.getMessageHash(), "message hash");
+
+        int length = RECORD_HEADER_BYTES + (text == null ? 0 : text.length) + (hash == null ? 0 : hash.length);
+        ensureCapacity(writePosition + length);
+
+        int offset = (int) writePosition;
+        buffer.put(offset + FLAGS_OFFSET, FLAG_LIVE);
+        buffer.put(offset + ID_LENGTH_OFFSET, (byte) (id == null ? NULL_SHORT_FIELD : id.length));
+        buffer.put(offset + CELL_LENGTH_OFFSET, (byte) (cell == null ? NULL_SHORT_FIELD : cell.length));
+        buffer.put(offset + 3, (byte) 0);
+        buffer.putInt(offset + NUMBER_OFFSET, message.getMessageNumber());
+        buffer.putShort(offset + TEXT_LENGTH_OFFSET, (short) (text == null ? NULL_LONG_FIELD : text.length));
+        buffer.putShort(offset + HASH_LENGTH_OFFSET, (short) (hash == null ? NULL_LONG_FIELD : hash.length));
+        putBytes(offset + ID_OFFSET, id);
+        putBytes(offset + CELL_OFFSET, cell);
+        putBytes(offset + RECORD_HEADER_BYTES, text);
+        putBytes(offset + RECORD_HEADER_BYTES + (text == null ? 0 : text.length), hash);
+
+        writePosition += length;
+        recordCount++;
+        liveCount++;
+        writeFileHeader();
+        return offset;
+    }
+
+    /**
+     * Marks the record at the given offset as deleted
+     * @param offset the record offset returned by append
+     * @return true if a live record was deleted
+     */
+    public synchronized boolean delete(long offset) {
+        if (offset < FILE_HEADER_BYTES || offset >= writePosition) {
+            return false;
+        }
+        int position = (int) offset;
+        if (buffer.get(position + FLAGS_OFFSET) != FLAG_LIVE) {
+            return false;
+        }
+        buffer.put(position + FLAGS_OFFSET, FLAG_DELETED);
+        liveCount--;
+        writeFileHeader();
+        return true;
+    }
+
+    /**
+     * Visits every live record in insertion order without decoding it
+     * @param visitor receives a reused flyweight for each live record
+     */
+    public synchronized void forEachRecord(Consumer<Record> visitor) {
+        Record record = new Record();
+        long position = FILE_HEADER_BYTES;
+        while (position < writePosition) {
+            record.offset = (int) position;
+            if (record.isLive()) {
+                visitor.accept(record);
+            }
+            position += record.length();
+        }
+    }
+
+    /**
+     * Decodes every live message in insertion order
+     * @param consumer receives each decoded message
+     */
+    public void load(Consumer<Message> consumer) {
+        forEachRecord(record -> consumer.accept(record.toMessage()));
+    }
+
+    /**
+     * Reads a single record by offset
+     * @param offset the record offset
+     * @return a new flyweight positioned on that record
+     */
+    public synchronized Record recordAt(long offset) {
+        Record record = new Record();
+        record.offset = (int) offset;
+        return record;
+    }
+
+    /**
+     * Drops every record
+     */
+    public synchronized void clear() {
+        writePosition = FILE_HEADER_BYTES;
+        recordCount = 0;
+        liveCount = 0;
+        writeFileHeader();
+    }
+
+    /**
+     * Forces mapped changes to disk
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Forces changes to disk, trims the file to its used size and closes it
+     */
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.truncate(writePosition);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing message store: " + e.getMessage());
+        }
+    }
+
+    public synchronized int getRecordCount() { return recordCount; }
+    public synchronized int getLiveCount() { return liveCount; }
+
+    /**
+     * Gets the number of bytes used by the header and records
+     * @return used size in bytes
+     */
+    public synchronized long getUsedBytes() { return writePosition; }
+
+    public File getFile() { return file; }
+
+    // ========== BUFFER HELPERS ==========
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("Message store is full: " + file);
+        }
+        long newSize = Math.min(Integer.MAX_VALUE, Math.max(required, (long) buffer.capacity() * 2));
+        buffer.force();
+        map(newSize);
+    }
+
+    private void writeFileHeader() {
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putInt(RECORD_COUNT_OFFSET, recordCount);
+        buffer.putInt(LIVE_COUNT_OFFSET, liveCount);
+    }
+
+    private void putBytes(int position, byte[] bytes) {
+        if (bytes == null) {
+            return;
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.put(bytes);
+    }
+
+    private boolean asciiEquals(int position, byte storedLength, String value) {
+        int length = Byte.toUnsignedInt(storedLength);
+        if (value == null || length == NULL_SHORT_FIELD) {
+            return value == null && length == NULL_SHORT_FIELD;
+        }
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readAscii(int position, byte storedLength) {
+        int length = Byte.toUnsignedInt(storedLength);
+        if (length == NULL_SHORT_FIELD) {
+            return null;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) buffer.get(position + i);
+        }
+        return new String(chars);
+    }
+
+    private String readUtf8(int position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Fields that do not fit are reported as IOExceptions so callers handle them like any failed write
+    private static byte[] ascii(String value, int maxLength, String field) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IOException("The " + field + " is too long for the binary store: " + value);
+        }
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F) {
+                throw new IOException("The " + field + " must be ASCII: " + value);
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static byte[] utf8(String value, String field) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_LONG_FIELD) {
+            throw new IOException("The " + field + " is too long for the binary store");
+        }
+        return bytes;
+    }
+}
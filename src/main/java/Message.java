@@ -3,17 +3,28 @@ import javax.swing.JTextArea;
 import javax.swing.JScrollPane;
 import java.awt.Font;
 import java.awt.Dimension;
-import java.io.FileWriter;
-import java.io.FileReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Scanner;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Message class for QuickChat application
@@ -27,14 +38,70 @@ public class Message {
     private String messageHash;
     private int messageNumber;
     
-    // Static lists to store messages
-    private static List<Message> sentMessages = new ArrayList<>();
-    private static List<Message> storedMessages = new ArrayList<>();
-    private static List<Message> disregardedMessages = new ArrayList<>();
+    // Which list the message is in - not persisted, the storage location implies it
+    private transient volatile MessageStatus status;
+    
+    // Creation order - orders the message lists and breaks ties between equal-length messages
+    private static final AtomicLong NEXT_SEQUENCE = new AtomicLong();
+    private transient volatile long sequence = NEXT_SEQUENCE.incrementAndGet();
+    
+    // Sequences for history loaded from disk - always ahead of this session's messages
+    private static final AtomicLong NEXT_HISTORY_SEQUENCE = new AtomicLong(Long.MIN_VALUE);
+    
+    // Thread-safe store behind the three message lists and their indexes
+    private static ConcurrentMessageStore messageStore = new ConcurrentMessageStore();
+    private static MessageIndex messageIndex = messageStore.getIndex();
+    
+    // Static lists to store messages - live read-only views of the store
+    private static List<Message> sentMessages = messageStore.getMessages(MessageStatus.SENT);
+    private static List<Message> storedMessages = messageStore.getMessages(MessageStatus.STORED);
+    private static List<Message> disregardedMessages = messageStore.getMessages(MessageStatus.DISREGARDED);
     
     // Phase 3: Additional arrays for data management
-    private static List<String> messageHashArray = new ArrayList<>();
-    private static List<String> messageIDArray = new ArrayList<>();
+    // Live read-only views maintained by the index as messages are added and deleted
+    private static List<String> messageHashArray = messageIndex.getHashes();
+    private static List<String> messageIDArray = messageIndex.getMessageIDs();
+    
+    // Where useStorage keeps the saved ID sequence, beside the stores
+    private static final String ID_COUNTER_FILE = "message_ids.txt";
+    
+    // Hands out message IDs - unique, skipping any ID already in the index. useStorage
+    // replaces it with one whose sequence is saved next to the stores, so IDs of
+    // persisted messages that are not loaded yet are never handed out again either
+    private static volatile MessageIdGenerator idGenerator = newIdGenerator(null);
+    
+    // Where each list is persisted - one append-only JSON journal per status
+    // (stored, sent, disregarded) unless another backend is chosen with the
+    // quickchat.storage property or useStorage
+    private static final Map<MessageStatus, MessageStore> messageStores = new ConcurrentHashMap<>();
+    
+    // Sent and disregarded history is only read once something looks at it
+    private static final Set<MessageStatus> loadedHistory = ConcurrentHashMap.newKeySet();
+    private static final Object historyLock = new Object();
+    
+    // Lazy mode - at startup stored messages stay on disk behind a page index and
+    // lookups decode just the pages they need, kept in an LRU cache of decoded pages
+    private static volatile boolean lazyLoading = Boolean.getBoolean("quickchat.lazyLoad");
+    private static final MessagePageCache pageCache =
+        new MessagePageCache(Integer.getInteger("quickchat.pageCache", 64));
+    private static volatile PagedMessages storedPages;
+    
+    // Maximum stored messages kept in memory after a load (0 = no limit)
+    private static int residentMessageLimit = 0;
+    
+    // Statistics from the most recent loadFromJSON call
+    private static StreamingMessageLoader.LoadStats lastLoadStats;
+    
+    static {
+        useStorage(System.getProperty("quickchat.storage", "json"), "data");
+        
+        // Make sure the active journal segments reach the disk on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (MessageStore store : messageStores.values()) {
+                store.close();
+            }
+        }));
+    }
     
     // Constructor
     public Message() {
@@ -50,17 +117,31 @@ public class Message {
         this.messageHash = createMessageHash();
     }
     
+    // Constructor for messages read back from storage - keeps the persisted ID and hash
+    private Message(String messageID, String recipientCell, String messageText, String messageHash, int messageNumber) {
+        this.messageID = messageID;
+        this.recipientCell = recipientCell;
+        this.messageText = messageText;
+        this.messageHash = messageHash;
+        this.messageNumber = messageNumber;
+    }
+    
+    /**
+     * Recreates a persisted message without generating a new ID or hash
+     * @return the restored message
+     */
+    static Message restore(String messageID, String recipientCell, String messageText, String messageHash, int messageNumber) {
+        return new Message(messageID, recipientCell, messageText, messageHash, messageNumber);
+    }
+    
     /**
-     * Generates a random 10-digit message ID
+     * Generates a 10-digit message ID
+     * Delegates to the configured generator, which by default never repeats
+     * an ID within a run and skips IDs already held by a loaded message
      * @return String representation of the message ID
      */
     private String generateMessageID() {
-        Random random = new Random();
-        StringBuilder id = new StringBuilder();
-        for (int i = 0; i < 10; i++) {
-            id.append(random.nextInt(10));
-        }
-        return id.toString();
+        return idGenerator.nextId();
     }
     
     /**
@@ -74,13 +155,12 @@ public class Message {
     
     /**
      * Validates recipient cell phone number
-     * Reuses validation from Login class
+     * Uses the same PhoneNumberValidator as the Login class
      * @param cellNumber the cell number to validate
      * @return appropriate validation message
      */
     public String checkRecipientCell(String cellNumber) {
-        Login login = new Login();
-        boolean isValid = login.checkCellPhoneNumber(cellNumber);
+        boolean isValid = PhoneNumberValidator.getDefault().isValid(cellNumber);
         
         if (isValid) {
             return "Cell phone number successfully validated.";
@@ -95,6 +175,11 @@ public class Message {
      * @return appropriate validation message
      */
     public String checkMessageLength(String message) {
+        return messageLengthStatus(message);
+    }
+    
+    // Shared by checkMessageLength and sendBatch so validation needs no Message instance
+    private static String messageLengthStatus(String message) {
         if (message == null) {
             return "Message cannot be null";
         }
@@ -120,28 +205,9 @@ public class Message {
      * @return the generated hash
      */
     public String createMessageHash() {
-        if (messageID == null || messageText == null) {
-            return "";
-        }
-        
-        // Get first 2 digits of message ID
-        String firstTwoDigits = messageID.substring(0, 2);
-        
-        // Get message number
-        String msgNum = String.valueOf(messageNumber);
-        
-        // Get first and last words
-        String trimmedText = messageText.trim();
-        String firstWord = "";
-        String lastWord = "";
-        
-        if (!trimmedText.isEmpty()) {
-            String[] words = trimmedText.split("\\s+");
-            firstWord = words.length > 0 ? words[0].toUpperCase() : "";
-            lastWord = words.length > 1 ? words[words.length - 1].toUpperCase() : firstWord;
-        }
-        
-        return firstTwoDigits + ":" + msgNum + ":" + firstWord + lastWord;
+        // Single pass over the text into a reused buffer; same output as
+        // trimming, splitting on whitespace and upper-casing the words
+        return MessageHasher.hash(messageID, messageNumber, messageText);
     }
     
     /**
@@ -152,17 +218,19 @@ public class Message {
     public String sentMessage(String action) {
         switch (action.toLowerCase()) {
             case "send":
-                sentMessages.add(this);
-                populateArrays(); // Update arrays when message is sent
+                if (messageStore.add(this, MessageStatus.SENT)) {
+                    saveToJSON(MessageStatus.SENT);
+                }
                 return "Message successfully sent";
             case "store":
-                storedMessages.add(this);
-                saveToJSON();
-                populateArrays(); // Update arrays when message is stored
+                if (messageStore.add(this, MessageStatus.STORED)) {
+                    saveToJSON(MessageStatus.STORED);
+                }
                 return "Message successfully stored";
             case "disregard":
-                disregardedMessages.add(this);
-                populateArrays(); // Update arrays when message is disregarded
+                if (messageStore.add(this, MessageStatus.DISREGARDED)) {
+                    saveToJSON(MessageStatus.DISREGARDED);
+                }
                 return "Press 0 to delete message";
             default:
                 return "Invalid action. Please choose Send, Store, or Disregard";
@@ -170,28 +238,107 @@ public class Message {
     }
     
     /**
-     * Saves stored messages to JSON file
-     * 
-     * The following JSON serialization method was developed with assistance from Claude AI
-     * Anthropic. (2024). Claude (Version 3.5) [Large language model].
-     * https://claude.ai/
-     * Prompt: "gson is confusing me, how do i save my java objects to a json file? 
-     * want it to look nice and handle errors properly"
+     * Validates and sends a whole batch of messages at once
+     * Every entry is checked exactly like a single message; entries that fail
+     * are reported in the result without stopping the rest of the batch.
+     * The valid messages are added to the store in one step and the stored
+     * ones are written to the journal with a single append.
+     * @param batch the messages to create, each with its action
+     * @return the created messages and the reason any entry was rejected
      */
-    private void saveToJSON() {
-        try {
-            // Ensure data directory exists
-            java.io.File dataDir = new java.io.File("data");
-            if (!dataDir.exists()) {
-                dataDir.mkdirs();
+    public static MessageBatchResult sendBatch(List<OutgoingMessage> batch) {
+        List<Message> accepted = new ArrayList<>(batch.size());
+        Map<Integer, String> failures = new TreeMap<>();
+        Map<MessageStatus, List<Message>> byStatus = new EnumMap<>(MessageStatus.class);
+        for (MessageStatus status : MessageStatus.values()) {
+            byStatus.put(status, new ArrayList<>());
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            OutgoingMessage item = batch.get(i);
+            if (item == null) {
+                failures.put(i, "Batch entry is missing");
+                continue;
+            }
+            String rejection = rejectionReason(item.getAction(), item.getRecipientCell(), item.getMessageText());
+            if (rejection != null) {
+                failures.put(i, rejection);
+                continue;
             }
             
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            FileWriter writer = new FileWriter("data/stored_messages.json");
-            gson.toJson(storedMessages, writer);
-            writer.close();
+            MessageStatus status = statusForAction(item.getAction());
+            Message message = new Message(item.getRecipientCell(), item.getMessageText(), i);
+            accepted.add(message);
+            byStatus.get(status).add(message);
+        }
+        
+        messageStore.addAll(byStatus);
+        for (Map.Entry<MessageStatus, List<Message>> entry : byStatus.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            try {
+                messageStores.get(entry.getKey()).appendAll(entry.getValue());
+            } catch (IOException e) {
+                System.err.println("Error saving message: " + e.getMessage());
+            }
+        }
+        
+        return new MessageBatchResult(accepted, failures,
+            byStatus.get(MessageStatus.SENT).size(), byStatus.get(MessageStatus.STORED).size(),
+            byStatus.get(MessageStatus.DISREGARDED).size());
+    }
+    
+    /**
+     * Checks a message the way sentMessage and sendBatch would, before it is created
+     * Callers validate first so rejected input never takes a message ID
+     * @param action send, store or disregard
+     * @param recipientCell the recipient's cell number
+     * @param messageText the message text
+     * @return why the message would be rejected, or null if it is valid
+     */
+    static String rejectionReason(String action, String recipientCell, String messageText) {
+        if (statusForAction(action) == null) {
+            return "Invalid action. Please choose Send, Store, or Disregard";
+        }
+        if (!PhoneNumberValidator.getDefault().isValid(recipientCell)) {
+            return "Cell phone number incorrectly formatted or does not contain international code.";
+        }
+        String lengthStatus = messageLengthStatus(messageText);
+        return lengthStatus.equals("Message ready to send") ? null : lengthStatus;
+    }
+    
+    /**
+     * Maps a send action onto the list the message goes in
+     * @param action send, store or disregard, in any case
+     * @return the status, or null if the action is not recognised
+     */
+    private static MessageStatus statusForAction(String action) {
+        if (action == null) {
+            return null;
+        }
+        switch (action.toLowerCase()) {
+            case "send":
+                return MessageStatus.SENT;
+            case "store":
+                return MessageStatus.STORED;
+            case "disregard":
+                return MessageStatus.DISREGARDED;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Saves this message by appending it to the journal for its list
+     * Only the new message is written; the JSON snapshot is rebuilt by compaction
+     * @param status the list the message was added to
+     */
+    private void saveToJSON(MessageStatus status) {
+        try {
+            messageStores.get(status).append(this);
         } catch (IOException e) {
-            System.err.println("Error saving to JSON: " + e.getMessage());
+            System.err.println("Error saving message: " + e.getMessage());
         }
     }
     
@@ -222,10 +369,11 @@ public class Message {
      * Prints all sent messages
      */
     public static void printMessages() {
+        loadHistory(MessageStatus.SENT);
         System.out.println("\n=== SENT MESSAGES ===");
-        for (int i = 0; i < sentMessages.size(); i++) {
-            Message msg = sentMessages.get(i);
-            System.out.printf("Message %d:\n", i + 1);
+        int i = 0;
+        for (Message msg : sentMessages) {
+            System.out.printf("Message %d:\n", ++i);
             System.out.printf("  Hash: %s\n", msg.messageHash);
             System.out.printf("  Recipient: %s\n", msg.recipientCell);
             System.out.printf("  Message: %s\n\n", msg.messageText);
@@ -237,6 +385,7 @@ public class Message {
      * @return total count of sent messages
      */
     public static int returnTotalMessages() {
+        loadHistory(MessageStatus.SENT);
         return sentMessages.size();
     }
     
@@ -245,28 +394,12 @@ public class Message {
     /**
      * Populates arrays with message data from all message lists
      * Task 3.3: Implement array population methods
+     * @deprecated The hash and ID arrays are now live views kept up to date by
+     * the message index on every send, store, disregard, delete and load, so
+     * there is nothing left to rebuild
      */
+    @Deprecated
     public static void populateArrays() {
-        messageHashArray.clear();
-        messageIDArray.clear();
-        
-        // Add from sent messages
-        for (Message msg : sentMessages) {
-            messageHashArray.add(msg.messageHash);
-            messageIDArray.add(msg.messageID);
-        }
-        
-        // Add from stored messages
-        for (Message msg : storedMessages) {
-            messageHashArray.add(msg.messageHash);
-            messageIDArray.add(msg.messageID);
-        }
-        
-        // Add from disregarded messages
-        for (Message msg : disregardedMessages) {
-            messageHashArray.add(msg.messageHash);
-            messageIDArray.add(msg.messageID);
-        }
     }
     
     /**
@@ -276,139 +409,146 @@ public class Message {
      * @return the message text if found, null otherwise
      */
     public static String searchByMessageID(String messageID) {
-        // Search in sent messages
-        for (Message msg : sentMessages) {
-            if (msg.messageID.equals(messageID)) {
-                return msg.messageText;
-            }
+        // Single index lookup covers sent, stored and disregarded messages,
+        // then the disk for stored messages that are still paged
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        Message msg = messageIndex.findById(messageID);
+        if (msg == null) {
+            msg = findPagedById(messageID);
         }
-        
-        // Search in stored messages
-        for (Message msg : storedMessages) {
-            if (msg.messageID.equals(messageID)) {
-                return msg.messageText;
-            }
-        }
-        
-        // Search in disregarded messages
-        for (Message msg : disregardedMessages) {
-            if (msg.messageID.equals(messageID)) {
-                return msg.messageText;
-            }
+        return msg != null ? msg.messageText : null;
+    }
+    
+    /**
+     * Finds which list a message is in
+     * @param messageID the ID to search for
+     * @return the message status, or null if not found
+     */
+    public static MessageStatus findStatusByMessageID(String messageID) {
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        MessageStatus status = messageIndex.statusOf(messageID);
+        if (status == null && findPagedById(messageID) != null) {
+            status = MessageStatus.STORED;
         }
-        
-        return null; // Not found
+        return status;
     }
     
     /**
      * Searches for messages by recipient cell number
      * Task 3.4: Implement search functionality
      * @param recipient the recipient to search for
-     * @return list of messages for that recipient
+     * @return live read-only view of the messages for that recipient - a
+     * read-only copy, paged stored messages first, while stored messages are paged
      */
     public static List<Message> searchByRecipient(String recipient) {
-        List<Message> results = new ArrayList<>();
-        
-        // Search in sent messages
-        for (Message msg : sentMessages) {
-            if (msg.recipientCell.equals(recipient)) {
-                results.add(msg);
-            }
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        PagedMessages pages = storedPages;
+        if (pages == null) {
+            return messageIndex.findByRecipient(recipient);
         }
-        
-        // Search in stored messages
-        for (Message msg : storedMessages) {
-            if (msg.recipientCell.equals(recipient)) {
-                results.add(msg);
+        List<Message> matches = findPagedByRecipient(pages, recipient);
+        matches.addAll(messageIndex.findByRecipient(recipient));
+        return Collections.unmodifiableList(matches);
+    }
+    
+    /**
+     * Counts the messages for a recipient without building the list
+     * Resident messages are counted straight from the recipient index and
+     * paged stored messages from the page index, so nothing is decoded
+     * @param recipient the recipient to count
+     * @return number of messages for that recipient
+     */
+    public static int countByRecipient(String recipient) {
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        int count = messageIndex.countByRecipient(recipient);
+        PagedMessages pages = storedPages;
+        if (pages != null) {
+            try {
+                count += pages.countByRecipient(recipient);
+            } catch (IOException e) {
+                System.err.println("Error reading stored messages: " + e.getMessage());
             }
         }
-        
-        // Search in disregarded messages
-        for (Message msg : disregardedMessages) {
-            if (msg.recipientCell.equals(recipient)) {
-                results.add(msg);
-            }
+        return count;
+    }
+    
+    /**
+     * Searches for one page of messages by recipient cell number
+     * @param recipient the recipient to search for
+     * @param offset number of messages to skip
+     * @param limit maximum number of messages to return
+     * @return the requested page of messages for that recipient
+     */
+    public static List<Message> searchByRecipient(String recipient, int offset, int limit) {
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        if (storedPages == null) {
+            return messageIndex.findByRecipient(recipient, offset, limit);
         }
-        
-        return results;
+        List<Message> matches = searchByRecipient(recipient);
+        if (offset < 0 || limit <= 0 || offset >= matches.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(matches.subList(offset, Math.min(matches.size(), offset + limit)));
     }
     
     /**
      * Finds the longest message across all message lists
      * Task 3.4: Implement search functionality
+     * Answered from the index, which keeps messages ordered by length
      * @return the longest message text
      */
     public static String findLongestMessage() {
-        String longestMessage = "";
-        int maxLength = 0;
-        
-        // Check sent messages
-        for (Message msg : sentMessages) {
-            if (msg.messageText.length() > maxLength) {
-                maxLength = msg.messageText.length();
-                longestMessage = msg.messageText;
-            }
-        }
-        
-        // Check stored messages
-        for (Message msg : storedMessages) {
-            if (msg.messageText.length() > maxLength) {
-                maxLength = msg.messageText.length();
-                longestMessage = msg.messageText;
-            }
-        }
-        
-        // Check disregarded messages
-        for (Message msg : disregardedMessages) {
-            if (msg.messageText.length() > maxLength) {
-                maxLength = msg.messageText.length();
-                longestMessage = msg.messageText;
-            }
-        }
-        
-        return longestMessage;
+        loadHistory();
+        Message longest = messageIndex.findLongest();
+        return longest != null ? longest.messageText : "";
+    }
+    
+    /**
+     * Finds the K longest messages across all message lists
+     * @param k how many messages to return
+     * @return up to k messages, longest first
+     */
+    public static List<Message> findLongestMessages(int k) {
+        loadHistory();
+        return messageIndex.findLongest(k);
     }
     
     /**
      * Deletes a message by its hash
      * Task 3.5: Implement message deletion by hash
+     * The hash index finds the message directly and the store removes it in
+     * O(log n). Hashes can collide, so when several messages share a hash the
+     * one added first is deleted. Safe to call from several threads - each
+     * message is only ever deleted once.
      * @param hash the hash of the message to delete
      * @return true if message was found and deleted, false otherwise
      */
     public static boolean deleteMessageByHash(String hash) {
-        // Try to remove from sent messages
-        for (int i = 0; i < sentMessages.size(); i++) {
-            if (sentMessages.get(i).messageHash.equals(hash)) {
-                sentMessages.remove(i);
-                populateArrays(); // Update arrays
-                return true;
-            }
+        loadHistory();
+        Message removed = messageStore.removeFirstByHash(hash);
+        if (removed == null) {
+            return false; // Message not found
         }
         
-        // Try to remove from stored messages
-        for (int i = 0; i < storedMessages.size(); i++) {
-            if (storedMessages.get(i).messageHash.equals(hash)) {
-                storedMessages.remove(i);
-                populateArrays(); // Update arrays
-                return true;
-            }
-        }
-        
-        // Try to remove from disregarded messages
-        for (int i = 0; i < disregardedMessages.size(); i++) {
-            if (disregardedMessages.get(i).messageHash.equals(hash)) {
-                disregardedMessages.remove(i);
-                populateArrays(); // Update arrays
-                return true;
-            }
+        try {
+            messageStores.get(removed.status).remove(removed);
+        } catch (IOException e) {
+            System.err.println("Error saving message: " + e.getMessage());
         }
-        
-        return false; // Message not found
+        return true;
     }
     
     /**
      * Loads stored messages from JSON file
      * Task 3.7: Integrate JSON reading (AI-assisted)
+     * Messages are streamed in from the storage backend - for the default JSON
+     * backend the snapshot is read and the message journal replayed on top.
+     * When a resident message limit is set only the most recent messages are kept.
      * 
      * The following JSON deserialization method was developed with assistance from Claude AI
      * Anthropic. (2024). Claude (Version 3.5) [Large language model].
@@ -418,31 +558,34 @@ public class Message {
      */
     public static void loadFromJSON() {
         try {
-            // Ensure data directory exists
-            java.io.File dataDir = new java.io.File("data");
-            if (!dataDir.exists()) {
-                dataDir.mkdirs();
-            }
+            long startTime = System.nanoTime();
+            long[] messagesRead = {0};
+            closeStoredPages(); // A full load replaces the lazy view
+            messageStore.removeAll(MessageStatus.STORED);
             
-            java.io.File jsonFile = new java.io.File("data/stored_messages.json");
-            if (!jsonFile.exists()) {
-                // Create empty JSON file if it doesn't exist
-                try (java.io.FileWriter writer = new java.io.FileWriter(jsonFile)) {
-                    writer.write("[]");
+            if (residentMessageLimit > 0) {
+                // Bounded mode - only the most recent messages stay resident
+                java.util.ArrayDeque<Message> recent = new java.util.ArrayDeque<>(residentMessageLimit);
+                messageStores.get(MessageStatus.STORED).load(msg -> {
+                    messagesRead[0]++;
+                    if (recent.size() == residentMessageLimit) {
+                        recent.pollFirst();
+                    }
+                    recent.addLast(msg);
+                });
+                for (Message msg : recent) {
+                    messageStore.add(msg, MessageStatus.STORED);
                 }
+            } else {
+                // Messages are decoded one at a time straight into the store
+                messageStores.get(MessageStatus.STORED).load(msg -> {
+                    messagesRead[0]++;
+                    messageStore.add(msg, MessageStatus.STORED);
+                });
             }
             
-            Gson gson = new Gson();
-            FileReader reader = new FileReader(jsonFile);
-            Type listType = new TypeToken<List<Message>>(){}.getType();
-            List<Message> loadedMessages = gson.fromJson(reader, listType);
-            reader.close();
-            
-            if (loadedMessages != null) {
-                storedMessages.clear();
-                storedMessages.addAll(loadedMessages);
-                populateArrays(); // Update arrays after loading
-            }
+            lastLoadStats = new StreamingMessageLoader.LoadStats(
+                messagesRead[0], storedMessages.size(), System.nanoTime() - startTime);
         } catch (IOException e) {
             System.err.println("Error loading from JSON: " + e.getMessage());
             throw new RuntimeException("Failed to load messages from JSON file: " + e.getMessage());
@@ -453,75 +596,53 @@ public class Message {
     }
     
     /**
-     * Displays comprehensive report using JOptionPane with scrollable text area
+     * Gets the stored messages ready at startup
+     * Loads them all, or in lazy mode only opens the page index so the first
+     * menu appears without decoding a single message. Searches by ID or
+     * recipient then fault in just the pages they need; anything that needs
+     * every stored message (listing, reports, deletion) loads them all.
      */
-    public static void displayComprehensiveReportGUI() {
-        StringBuilder report = new StringBuilder();
-        
-        report.append("QUICKCHAT COMPREHENSIVE REPORT\n");
-        report.append("=".repeat(50)).append("\n\n");
-        
-        report.append("📊 SUMMARY STATISTICS:\n");
-        report.append("   Total Sent Messages: ").append(sentMessages.size()).append("\n");
-        report.append("   Total Stored Messages: ").append(storedMessages.size()).append("\n");
-        report.append("   Total Disregarded Messages: ").append(disregardedMessages.size()).append("\n");
-        report.append("   Total Messages: ").append(sentMessages.size() + storedMessages.size() + disregardedMessages.size()).append("\n\n");
-        
-        if (!sentMessages.isEmpty()) {
-            report.append("📤 SENT MESSAGES DETAILS:\n");
-            report.append("-".repeat(50)).append("\n");
-            for (int i = 0; i < sentMessages.size(); i++) {
-                Message msg = sentMessages.get(i);
-                report.append("Message ").append(i + 1).append(":\n");
-                report.append("   Hash: ").append(msg.messageHash).append("\n");
-                report.append("   Recipient: ").append(msg.recipientCell).append("\n");
-                report.append("   Message: ").append(msg.messageText).append("\n");
-                report.append("   Message ID: ").append(msg.messageID).append("\n\n");
-            }
+    public static void openStoredMessages() {
+        if (!lazyLoading) {
+            loadFromJSON();
+            return;
         }
-        
-        if (!storedMessages.isEmpty()) {
-            report.append("💾 STORED MESSAGES:\n");
-            report.append("-".repeat(50)).append("\n");
-            for (int i = 0; i < storedMessages.size(); i++) {
-                Message msg = storedMessages.get(i);
-                report.append("Stored Message ").append(i + 1).append(":\n");
-                report.append("   Hash: ").append(msg.messageHash).append("\n");
-                report.append("   Recipient: ").append(msg.recipientCell).append("\n");
-                report.append("   Message: ").append(msg.messageText).append("\n\n");
-            }
-        }
-        
-        if (!disregardedMessages.isEmpty()) {
-            report.append("🗑️  DISREGARDED MESSAGES:\n");
-            report.append("-".repeat(50)).append("\n");
-            for (int i = 0; i < disregardedMessages.size(); i++) {
-                Message msg = disregardedMessages.get(i);
-                report.append("Disregarded Message ").append(i + 1).append(":\n");
-                report.append("   Hash: ").append(msg.messageHash).append("\n");
-                report.append("   Recipient: ").append(msg.recipientCell).append("\n");
-                report.append("   Message: ").append(msg.messageText).append("\n\n");
+        try {
+            long startTime = System.nanoTime();
+            synchronized (historyLock) {
+                closeStoredPages();
+                messageStore.removeAll(MessageStatus.STORED);
+                storedPages = messageStores.get(MessageStatus.STORED).openPaged(pageCache);
             }
+            lastLoadStats = new StreamingMessageLoader.LoadStats(0, 0, System.nanoTime() - startTime);
+        } catch (IOException e) {
+            System.err.println("Error opening stored messages: " + e.getMessage());
+            throw new RuntimeException("Failed to open stored messages: " + e.getMessage());
         }
-        
-        // Show longest message
-        String longest = findLongestMessage();
-        if (!longest.isEmpty()) {
-            report.append("📏 LONGEST MESSAGE:\n");
-            report.append("-".repeat(50)).append("\n");
-            report.append("   \"").append(longest).append("\"\n");
-            report.append("   Length: ").append(longest.length()).append(" characters\n\n");
-        }
-        
-        report.append("=".repeat(50));
+    }
+    
+    /**
+     * Displays comprehensive report using JOptionPane with scrollable text area
+     * The first page of messages is shown straight away; further pages are
+     * written into the text area as the user scrolls towards the bottom.
+     */
+    public static void displayComprehensiveReportGUI() {
+        loadHistory();
+        MessageReport report = new MessageReport(messageStore);
         
         // Create a scrollable text area for the report
-        javax.swing.JTextArea textArea = new javax.swing.JTextArea(report.toString());
+        javax.swing.JTextArea textArea = new javax.swing.JTextArea(nextReportPage(report));
         textArea.setEditable(false);
         textArea.setFont(new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, 12));
         
         javax.swing.JScrollPane scrollPane = new javax.swing.JScrollPane(textArea);
         scrollPane.setPreferredSize(new java.awt.Dimension(700, 500));
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(event -> {
+            javax.swing.JScrollBar bar = scrollPane.getVerticalScrollBar();
+            if (report.hasMore() && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bar.getVisibleAmount()) {
+                textArea.append(nextReportPage(report));
+            }
+        });
         
         JOptionPane.showMessageDialog(null,
             scrollPane,
@@ -529,6 +650,16 @@ public class Message {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    private static String nextReportPage(MessageReport report) {
+        StringWriter page = new StringWriter();
+        try {
+            report.writeNext(page, MessageReport.DEFAULT_PAGE_MESSAGES);
+        } catch (IOException e) {
+            System.err.println("Error writing report: " + e.getMessage());
+        }
+        return page.toString();
+    }
+    
     /**
      * Displays comprehensive report of all sent messages (Console version for testing)
      * Task 3.6: Implement comprehensive reporting
@@ -541,63 +672,39 @@ public class Message {
      * stats and stuff. how do i format it so it looks professional?"
      */
     public static void displayComprehensiveReport() {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("         QUICKCHAT COMPREHENSIVE REPORT");
-        System.out.println("=".repeat(50));
-        
-        System.out.println("\n📊 SUMMARY STATISTICS:");
-        System.out.println("   Total Sent Messages: " + sentMessages.size());
-        System.out.println("   Total Stored Messages: " + storedMessages.size());
-        System.out.println("   Total Disregarded Messages: " + disregardedMessages.size());
-        System.out.println("   Total Messages: " + (sentMessages.size() + storedMessages.size() + disregardedMessages.size()));
-        
-        if (!sentMessages.isEmpty()) {
-            System.out.println("\n📤 SENT MESSAGES DETAILS:");
-            System.out.println("-".repeat(50));
-            for (int i = 0; i < sentMessages.size(); i++) {
-                Message msg = sentMessages.get(i);
-                System.out.printf("Message %d:\n", i + 1);
-                System.out.printf("   Hash: %s\n", msg.messageHash);
-                System.out.printf("   Recipient: %s\n", msg.recipientCell);
-                System.out.printf("   Message: %s\n", msg.messageText);
-                System.out.printf("   Message ID: %s\n\n", msg.messageID);
-            }
-        }
-        
-        if (!storedMessages.isEmpty()) {
-            System.out.println("💾 STORED MESSAGES:");
-            System.out.println("-".repeat(50));
-            for (int i = 0; i < storedMessages.size(); i++) {
-                Message msg = storedMessages.get(i);
-                System.out.printf("Stored Message %d:\n", i + 1);
-                System.out.printf("   Hash: %s\n", msg.messageHash);
-                System.out.printf("   Recipient: %s\n", msg.recipientCell);
-                System.out.printf("   Message: %s\n\n", msg.messageText);
-            }
-        }
-        
-        if (!disregardedMessages.isEmpty()) {
-            System.out.println("🗑️  DISREGARDED MESSAGES:");
-            System.out.println("-".repeat(50));
-            for (int i = 0; i < disregardedMessages.size(); i++) {
-                Message msg = disregardedMessages.get(i);
-                System.out.printf("Disregarded Message %d:\n", i + 1);
-                System.out.printf("   Hash: %s\n", msg.messageHash);
-                System.out.printf("   Recipient: %s\n", msg.recipientCell);
-                System.out.printf("   Message: %s\n\n", msg.messageText);
-            }
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            writeComprehensiveReport(out);
+            out.flush(); // System.out stays open
+        } catch (IOException e) {
+            System.err.println("Error writing report: " + e.getMessage());
         }
-        
-        // Show longest message
-        String longest = findLongestMessage();
-        if (!longest.isEmpty()) {
-            System.out.println("📏 LONGEST MESSAGE:");
-            System.out.println("-".repeat(50));
-            System.out.println("   \"" + longest + "\"");
-            System.out.println("   Length: " + longest.length() + " characters\n");
+    }
+    
+    /**
+     * Streams the comprehensive report to a writer, section by section
+     * The writer is not flushed or closed.
+     * @param out where the report goes
+     * @throws IOException if the writer fails
+     */
+    public static void writeComprehensiveReport(Writer out) throws IOException {
+        loadHistory();
+        new MessageReport(messageStore).writeAll(out);
+    }
+    
+    /**
+     * Writes the comprehensive report to a UTF-8 text file
+     * @param path the file to create or replace
+     * @return true if the report was written
+     */
+    public static boolean exportComprehensiveReport(String path) {
+        try (Writer out = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            writeComprehensiveReport(out);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error exporting report: " + e.getMessage());
+            return false;
         }
-        
-        System.out.println("=".repeat(50));
     }
     
     /**
@@ -706,8 +813,9 @@ public class Message {
                         if (!messages.isEmpty()) {
                             StringBuilder sb = new StringBuilder();
                             sb.append("Found ").append(messages.size()).append(" message(s) for ").append(recipient).append(":\n\n");
-                            for (int i = 0; i < messages.size(); i++) {
-                                sb.append(i + 1).append(". ").append(messages.get(i).messageText).append("\n");
+                            int i = 0;
+                            for (Message msg : messages) {
+                                sb.append(++i).append(". ").append(msg.messageText).append("\n");
                             }
                             JOptionPane.showMessageDialog(null,
                                 sb.toString(),
@@ -768,7 +876,8 @@ public class Message {
                         loadFromJSON();
                         JOptionPane.showMessageDialog(null,
                             "Messages loaded from JSON file successfully.\n" +
-                            "Loaded " + storedMessages.size() + " stored messages.",
+                            "Loaded " + storedMessages.size() + " stored messages.\n" +
+                            String.format("Throughput: %.0f messages/sec", lastLoadStats.getMessagesPerSecond()),
                             "Load Complete",
                             JOptionPane.INFORMATION_MESSAGE);
                     } catch (Exception e) {
@@ -881,13 +990,12 @@ public class Message {
                     
                     if (recipient == null) return; // User cancelled
                     
-                    Message tempMsg = new Message();
-                    String validation = tempMsg.checkRecipientCell(recipient);
-                    if (validation.contains("successfully")) {
+                    // Validated without a Message so rejected input never takes a message ID
+                    if (PhoneNumberValidator.getDefault().isValid(recipient)) {
                         break;
                     } else {
                         JOptionPane.showMessageDialog(null,
-                            validation,
+                            "Cell phone number incorrectly formatted or does not contain international code.",
                             "Invalid Phone Number",
                             JOptionPane.ERROR_MESSAGE);
                     }
@@ -903,8 +1011,7 @@ public class Message {
                     
                     if (messageText == null) return; // User cancelled
                     
-                    Message tempMsg = new Message();
-                    String validation = tempMsg.checkMessageLength(messageText);
+                    String validation = messageLengthStatus(messageText);
                     if (validation.equals("Message ready to send")) {
                         break;
                     } else {
@@ -956,26 +1063,231 @@ public class Message {
     public String getMessageText() { return messageText; }
     public String getMessageHash() { return messageHash; }
     public int getMessageNumber() { return messageNumber; }
+    public MessageStatus getStatus() { return status; }
+    
+    void setStatus(MessageStatus status) { this.status = status; }
+    
+    /**
+     * Gets the creation sequence number that orders the message lists
+     * Messages built by reflection (e.g. Gson) get theirs on first use
+     * @return the sequence number
+     */
+    long getSequence() {
+        long current = sequence;
+        if (current == 0) {
+            synchronized (this) {
+                if (sequence == 0) {
+                    sequence = NEXT_SEQUENCE.incrementAndGet();
+                }
+                current = sequence;
+            }
+        }
+        return current;
+    }
     
     public void setRecipientCell(String recipientCell) { this.recipientCell = recipientCell; }
     public void setMessageText(String messageText) { this.messageText = messageText; }
     public void setMessageNumber(int messageNumber) { this.messageNumber = messageNumber; }
     
     // Static getters for testing
-    public static List<Message> getSentMessages() { return sentMessages; }
-    public static List<Message> getStoredMessages() { return storedMessages; }
-    public static List<Message> getDisregardedMessages() { return disregardedMessages; }
+    // Sent and disregarded history is loaded from disk on first use. The lists are
+    // live read-only views: get(i) is O(1) while messages are added, but the first
+    // call after a delete copies the list, so iterate while messages are being deleted
+    public static List<Message> getSentMessages() { loadHistory(MessageStatus.SENT); return sentMessages; }
+    public static List<Message> getStoredMessages() { loadStoredMessages(); return storedMessages; }
+    public static List<Message> getDisregardedMessages() { loadHistory(MessageStatus.DISREGARDED); return disregardedMessages; }
     
-    // Phase 3: Getters for new arrays
-    public static List<String> getMessageHashArray() { return messageHashArray; }
-    public static List<String> getMessageIDArray() { return messageIDArray; }
+    // Lazy startup and the cache of decoded pages behind it
+    public static void setLazyLoading(boolean lazy) { lazyLoading = lazy; }
+    public static boolean isLazyLoading() { return lazyLoading; }
+    public static void setPageCacheSize(int pages) { pageCache.setCapacity(pages); }
+    public static MessagePageCache getPageCache() { return pageCache; }
+    public static boolean isStoredPaged() { return storedPages != null; }
+    
+    // Bounded-memory loading and load statistics
+    public static void setResidentMessageLimit(int limit) { residentMessageLimit = Math.max(0, limit); }
+    public static int getResidentMessageLimit() { return residentMessageLimit; }
+    public static StreamingMessageLoader.LoadStats getLastLoadStats() { return lastLoadStats; }
+    
+    // Message ID generation is pluggable, e.g. for tests or a multi-node setup
+    public static void setIdGenerator(MessageIdGenerator generator) { idGenerator = generator; }
+    public static MessageIdGenerator getIdGenerator() { return idGenerator; }
+    
+    // Phase 3: Getters for new arrays (live read-only views, same get(i) cost as above)
+    public static List<String> getMessageHashArray() { loadHistory(); return messageHashArray; }
+    public static List<String> getMessageIDArray() { loadHistory(); return messageIDArray; }
+    
+    /**
+     * Switches every message list to the given storage backend
+     * Call at startup, before messages are loaded or sent. Each list gets
+     * its own store in the directory - stored, sent and disregarded - and
+     * message IDs continue the sequence saved there.
+     * @param backend json, binary or memory
+     * @param directory where the stores keep their files
+     */
+    public static void useStorage(String backend, String directory) {
+        for (MessageStatus status : MessageStatus.values()) {
+            useStorage(status, MessageStore.create(backend, directory, status.name().toLowerCase()));
+        }
+        idGenerator = newIdGenerator(backend.equals("memory") ? null : new File(directory, ID_COUNTER_FILE));
+    }
+    
+    // Continues the ID sequence saved in the counter file, or starts a random one without a file
+    private static MessageIdGenerator newIdGenerator(File counterFile) {
+        Predicate<String> inIndex = id -> messageIndex.findById(id) != null;
+        if (counterFile == null) {
+            return new SequenceMessageIdGenerator(
+                ThreadLocalRandom.current().nextLong(SequenceMessageIdGenerator.ID_SPACE), inIndex);
+        }
+        return new SequenceMessageIdGenerator(counterFile, inIndex);
+    }
+    
+    /**
+     * Switches the backend one message list is persisted to
+     * The previous backend is closed; nothing is copied across. Sent and
+     * disregarded history is read from the new backend on next use.
+     * @param status the list to switch
+     * @param store the new backend
+     */
+    public static void useStorage(MessageStatus status, MessageStore store) {
+        if (status == MessageStatus.STORED) {
+            closeStoredPages();
+        }
+        MessageStore previous = messageStores.put(status, store);
+        loadedHistory.remove(status);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+    
+    public static MessageStore getStorage(MessageStatus status) { return messageStores.get(status); }
+    
+    /**
+     * Checks whether a list's history has been read from its store yet
+     * Stored messages are loaded explicitly by loadFromJSON instead
+     * @param status the list to check
+     * @return true once the sent or disregarded history is resident
+     */
+    public static boolean isHistoryLoaded(MessageStatus status) {
+        return loadedHistory.contains(status);
+    }
+    
+    /**
+     * Makes every list fully resident - the sent and disregarded history,
+     * and stored messages that are still paged
+     */
+    private static void loadHistory() {
+        loadHistory(MessageStatus.SENT);
+        loadHistory(MessageStatus.DISREGARDED);
+        loadStoredMessages();
+    }
+    
+    /**
+     * Replaces the lazy view of stored messages with a full load
+     */
+    private static void loadStoredMessages() {
+        if (storedPages == null) {
+            return;
+        }
+        synchronized (historyLock) {
+            if (storedPages != null) {
+                loadFromJSON();
+            }
+        }
+    }
+    
+    private static void closeStoredPages() {
+        PagedMessages pages = storedPages;
+        storedPages = null;
+        if (pages != null) {
+            pages.close();
+        }
+    }
+    
+    /**
+     * Looks a stored message up on disk while stored messages are paged
+     * @param messageID the ID to look for
+     * @return the message, or null if it is not there or nothing is paged
+     */
+    private static Message findPagedById(String messageID) {
+        PagedMessages pages = storedPages;
+        if (pages == null) {
+            return null;
+        }
+        try {
+            return pages.findById(messageID);
+        } catch (IOException e) {
+            System.err.println("Error reading stored messages: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private static List<Message> findPagedByRecipient(PagedMessages pages, String recipient) {
+        try {
+            return new ArrayList<>(pages.findByRecipient(recipient));
+        } catch (IOException e) {
+            System.err.println("Error reading stored messages: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Loads one list's history from its store the first time it is needed
+     * Messages sent this session are already in the journal and in memory,
+     * so they are skipped; history is ordered before them.
+     * @param status SENT or DISREGARDED - stored messages use loadFromJSON
+     */
+    private static void loadHistory(MessageStatus status) {
+        if (status == MessageStatus.STORED || loadedHistory.contains(status)) {
+            return;
+        }
+        synchronized (historyLock) {
+            if (loadedHistory.contains(status)) {
+                return;
+            }
+            List<Message> history = new ArrayList<>();
+            try {
+                messageStores.get(status).load(msg -> {
+                    Message current = messageIndex.findById(msg.messageID);
+                    if (current == null || !Objects.equals(current.messageHash, msg.messageHash)) {
+                        msg.sequence = NEXT_HISTORY_SEQUENCE.incrementAndGet();
+                        history.add(msg);
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println("Error loading message history: " + e.getMessage());
+            }
+            Map<MessageStatus, List<Message>> batch = new EnumMap<>(MessageStatus.class);
+            batch.put(status, history);
+            messageStore.addAll(batch);
+            loadedHistory.add(status);
+        }
+    }
     
     // Method to clear static lists (for testing)
+    // Only the in-memory lists are emptied - the storage backends are left alone,
+    // and history not read yet is still read from them on first use
     public static void clearAllMessages() {
-        sentMessages.clear();
-        storedMessages.clear();
-        disregardedMessages.clear();
-        messageHashArray.clear();
-        messageIDArray.clear();
+        closeStoredPages();
+        messageStore.clear();
+    }
+    
+    /**
+     * Empties the lists and every storage backend
+     * Deletes the persisted messages of whatever backend is in use, so call
+     * it only on storage you own (e.g. after useStorage with a scratch directory).
+     */
+    public static void resetStorage() {
+        clearAllMessages();
+        for (MessageStore store : messageStores.values()) {
+            try {
+                store.reset();
+            } catch (IOException e) {
+                System.err.println("Error resetting message storage: " + e.getMessage());
+            }
+        }
+        // The stores are empty now, so there is no history left to read
+        loadedHistory.add(MessageStatus.SENT);
+        loadedHistory.add(MessageStatus.DISREGARDED);
     }
 } 
\ No newline at end of file
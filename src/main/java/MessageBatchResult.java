@@ -0,0 +1,48 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a Message.sendBatch call
+ * Lists the messages that were created and, for every entry that failed
+ * validation, its position in the batch and the reason it was rejected.
+ */
+public class MessageBatchResult {
+    private final List<Message> accepted;
+    private final Map<Integer, String> failures;
+    private final int sent;
+    private final int stored;
+    private final int disregarded;
+
+    public MessageBatchResult(List<Message> accepted, Map<Integer, String> failures,
+                              int sent, int stored, int disregarded) {
+        this.accepted = Collections.unmodifiableList(accepted);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.sent = sent;
+        this.stored = stored;
+        this.disregarded = disregarded;
+    }
+
+    /**
+     * Gets the messages created from the batch, in batch order
+     * @return the accepted messages
+     */
+    public List<Message> getAccepted() { return accepted; }
+
+    /**
+     * Gets the entries that failed validation
+     * @return reason for each rejected entry, keyed by its index in the batch
+     */
+    public Map<Integer, String> getFailures() { return failures; }
+
+    public int getSentCount() { return sent; }
+    public int getStoredCount() { return stored; }
+    public int getDisregardedCount() { return disregarded; }
+    public int getFailureCount() { return failures.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("%d sent, %d stored, %d disregarded, %d rejected",
+            sent, stored, disregarded, failures.size());
+    }
+}
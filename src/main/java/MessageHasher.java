@@ -0,0 +1,144 @@
+import java.util.Locale;
+
+/**
+ * Builds message hashes in the XX:Y:FIRSTLAST format in a single pass
+ * Produces exactly what the original trim/split/toUpperCase version did,
+ * but finds the first and last words by scanning the text in place and
+ * writes the hash into a per-thread buffer, so the only allocation in the
+ * common case is the returned String.
+ *
+ * Words are separated by the characters the old split("\\s+") matched:
+ * space, tab, newline, vertical tab, form feed and carriage return.
+ * ASCII words are upper-cased directly; anything else falls back to
+ * String.toUpperCase so locale and Unicode rules stay identical.
+ */
+final class MessageHasher {
+
+    private static final ThreadLocal<MessageHasher> BUFFERS = ThreadLocal.withInitial(MessageHasher::new);
+
+    private char[] buffer = new char[64];
+    private int length;
+
+    private MessageHasher() {
+    }
+
+    /**
+     * Creates the hash for a message
+     * @param messageID the message ID; its first two characters start the hash
+     * @param messageNumber the message number
+     * @param messageText the message text
+     * @return the hash, or "" if the ID or text is null
+     */
+    static String hash(String messageID, int messageNumber, String messageText) {
+        if (messageID == null || messageText == null) {
+            return "";
+        }
+        return BUFFERS.get().build(messageID, messageNumber, messageText);
+    }
+
+    private String build(String messageID, int messageNumber, String text) {
+        length = 0;
+        // Same failure as substring(0, 2) for an ID shorter than two characters
+        char first = messageID.charAt(0);
+        char second = messageID.charAt(1);
+        ensureCapacity(16);
+        buffer[length++] = first;
+        buffer[length++] = second;
+        buffer[length++] = ':';
+        appendNumber(messageNumber);
+        buffer[length++] = ':';
+
+        // Trim exactly like String.trim
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (start < end) {
+            int firstEnd = start;
+            while (firstEnd < end && !isSeparator(text.charAt(firstEnd))) {
+                firstEnd++;
+            }
+            int lastStart = end;
+            while (lastStart > start && !isSeparator(text.charAt(lastStart - 1))) {
+                lastStart--;
+            }
+
+            int wordStart = length;
+            appendUpperCase(text, start, firstEnd);
+            if (firstEnd == end) {
+                // A single word is both the first and the last word
+                int wordLength = length - wordStart;
+                ensureCapacity(wordLength);
+                System.arraycopy(buffer, wordStart, buffer, length, wordLength);
+                length += wordLength;
+            } else {
+                appendUpperCase(text, lastStart, end);
+            }
+        }
+        return new String(buffer, 0, length);
+    }
+
+    // The characters matched by \s in a regular expression
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private void appendNumber(int number) {
+        long value = number;
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void appendUpperCase(String text, int from, int to) {
+        boolean ascii = asciiCaseRulesApply();
+        for (int i = from; ascii && i < to; i++) {
+            ascii = text.charAt(i) < 0x80;
+        }
+
+        if (!ascii) {
+            String upper = text.substring(from, to).toUpperCase();
+            ensureCapacity(upper.length());
+            upper.getChars(0, upper.length(), buffer, length);
+            length += upper.length();
+            return;
+        }
+
+        ensureCapacity(to - from);
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            buffer[length++] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+    }
+
+    // Turkish and Azeri upper-case 'i' to a dotted capital, so ASCII words
+    // must go through toUpperCase there
+    private static boolean asciiCaseRulesApply() {
+        String language = Locale.getDefault().getLanguage();
+        return !language.equals("tr") && !language.equals("az");
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            char[] larger = new char[Math.max(buffer.length * 2, length + extra)];
+            System.arraycopy(buffer, 0, larger, 0, length);
+            buffer = larger;
+        }
+    }
+}
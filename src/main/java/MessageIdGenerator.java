@@ -0,0 +1,27 @@
+/**
+ * Source of 10-digit message IDs
+ * Every ID must pass Message.checkMessageID. Implementations are shared by
+ * all threads creating messages, so nextId must be thread-safe.
+ */
+public interface MessageIdGenerator {
+
+    /**
+     * Generates the next message ID
+     * @return a string of exactly 10 decimal digits
+     */
+    String nextId();
+
+    /**
+     * Writes a value as exactly 10 digits, zero-padded, without a StringBuilder
+     * @param value a number from 0 to 9,999,999,999
+     * @return the 10-digit string
+     */
+    static String formatId(long value) {
+        char[] digits = new char[10];
+        for (int i = 9; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,278 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory index over every message in the sent, stored and disregarded lists
+ * Keyed by message ID so lookups no longer scan all three lists, with
+ * secondary indexes by recipient cell number and by message hash kept in
+ * insertion order.
+ *
+ * Every structure is a concurrent collection, so lookups never block and
+ * never see a ConcurrentModificationException. Writers for the same message
+ * must be serialized by the caller - ConcurrentMessageStore does that with
+ * lock stripes keyed by recipient.
+ */
+public class MessageIndex {
+
+    // Every indexed message in the order it was added - backs the hash and ID arrays
+    private final SequencedMessages messagesInOrder = new SequencedMessages();
+
+    // Primary key index - if two messages ever share an ID the first one added wins
+    private final Map<String, Message> messagesById = new ConcurrentHashMap<>();
+
+    // Secondary index - conversations are never dropped, so views handed out stay live
+    private final Map<String, SequencedMessages> messagesByRecipient = new ConcurrentHashMap<>();
+
+    // Hash index - createMessageHash can collide, so each hash maps to every message that has it
+    private final Map<String, SequencedMessages> messagesByHash = new ConcurrentHashMap<>();
+
+    // Messages ordered by text length for longest-message queries
+    private final LongestMessageTracker longestMessages = new LongestMessageTracker();
+
+    /**
+     * Adds a message to the index
+     * The message's status must already be set. The hash index is updated
+     * last, so a message found by hash is already in every other index.
+     * @param message the message to index
+     * @return true if added, false if it was already indexed
+     */
+    public boolean add(Message message) {
+        if (!messagesInOrder.add(message)) {
+            return false; // Already indexed
+        }
+        if (message.getMessageID() != null) {
+            messagesById.putIfAbsent(message.getMessageID(), message);
+        }
+        if (message.getRecipientCell() != null) {
+            messagesByRecipient.computeIfAbsent(message.getRecipientCell(), k -> new SequencedMessages()).add(message);
+        }
+        longestMessages.add(message);
+        if (message.getMessageHash() != null) {
+            // compute runs atomically per key, so a bucket cannot be dropped while another writer fills it
+            messagesByHash.compute(message.getMessageHash(), (hash, sameHash) -> {
+                SequencedMessages bucket = sameHash == null ? new SequencedMessages() : sameHash;
+                bucket.add(message);
+                return bucket;
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Removes a message from the index
+     * @param message the message to remove
+     * @return true if removed, false if it was not indexed
+     */
+    public boolean remove(Message message) {
+        if (!messagesInOrder.remove(message)) {
+            return false; // Not indexed
+        }
+        if (message.getMessageID() != null) {
+            messagesById.remove(message.getMessageID(), message);
+        }
+        if (message.getRecipientCell() != null) {
+            SequencedMessages conversation = messagesByRecipient.get(message.getRecipientCell());
+            if (conversation != null) {
+                conversation.remove(message);
+            }
+        }
+        longestMessages.remove(message);
+        if (message.getMessageHash() != null) {
+            messagesByHash.computeIfPresent(message.getMessageHash(), (hash, sameHash) -> {
+                sameHash.remove(message);
+                return sameHash.isEmpty() ? null : sameHash;
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a message is indexed
+     * @param message the message to check
+     * @return true if indexed
+     */
+    public boolean contains(Message message) {
+        return messagesInOrder.contains(message);
+    }
+
+    /**
+     * Finds a message by its ID
+     * @param messageID the ID to look up
+     * @return the message, or null if not found
+     */
+    public Message findById(String messageID) {
+        if (messageID == null) {
+            return null;
+        }
+        return messagesById.get(messageID);
+    }
+
+    /**
+     * Finds which list a message is in
+     * @param messageID the ID to look up
+     * @return the message status, or null if not found
+     */
+    public MessageStatus statusOf(String messageID) {
+        Message message = findById(messageID);
+        return message == null ? null : message.getStatus();
+    }
+
+    /**
+     * Finds the message with the given hash
+     * If several messages share the hash, the one added first is returned
+     * @param messageHash the hash to look up
+     * @return the message, or null if not found
+     */
+    public Message findFirstByHash(String messageHash) {
+        SequencedMessages sameHash = messageHash == null ? null : messagesByHash.get(messageHash);
+        return sameHash == null ? null : sameHash.first();
+    }
+
+    /**
+     * Finds every message for a recipient in the order they were added
+     * @param recipientCell the recipient cell number
+     * @return live read-only view of the recipient's messages
+     */
+    public List<Message> findByRecipient(String recipientCell) {
+        SequencedMessages conversation = recipientCell == null ? null : messagesByRecipient.get(recipientCell);
+        if (conversation == null) {
+            return Collections.emptyList();
+        }
+        return new MessageListView(conversation);
+    }
+
+    /**
+     * Finds one page of a recipient's messages
+     * Only the requested page is copied, however long the conversation is
+     * @param recipientCell the recipient cell number
+     * @param offset number of messages to skip
+     * @param limit maximum number of messages to return
+     * @return the requested page
+     */
+    public List<Message> findByRecipient(String recipientCell, int offset, int limit) {
+        SequencedMessages conversation = recipientCell == null ? null : messagesByRecipient.get(recipientCell);
+        if (conversation == null || offset < 0 || limit <= 0 || offset >= conversation.size()) {
+            return Collections.emptyList();
+        }
+
+        // The conversation can shrink while we walk it, so check hasNext throughout
+        List<Message> page = new ArrayList<>(Math.min(limit, Math.max(0, conversation.size() - offset)));
+        Iterator<Message> iterator = conversation.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Gets the number of messages for a recipient without building a list
+     * @param recipientCell the recipient cell number
+     * @return message count for that recipient
+     */
+    public int countByRecipient(String recipientCell) {
+        SequencedMessages conversation = recipientCell == null ? null : messagesByRecipient.get(recipientCell);
+        return conversation == null ? 0 : conversation.size();
+    }
+
+    /**
+     * Gets the longest indexed message
+     * @return the longest message, or null if nothing is indexed
+     */
+    public Message findLongest() {
+        return longestMessages.longest();
+    }
+
+    /**
+     * Gets the K longest indexed messages, longest first
+     * @param k how many messages to return
+     * @return up to k messages
+     */
+    public List<Message> findLongest(int k) {
+        return longestMessages.topK(k);
+    }
+
+    /**
+     * Gets the hashes of every indexed message in the order they were added
+     * @return live read-only view of the message hashes
+     */
+    public List<String> getHashes() {
+        return new FieldView(Message::getMessageHash);
+    }
+
+    /**
+     * Gets the IDs of every indexed message in the order they were added
+     * @return live read-only view of the message IDs
+     */
+    public List<String> getMessageIDs() {
+        return new FieldView(Message::getMessageID);
+    }
+
+    /**
+     * Gets the number of indexed messages
+     * @return index size
+     */
+    public int size() {
+        return messagesInOrder.size();
+    }
+
+    /**
+     * Removes every message from the index
+     */
+    public void clear() {
+        messagesInOrder.clear();
+        messagesById.clear();
+        for (SequencedMessages conversation : messagesByRecipient.values()) {
+            conversation.clear();
+        }
+        messagesByHash.clear();
+        longestMessages.clear();
+    }
+
+    /**
+     * Read-only list of one field of every indexed message, computed on access
+     * Indexed access goes through the messages' array snapshot, see SequencedMessages.get
+     */
+    private class FieldView extends AbstractList<String> implements RandomAccess {
+        private final Function<Message, String> field;
+
+        FieldView(Function<Message, String> field) {
+            this.field = field;
+        }
+
+        @Override
+        public String get(int index) {
+            return field.apply(messagesInOrder.get(index));
+        }
+
+        @Override
+        public int size() {
+            return messagesInOrder.size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<Message> messages = messagesInOrder.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return messages.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return field.apply(messages.next());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,773 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Segment-based, append-only journal of messages for QuickChat
+ *
+ * The JSON file is a snapshot; every change since the last snapshot is
+ * appended as a CRC-checked record to the active segment file. Segments roll
+ * over once they reach a fixed size. Deletions are written as tombstone
+ * records and folded into a new snapshot by a background compaction once
+ * they make up a fixed share of the live messages, so the rewrite is
+ * amortized over the deletes that caused it.
+ * Every snapshot is written with a MessagePageIndex next to it, so
+ * openPaged can decode single pages instead of the whole file.
+ *
+ * Record layout: [int payload length][int CRC32 of payload][payload]
+ * Payload: [byte op][string id][string hash] and for PUT records
+ * [string recipient][string text][int message number], where each string is
+ * an int byte length (-1 for null) followed by UTF-8 bytes.
+ *
+ * This is the "json" MessageStore backend.
+ */
+public class MessageJournal implements MessageStore {
+
+    // Roll to a new segment once the active one reaches this size
+    private static final long SEGMENT_SIZE_BYTES = 1024 * 1024;
+
+    // Compact once tombstones reach this share of the live messages...
+    private static final double COMPACTION_TOMBSTONE_RATIO = 0.5;
+
+    // ...but never for fewer tombstones than this
+    private static final int COMPACTION_MIN_TOMBSTONES = 64;
+
+    // ...or once this many segments have been sealed
+    private static final int COMPACTION_SEGMENT_THRESHOLD = 8;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    // Records from appendAll are framed into buffers of this size before writing
+    private static final int BATCH_BUFFER_BYTES = 64 * 1024;
+
+    private final File snapshotFile;
+    private final File indexFile;
+    private final File segmentDirectory;
+    private final String segmentPrefix;
+
+    private FileChannel activeChannel;
+    private int activeSequence;
+    private long activeSize;
+    private int tombstones;
+
+    // Live messages as far as this journal has seen them loaded, appended and deleted
+    private long liveRecords;
+
+    // Bumped by reset, so a compaction that started before it never publishes
+    private int generation;
+
+    // Single background worker shared by every journal, so only one compaction ever runs at a time
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a journal
+     * @param snapshotPath path of the JSON snapshot file
+     * @param segmentDirectoryPath directory holding the segment files
+     * @param segmentPrefix file name prefix for this journal's segments
+     */
+    public MessageJournal(String snapshotPath, String segmentDirectoryPath, String segmentPrefix) {
+        this.snapshotFile = new File(snapshotPath);
+        this.indexFile = new File(MessagePageIndex.pathFor(snapshotPath));
+        this.segmentDirectory = new File(segmentDirectoryPath);
+        this.segmentPrefix = segmentPrefix;
+    }
+
+    /**
+     * Appends a message to the journal
+     * @param message the message to record
+     * @throws IOException if the record could not be written
+     */
+    @Override
+    public synchronized void append(Message message) throws IOException {
+        writeRecord(encode(OP_PUT, message));
+        liveRecords++;
+    }
+
+    /**
+     * Appends several messages with as few writes as possible
+     * Records are framed into one buffer per segment and written together,
+     * so a batch costs one write call instead of one per message
+     * @param messages the messages to record
+     * @throws IOException if the records could not be written
+     */
+    @Override
+    public synchronized void appendAll(Collection<Message> messages) throws IOException {
+        ByteBuffer pending = null;
+        for (Message message : messages) {
+            byte[] payload = encode(OP_PUT, message);
+            int recordBytes = RECORD_HEADER_BYTES + payload.length;
+            if (pending != null && (pending.remaining() < recordBytes
+                    || activeSize + pending.position() + recordBytes > SEGMENT_SIZE_BYTES)) {
+                flushRecords(pending);
+                pending = null;
+            }
+            if (pending == null) {
+                prepareSegmentFor(recordBytes);
+                pending = ByteBuffer.allocate(Math.max(recordBytes, BATCH_BUFFER_BYTES));
+            }
+            putRecord(pending, payload);
+        }
+        if (pending != null) {
+            flushRecords(pending);
+        }
+        liveRecords += messages.size();
+    }
+
+    /**
+     * Appends a tombstone for a deleted message and schedules a compaction
+     * once tombstones make up enough of the journal
+     * @param message the deleted message
+     * @throws IOException if the record could not be written
+     */
+    public synchronized void appendDelete(Message message) throws IOException {
+        writeRecord(encode(OP_DELETE, message));
+        tombstones++;
+        liveRecords = Math.max(0, liveRecords - 1);
+        if (tombstones >= COMPACTION_MIN_TOMBSTONES
+                && tombstones >= liveRecords * COMPACTION_TOMBSTONE_RATIO) {
+            compactAsync();
+        }
+    }
+
+    /**
+     * Records a deletion as a tombstone
+     * @param message the deleted message
+     * @throws IOException if the record could not be written
+     */
+    @Override
+    public void remove(Message message) throws IOException {
+        appendDelete(message);
+    }
+
+    /**
+     * Loads the snapshot and replays every segment on top of it
+     * @param consumer receives each live message in journal order
+     * @throws IOException if the snapshot or a segment could not be read
+     */
+    @Override
+    public synchronized void load(Consumer<Message> consumer) throws IOException {
+        // A compaction swaps the snapshot and deletes segments under this monitor,
+        // so the files listed here stay put until the load is done
+        if (!snapshotFile.exists()) {
+            // First run - start from an empty snapshot
+            writeSnapshot(empty -> { });
+        }
+
+        // Only the segments are held in memory; the snapshot is streamed past them
+        Overlay overlay = new Overlay();
+        List<File> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean lastSegment = i == segments.size() - 1;
+            replaySegment(segments.get(i), overlay, lastSegment);
+        }
+        long[] live = new long[1];
+        streamLive(overlay, message -> {
+            live[0]++;
+            consumer.accept(message);
+        });
+        liveRecords = live[0];
+    }
+
+    /**
+     * Opens the snapshot for lazy reads
+     * Only the page index header and the segments are read now; the rest of
+     * the index is read on the first lookup and snapshot pages are decoded
+     * as lookups need them. A snapshot without a valid index (written before
+     * page indexes existed) is rewritten once to add one.
+     * @param cache keeps recently decoded pages, which may be shared with other views
+     * @return the view, holding the snapshot open until it is closed
+     * @throws IOException if the index, snapshot or a segment could not be read
+     */
+    @Override
+    public synchronized PagedMessages openPaged(MessagePageCache cache) throws IOException {
+        MessagePageIndex index = null;
+        FileChannel indexChannel = openIndexFor(snapshotFile);
+        if (indexChannel == null) {
+            index = writeSnapshot(consumer -> {
+                try {
+                    StreamingMessageLoader.read(snapshotFile, consumer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        Overlay overlay = new Overlay();
+        List<File> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean lastSegment = i == segments.size() - 1;
+            replaySegment(segments.get(i), overlay, lastSegment);
+        }
+        int snapshotMessages = index != null ? index.size() : MessagePageIndex.messageCount(indexChannel);
+        liveRecords = Math.max(0, snapshotMessages - overlay.deleted.size()) + overlay.puts.size();
+
+        FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ);
+        return new SnapshotPages(channel, indexChannel, index, overlay, cache);
+    }
+
+    // Opens the page index if its header matches the snapshot, or returns null
+    private FileChannel openIndexFor(File snapshot) throws IOException {
+        if (!snapshot.exists() || !indexFile.exists()) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ);
+        if (MessagePageIndex.describes(channel, snapshot)) {
+            return channel;
+        }
+        channel.close();
+        return null;
+    }
+
+    /**
+     * Seals the active segment and folds all sealed segments into a new
+     * snapshot on the background compaction thread
+     */
+    public synchronized void compactAsync() {
+        rollSegment();
+        tombstones = 0;
+        COMPACTOR.submit(this::compactQuietly);
+    }
+
+    /**
+     * Folds all sealed segments into a new snapshot and deletes them
+     * The active segment is left alone so appends can continue meanwhile.
+     * The new snapshot is written to the side without holding the monitor;
+     * it is renamed into place and the sealed segments deleted under the
+     * monitor, so a load or openPaged sees either the old snapshot with the
+     * segments or the new one without them.
+     * @throws IOException if the snapshot could not be written
+     */
+    public void compact() throws IOException {
+        List<File> sealed;
+        int startGeneration;
+        synchronized (this) {
+            ensureActiveSequence();
+            sealed = listSegments();
+            sealed.removeIf(segment -> sequenceOf(segment) >= activeSequence);
+            startGeneration = generation;
+        }
+        if (sealed.isEmpty()) {
+            return;
+        }
+
+        Overlay overlay = new Overlay();
+        for (File segment : sealed) {
+            replaySegment(segment, overlay, false);
+        }
+        File tempFile = new File(snapshotFile.getPath() + ".compact.tmp");
+        File tempIndex = new File(indexFile.getPath() + ".compact.tmp");
+        prepareSnapshot(tempFile, tempIndex, consumer -> {
+            try {
+                streamLive(overlay, consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        synchronized (this) {
+            if (generation != startGeneration) {
+                // Reset meanwhile - the snapshot we wrote holds discarded messages
+                Files.deleteIfExists(tempFile.toPath());
+                Files.deleteIfExists(tempIndex.toPath());
+                return;
+            }
+            publishSnapshot(tempFile, tempIndex);
+            for (File segment : sealed) {
+                Files.deleteIfExists(segment.toPath());
+            }
+        }
+    }
+
+    /**
+     * Waits for any scheduled compaction to finish
+     */
+    public void awaitCompaction() {
+        try {
+            COMPACTOR.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Error waiting for message journal compaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Discards the snapshot and every segment
+     * @throws IOException if the files could not be reset
+     */
+    @Override
+    public void reset() throws IOException {
+        awaitCompaction();
+
+        synchronized (this) {
+            closeActiveSegment();
+            for (File segment : listSegments()) {
+                Files.deleteIfExists(segment.toPath());
+            }
+            writeSnapshot(consumer -> { });
+            activeSequence = 0;
+            activeSize = 0;
+            tombstones = 0;
+            liveRecords = 0;
+            generation++;
+        }
+    }
+
+    /**
+     * Waits for a running compaction, then forces the active segment to disk and closes it
+     */
+    @Override
+    public void close() {
+        awaitCompaction();
+        synchronized (this) {
+            closeActiveSegment();
+        }
+    }
+
+    /**
+     * Gets the segment files currently on disk, oldest first
+     * @return list of segment files
+     */
+    public synchronized List<File> listSegments() {
+        File[] files = segmentDirectory.listFiles(
+            (dir, name) -> name.startsWith(segmentPrefix + "-") && name.endsWith(".seg"));
+        List<File> segments = new ArrayList<>();
+        if (files != null) {
+            segments.addAll(Arrays.asList(files));
+        }
+        segments.sort((a, b) -> Integer.compare(sequenceOf(a), sequenceOf(b)));
+        return segments;
+    }
+
+    // ========== RECORD I/O ==========
+
+    private void writeRecord(byte[] payload) throws IOException {
+        prepareSegmentFor(RECORD_HEADER_BYTES + payload.length);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        putRecord(buffer, payload);
+        flushRecords(buffer);
+    }
+
+    // Opens the active segment, rolling to a new one if the record would not fit
+    private void prepareSegmentFor(int recordBytes) throws IOException {
+        if (activeChannel == null) {
+            openActiveSegment();
+        } else if (activeSize + recordBytes > SEGMENT_SIZE_BYTES) {
+            rollSegment();
+            openActiveSegment();
+            if (listSegments().size() > COMPACTION_SEGMENT_THRESHOLD) {
+                COMPACTOR.submit(this::compactQuietly);
+            }
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+    }
+
+    // Writes framed records to the active segment; the buffer is still in fill mode
+    private void flushRecords(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+        activeSize += bytes;
+    }
+
+    private void replaySegment(File segment, Overlay overlay, boolean lastSegment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.toPath()));
+        long goodBytes = 0;
+
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            applyRecord(payload, overlay);
+            goodBytes = buffer.position();
+        }
+
+        if (goodBytes < segment.length()) {
+            if (lastSegment) {
+                // Torn write at the tail from a crash - drop it so appends continue cleanly
+                try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(goodBytes);
+                }
+            } else {
+                System.err.println("Corrupt record in message journal segment " + segment.getName()
+                    + " at offset " + goodBytes + ", skipping rest of segment");
+            }
+        }
+    }
+
+    private static void applyRecord(byte[] payload, Overlay overlay) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte op = in.get();
+        String id = readString(in);
+        String hash = readString(in);
+
+        if (op == OP_PUT) {
+            String recipient = readString(in);
+            String text = readString(in);
+            int number = in.getInt();
+            String key = keyOf(id, hash);
+            overlay.deleted.remove(key);
+            overlay.puts.put(key, Message.restore(id, recipient, text, hash, number));
+        } else if (op == OP_DELETE) {
+            String key = keyOf(id, hash);
+            overlay.puts.remove(key);
+            overlay.deleted.add(key);
+        }
+    }
+
+    private static byte[] encode(byte op, Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(op);
+        writeString(out, message.getMessageID());
+        writeString(out, message.getMessageHash());
+        if (op == OP_PUT) {
+            writeString(out, message.getRecipientCell());
+            writeString(out, message.getMessageText());
+            out.writeInt(message.getMessageNumber());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String keyOf(String id, String hash) {
+        return id + "|" + hash;
+    }
+
+    // ========== SNAPSHOT I/O ==========
+
+    /**
+     * Changes replayed from segments, applied on top of the streamed snapshot
+     */
+    private static class Overlay {
+        final Map<String, Message> puts = new LinkedHashMap<>();
+        final Set<String> deleted = new HashSet<>();
+    }
+
+    private void streamLive(Overlay overlay, Consumer<Message> consumer) throws IOException {
+        StreamingMessageLoader.read(snapshotFile, message -> {
+            String key = keyOf(message.getMessageID(), message.getMessageHash());
+            if (!overlay.deleted.contains(key) && !overlay.puts.containsKey(key)) {
+                consumer.accept(message);
+            }
+        });
+        for (Message message : overlay.puts.values()) {
+            consumer.accept(message);
+        }
+    }
+
+    private MessagePageIndex writeSnapshot(Consumer<Consumer<Message>> source) throws IOException {
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        File tempIndex = new File(indexFile.getPath() + ".tmp");
+        MessagePageIndex pages = prepareSnapshot(tempFile, tempIndex, source);
+        publishSnapshot(tempFile, tempIndex);
+        return pages;
+    }
+
+    // Writes a snapshot and its page index next to the live ones
+    private MessagePageIndex prepareSnapshot(File tempFile, File tempIndex,
+                                             Consumer<Consumer<Message>> source) throws IOException {
+        File dataDir = snapshotFile.getAbsoluteFile().getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+
+        MessagePageIndex pages = new MessagePageIndex(MessagePageIndex.DEFAULT_PAGE_SIZE);
+        try {
+            StreamingMessageLoader.write(tempFile, source, pages);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        pages.describe(tempFile);
+        pages.write(tempIndex);
+        return pages;
+    }
+
+    // The rename keeps the modification time, so the index still matches afterwards.
+    // A crash between the two renames leaves a stale index, which openPaged rebuilds.
+    private void publishSnapshot(File tempFile, File tempIndex) throws IOException {
+        Files.move(tempFile.toPath(), snapshotFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tempIndex.toPath(), indexFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lazily decoded view of a snapshot plus the segments replayed on top of it
+     * Holds the snapshot and its index open, so a compaction that replaces the
+     * files later does not disturb what this view reads
+     */
+    private static class SnapshotPages implements PagedMessages {
+        private final FileChannel channel;
+        private final MessagePageCache cache;
+        private final Overlay overlay;
+
+        // The index is read from indexChannel on the first lookup
+        private FileChannel indexChannel;
+        private MessagePageIndex index;
+        private volatile boolean indexed;
+
+        // Snapshot positions still live after the segments are applied
+        private final Map<String, Integer> positionById = new HashMap<>();
+        private final Map<String, List<Integer>> positionsByRecipient = new HashMap<>();
+        private int liveSnapshotMessages;
+
+        // Messages put by the segments - few, so they stay decoded
+        private final List<Message> overlayMessages;
+        private final Map<String, Message> overlayById = new HashMap<>();
+
+        SnapshotPages(FileChannel channel, FileChannel indexChannel, MessagePageIndex index,
+                      Overlay overlay, MessagePageCache cache) {
+            this.channel = channel;
+            this.indexChannel = indexChannel;
+            this.index = index;
+            this.overlay = overlay;
+            this.cache = cache;
+
+            overlayMessages = new ArrayList<>(overlay.puts.values());
+            for (Message message : overlayMessages) {
+                overlayById.putIfAbsent(message.getMessageID(), message);
+            }
+        }
+
+        @Override
+        public int size() throws IOException {
+            ensureIndexed();
+            return liveSnapshotMessages + overlayMessages.size();
+        }
+
+        @Override
+        public Message findById(String messageID) throws IOException {
+            Message message = overlayById.get(messageID);
+            if (message != null) {
+                return message;
+            }
+            ensureIndexed();
+            Integer position = positionById.get(messageID);
+            return position != null ? messageAt(position) : null;
+        }
+
+        @Override
+        public List<Message> findByRecipient(String recipientCell) throws IOException {
+            ensureIndexed();
+            List<Message> matches = new ArrayList<>();
+            for (int position : positionsByRecipient.getOrDefault(recipientCell, new ArrayList<>())) {
+                matches.add(messageAt(position));
+            }
+            for (Message message : overlayMessages) {
+                if (Objects.equals(message.getRecipientCell(), recipientCell)) {
+                    matches.add(message);
+                }
+            }
+            return matches;
+        }
+
+        @Override
+        public int countByRecipient(String recipientCell) throws IOException {
+            ensureIndexed();
+            int count = positionsByRecipient.getOrDefault(recipientCell, Collections.emptyList()).size();
+            for (Message message : overlayMessages) {
+                if (Objects.equals(message.getRecipientCell(), recipientCell)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public synchronized void close() {
+            cache.remove(this);
+            try {
+                channel.close();
+                if (indexChannel != null) {
+                    indexChannel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error closing message snapshot: " + e.getMessage());
+            }
+        }
+
+        private void ensureIndexed() throws IOException {
+            if (indexed) {
+                return;
+            }
+            synchronized (this) {
+                if (indexed) {
+                    return;
+                }
+                if (index == null) {
+                    index = MessagePageIndex.read(indexChannel);
+                    indexChannel.close();
+                    indexChannel = null;
+                    if (index == null || index.getSnapshotLength() != channel.size()) {
+                        throw new IOException("Message page index does not match the snapshot");
+                    }
+                }
+
+                for (int i = 0; i < index.size(); i++) {
+                    String key = keyOf(index.getMessageID(i), index.getMessageHash(i));
+                    if (overlay.deleted.contains(key) || overlay.puts.containsKey(key)) {
+                        continue;
+                    }
+                    positionById.putIfAbsent(index.getMessageID(i), i);
+                    positionsByRecipient.computeIfAbsent(index.getRecipientCell(i), k -> new ArrayList<>()).add(i);
+                    liveSnapshotMessages++;
+                }
+                indexed = true;
+            }
+        }
+
+        private Message messageAt(int position) throws IOException {
+            int pageSize = index.getPageSize();
+            return cache.getPage(this, position / pageSize, this::readPage).get(position % pageSize);
+        }
+
+        private List<Message> readPage(int page) throws IOException {
+            long start = index.getPageStart(page);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (index.getPageEnd(page) - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("Message snapshot ends inside page " + page);
+                }
+            }
+            return StreamingMessageLoader.readPage(buffer.array(), index.getPageLength(page));
+        }
+    }
+
+    // ========== SEGMENT MANAGEMENT ==========
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Error compacting message journal: " + e.getMessage());
+        }
+    }
+
+    private void openActiveSegment() throws IOException {
+        if (!segmentDirectory.exists()) {
+            segmentDirectory.mkdirs();
+        }
+        ensureActiveSequence();
+
+        File segment = new File(segmentDirectory, segmentName(activeSequence));
+        activeChannel = FileChannel.open(segment.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSize = activeChannel.size();
+    }
+
+    private void rollSegment() {
+        if (activeChannel == null) {
+            // Nothing open yet this session - every existing segment is already sealed
+            ensureActiveSequence();
+            return;
+        }
+        closeActiveSegment();
+        activeSequence++;
+        activeSize = 0;
+    }
+
+    private void ensureActiveSequence() {
+        if (activeSequence == 0) {
+            // Segments from earlier runs are never appended to again
+            List<File> segments = listSegments();
+            activeSequence = segments.isEmpty() ? 1 : sequenceOf(segments.get(segments.size() - 1)) + 1;
+        }
+    }
+
+    private void closeActiveSegment() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            activeChannel.force(false);
+            activeChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing message journal segment: " + e.getMessage());
+        }
+        activeChannel = null;
+    }
+
+    private String segmentName(int sequence) {
+        return String.format("%s-%06d.seg", segmentPrefix, sequence);
+    }
+
+    private int sequenceOf(File segment) {
+        String name = segment.getName();
+        String digits = name.substring(segmentPrefix.length() + 1, name.length() - ".seg".length());
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+/**
+ * Read-only, live List view over a collection of messages
+ * Iteration, size and contains go straight to the backing collection, so
+ * handing one out never copies the messages. get(int) reads an array copy
+ * that new messages are appended to, so indexed loops cost the same as
+ * iterating even while messages are being sent; only a removal makes the
+ * next get(int) take the copy again.
+ */
+public class MessageListView extends AbstractList<Message> implements RandomAccess {
+
+    private final SequencedMessages messages;
+
+    /**
+     * Creates a view over the given messages
+     * @param messages the backing collection
+     */
+    public MessageListView(SequencedMessages messages) {
+        this.messages = messages;
+    }
+
+    @Override
+    public Message get(int index) {
+        return messages.get(index);
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return messages.contains(o);
+    }
+
+    @Override
+    public Iterator<Message> iterator() {
+        Iterator<Message> iterator = messages.iterator();
+        return new Iterator<Message>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Message next() {
+                return iterator.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least-recently-used cache of decoded message pages
+ * Lazily opened stored messages are read from disk a page at a time; the
+ * cache keeps the most recently used pages decoded so repeated searches
+ * do not parse the same JSON again. The capacity is a number of pages.
+ *
+ * Pages are keyed by the view that read them as well as the page number, so
+ * views of different snapshots can share one cache (and its capacity)
+ * without one ever being handed a page decoded from another's snapshot.
+ *
+ * Safe for concurrent use. Pages are decoded outside the lock, so two
+ * threads missing on the same page may both read it - the last one wins.
+ */
+public class MessagePageCache {
+
+    /**
+     * Reads one page of messages from disk
+     */
+    public interface PageLoader {
+        List<Message> load(int page) throws IOException;
+    }
+
+    private final Map<PageKey, List<Message>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+
+    // Counters so callers can see how well the cache is sized
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache
+     * @param capacity maximum number of decoded pages to keep (0 = cache nothing)
+     */
+    public MessagePageCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Gets a page, decoding it with the loader if it is not cached
+     * @param owner the view the page belongs to
+     * @param page the page number
+     * @param loader reads the page on a miss
+     * @return the decoded messages on the page
+     * @throws IOException if the page could not be read
+     */
+    public List<Message> getPage(Object owner, int page, PageLoader loader) throws IOException {
+        PageKey key = new PageKey(owner, page);
+        synchronized (this) {
+            List<Message> cached = pages.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        List<Message> loaded = loader.load(page);
+        synchronized (this) {
+            if (capacity > 0) {
+                pages.put(key, loaded);
+                evictOverflow();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Changes how many pages are kept, dropping the least recently used ones
+     * @param capacity maximum number of decoded pages (0 = cache nothing)
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        evictOverflow();
+    }
+
+    public synchronized int getCapacity() { return capacity; }
+
+    public synchronized int size() { return pages.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    /**
+     * Drops the pages read by one view, once it is closed
+     * @param owner the view whose pages to drop
+     */
+    public synchronized void remove(Object owner) {
+        pages.keySet().removeIf(key -> key.owner == owner);
+    }
+
+    /**
+     * Drops every cached page and resets the counters
+     */
+    public synchronized void clear() {
+        pages.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    private void evictOverflow() {
+        while (pages.size() > capacity) {
+            pages.remove(pages.keySet().iterator().next());
+        }
+    }
+
+    // A page of one view - views compare by identity
+    private static final class PageKey {
+        private final Object owner;
+        private final int page;
+
+        PageKey(Object owner, int page) {
+            this.owner = owner;
+            this.page = page;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PageKey)) {
+                return false;
+            }
+            PageKey key = (PageKey) other;
+            return owner == key.owner && page == key.page;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(owner), page);
+        }
+    }
+}
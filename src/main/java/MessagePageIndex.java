@@ -0,0 +1,284 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page index for a stored messages JSON snapshot
+ *
+ * Written next to the snapshot (stored_messages.json -> stored_messages.idx)
+ * every time the snapshot is rewritten. The snapshot is split into pages of a
+ * fixed number of messages; the index records the byte offset where each page
+ * starts plus the ID, hash and recipient of every message, so a lazy reader can
+ * find and decode a single page without parsing the rest of the file.
+ *
+ * File layout: [int magic][int version][int page size][long snapshot length]
+ * [long snapshot modified time][int message count][int page count]
+ * [long offset per page] then per message [string id][string hash][string recipient],
+ * where each string is an unsigned short byte length (0xFFFF for null) followed by UTF-8 bytes.
+ * The header alone says which snapshot the index belongs to, so it can be
+ * checked at startup and the rest read when the first lookup needs it.
+ */
+public class MessagePageIndex {
+
+    // Messages per page unless the snapshot writer asks for something else
+    public static final int DEFAULT_PAGE_SIZE = 256;
+
+    private static final int MAGIC = 0x51435049; // "QCPI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private final int pageSize;
+    private final List<Long> pageOffsets = new ArrayList<>();
+    private final List<String> messageIDs = new ArrayList<>();
+    private final List<String> messageHashes = new ArrayList<>();
+    private final List<String> recipientCells = new ArrayList<>();
+
+    // Which snapshot this index describes
+    private long snapshotLength = -1;
+    private long snapshotModified = -1;
+
+    /**
+     * Creates an empty index, ready to be filled while a snapshot is written
+     * @param pageSize number of messages per page
+     */
+    public MessagePageIndex(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Gets the index file that belongs to a snapshot
+     * @param snapshotPath path of the JSON snapshot
+     * @return path of its page index
+     */
+    public static String pathFor(String snapshotPath) {
+        if (snapshotPath.endsWith(".json")) {
+            return snapshotPath.substring(0, snapshotPath.length() - ".json".length()) + ".idx";
+        }
+        return snapshotPath + ".idx";
+    }
+
+    // ========== BUILDING ==========
+
+    /**
+     * Checks whether the next message added starts a new page
+     * @return true if the writer should record a page offset first
+     */
+    public boolean isAtPageStart() {
+        return messageIDs.size() % pageSize == 0;
+    }
+
+    /**
+     * Records where the next page starts in the snapshot
+     * @param offset byte offset of the page
+     */
+    public void startPage(long offset) {
+        pageOffsets.add(offset);
+    }
+
+    /**
+     * Records a message written to the current page
+     * @param message the message
+     */
+    public void add(Message message) {
+        messageIDs.add(message.getMessageID());
+        messageHashes.add(message.getMessageHash());
+        recipientCells.add(message.getRecipientCell());
+    }
+
+    /**
+     * Ties the index to the snapshot file it was built for
+     * @param snapshot the finished snapshot
+     */
+    public void describe(File snapshot) {
+        snapshotLength = snapshot.length();
+        snapshotModified = snapshot.lastModified();
+    }
+
+    // ========== LOOKUPS ==========
+
+    public int size() { return messageIDs.size(); }
+
+    public int getPageSize() { return pageSize; }
+
+    public int getPageCount() { return pageOffsets.size(); }
+
+    public long getSnapshotLength() { return snapshotLength; }
+
+    public String getMessageID(int position) { return messageIDs.get(position); }
+
+    public String getMessageHash(int position) { return messageHashes.get(position); }
+
+    public String getRecipientCell(int position) { return recipientCells.get(position); }
+
+    /**
+     * Gets the byte offset where a page starts
+     * @param page the page number
+     * @return offset into the snapshot
+     */
+    public long getPageStart(int page) {
+        return pageOffsets.get(page);
+    }
+
+    /**
+     * Gets the byte offset just past a page
+     * @param page the page number
+     * @return start of the next page, or the end of the snapshot for the last page
+     */
+    public long getPageEnd(int page) {
+        return page + 1 < pageOffsets.size() ? pageOffsets.get(page + 1) : snapshotLength;
+    }
+
+    /**
+     * Gets how many messages a page holds
+     * @param page the page number
+     * @return message count - pageSize for every page but the last
+     */
+    public int getPageLength(int page) {
+        return Math.min(pageSize, messageIDs.size() - page * pageSize);
+    }
+
+    // ========== FILE I/O ==========
+
+    /**
+     * Writes the index to a file
+     * @param file the index file
+     * @throws IOException if the file could not be written
+     */
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pageSize);
+            out.writeLong(snapshotLength);
+            out.writeLong(snapshotModified);
+            out.writeInt(messageIDs.size());
+            out.writeInt(pageOffsets.size());
+            for (long offset : pageOffsets) {
+                out.writeLong(offset);
+            }
+            for (int i = 0; i < messageIDs.size(); i++) {
+                writeString(out, messageIDs.get(i));
+                writeString(out, messageHashes.get(i));
+                writeString(out, recipientCells.get(i));
+            }
+        }
+    }
+
+    /**
+     * Checks from the header alone that an index describes a snapshot
+     * @param channel the open index file
+     * @param snapshot the snapshot file
+     * @return true if the index was written for the snapshot as it is on disk
+     * @throws IOException if the index could not be read
+     */
+    public static boolean describes(FileChannel channel, File snapshot) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return false;
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            return false;
+        }
+        header.getInt(); // page size
+        return snapshot.exists() && header.getLong() == snapshot.length()
+            && header.getLong() == snapshot.lastModified();
+    }
+
+    /**
+     * Reads the number of messages an index describes without reading the rest of it
+     * @param channel the open index file
+     * @return message count, or 0 if the file is too short to hold one
+     * @throws IOException if the index could not be read
+     */
+    public static int messageCount(FileChannel channel) throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES);
+        while (count.hasRemaining()) {
+            if (channel.read(count, HEADER_BYTES + count.position()) < 0) {
+                return 0;
+            }
+        }
+        count.flip();
+        return Math.max(0, count.getInt());
+    }
+
+    /**
+     * Reads a whole index file in one go
+     * @param channel the open index file
+     * @return the index, or null if the file is truncated or not an index
+     * @throws IOException if the file could not be read
+     */
+    public static MessagePageIndex read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.allocate((int) size);
+        while (in.hasRemaining()) {
+            if (channel.read(in, in.position()) < 0) {
+                return null;
+            }
+        }
+        in.flip();
+
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            MessagePageIndex index = new MessagePageIndex(in.getInt());
+            index.snapshotLength = in.getLong();
+            index.snapshotModified = in.getLong();
+            int messageCount = in.getInt();
+            int pageCount = in.getInt();
+            for (int i = 0; i < pageCount; i++) {
+                index.pageOffsets.add(in.getLong());
+            }
+            for (int i = 0; i < messageCount; i++) {
+                index.messageIDs.add(readString(in));
+                index.messageHashes.add(readString(in));
+                index.recipientCells.add(readString(in));
+            }
+            return index;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null; // Rebuilt from the snapshot by the caller
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("Field too long for the page index: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
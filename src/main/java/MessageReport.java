@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Streams the comprehensive report one section at a time
+ *
+ * The report is written straight to a Writer instead of being built up in
+ * memory, so a file or console report costs one buffer no matter how many
+ * messages there are. Summary statistics come from the store's running
+ * counters; only the message sections walk the lists, once, in order.
+ *
+ * A report is a cursor: writeNext writes up to a number of message entries
+ * and remembers where it stopped, which is how the GUI pages it in as the
+ * user scrolls. writeAll writes whatever is left.
+ */
+public class MessageReport {
+
+    // Message entries per page when the report is shown a page at a time
+    public static final int DEFAULT_PAGE_MESSAGES = 200;
+
+    private static final String DOUBLE_RULE = "=".repeat(50);
+    private static final String RULE = "-".repeat(50);
+
+    private enum Stage { SUMMARY, SENT, STORED, DISREGARDED, LONGEST, DONE }
+
+    private final ConcurrentMessageStore store;
+    private Stage stage = Stage.SUMMARY;
+
+    // Position inside the message section being written
+    private Iterator<Message> messages;
+    private int number;
+
+    /**
+     * Creates a report over the messages currently in a store
+     * @param store the messages to report on
+     */
+    public MessageReport(ConcurrentMessageStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Checks whether any part of the report is still to be written
+     * @return true until the closing rule has been written
+     */
+    public boolean hasMore() {
+        return stage != Stage.DONE;
+    }
+
+    /**
+     * Writes the next part of the report
+     * Section headings, the summary and the longest message do not count
+     * towards the limit, so every call makes progress.
+     * @param out where the report goes
+     * @param maxMessages most message entries to write in this call
+     * @return the number of message entries written
+     * @throws IOException if the writer fails
+     */
+    public int writeNext(Writer out, int maxMessages) throws IOException {
+        int written = 0;
+        while (stage != Stage.DONE && written < maxMessages) {
+            switch (stage) {
+                case SUMMARY:
+                    writeSummary(out);
+                    stage = Stage.SENT;
+                    break;
+                case SENT:
+                case STORED:
+                case DISREGARDED:
+                    written += writeMessages(out, maxMessages - written);
+                    break;
+                case LONGEST:
+                    writeLongest(out);
+                    out.write(DOUBLE_RULE);
+                    out.write('\n');
+                    stage = Stage.DONE;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes the rest of the report
+     * @param out where the report goes
+     * @throws IOException if the writer fails
+     */
+    public void writeAll(Writer out) throws IOException {
+        while (hasMore()) {
+            writeNext(out, Integer.MAX_VALUE);
+        }
+    }
+
+    // ========== SECTIONS ==========
+
+    private void writeSummary(Writer out) throws IOException {
+        int sent = store.count(MessageStatus.SENT);
+        int stored = store.count(MessageStatus.STORED);
+        int disregarded = store.count(MessageStatus.DISREGARDED);
+        int total = sent + stored + disregarded;
+        long characters = store.characters(MessageStatus.SENT) + store.characters(MessageStatus.STORED)
+            + store.characters(MessageStatus.DISREGARDED);
+
+        out.write("\n" + DOUBLE_RULE + "\n");
+        out.write("         QUICKCHAT COMPREHENSIVE REPORT\n");
+        out.write(DOUBLE_RULE + "\n");
+        out.write("\n📊 SUMMARY STATISTICS:\n");
+        out.write("   Total Sent Messages: " + sent + "\n");
+        out.write("   Total Stored Messages: " + stored + "\n");
+        out.write("   Total Disregarded Messages: " + disregarded + "\n");
+        out.write("   Total Messages: " + total + "\n");
+        if (total > 0) {
+            out.write(String.format("   Average Message Length: %.1f characters\n", (double) characters / total));
+        }
+    }
+
+    private int writeMessages(Writer out, int limit) throws IOException {
+        MessageStatus status = statusOf(stage);
+        if (messages == null) {
+            if (store.count(status) == 0) {
+                stage = Stage.values()[stage.ordinal() + 1];
+                return 0;
+            }
+            out.write(headingOf(status));
+            out.write(RULE + "\n");
+            messages = store.getMessages(status).iterator();
+            number = 0;
+        }
+
+        int written = 0;
+        while (written < limit && messages.hasNext()) {
+            writeEntry(out, status, messages.next(), ++number);
+            written++;
+        }
+        if (!messages.hasNext()) {
+            messages = null;
+            stage = Stage.values()[stage.ordinal() + 1];
+        }
+        return written;
+    }
+
+    private static void writeEntry(Writer out, MessageStatus status, Message message, int number) throws IOException {
+        switch (status) {
+            case SENT:
+                out.write("Message " + number + ":\n");
+                break;
+            case STORED:
+                out.write("Stored Message " + number + ":\n");
+                break;
+            default:
+                out.write("Disregarded Message " + number + ":\n");
+                break;
+        }
+        out.write("   Hash: " + message.getMessageHash() + "\n");
+        out.write("   Recipient: " + message.getRecipientCell() + "\n");
+        out.write("   Message: " + message.getMessageText() + "\n");
+        if (status == MessageStatus.SENT) {
+            out.write("   Message ID: " + message.getMessageID() + "\n");
+        }
+        out.write('\n');
+    }
+
+    private void writeLongest(Writer out) throws IOException {
+        Message longest = store.getIndex().findLongest();
+        if (longest == null || longest.getMessageText() == null || longest.getMessageText().isEmpty()) {
+            return;
+        }
+        out.write("📏 LONGEST MESSAGE:\n");
+        out.write(RULE + "\n");
+        out.write("   \"" + longest.getMessageText() + "\"\n");
+        out.write("   Length: " + longest.getMessageText().length() + " characters\n\n");
+    }
+
+    private static MessageStatus statusOf(Stage stage) {
+        switch (stage) {
+            case SENT:
+                return MessageStatus.SENT;
+            case STORED:
+                return MessageStatus.STORED;
+            default:
+                return MessageStatus.DISREGARDED;
+        }
+    }
+
+    private static String headingOf(MessageStatus status) {
+        switch (status) {
+            case SENT:
+                return "\n📤 SENT MESSAGES DETAILS:\n";
+            case STORED:
+                return "💾 STORED MESSAGES:\n";
+            default:
+                return "🗑️  DISREGARDED MESSAGES:\n";
+        }
+    }
+}
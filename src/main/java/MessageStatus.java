@@ -0,0 +1,8 @@
+/**
+ * The list a QuickChat message ended up in after the user chose an action
+ */
+public enum MessageStatus {
+    SENT,
+    STORED,
+    DISREGARDED
+}
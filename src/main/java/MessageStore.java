@@ -0,0 +1,97 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Where QuickChat persists messages between runs
+ * Message keeps its lists and indexes in memory (ConcurrentMessageStore);
+ * a MessageStore only records additions and deletions and plays the
+ * surviving messages back on load. Each message list (stored, sent,
+ * disregarded) has its own store. Backends are picked at startup with
+ * Message.useStorage or the quickchat.storage system property.
+ *
+ * Backends:
+ *   json   - Gson snapshot plus append-only journal (MessageJournal), the default
+ *   binary - compact memory-mapped records (BinaryMessageStore)
+ *   memory - nothing reaches the disk (InMemoryMessageStore)
+ */
+public interface MessageStore {
+
+    /**
+     * Records a new message
+     * @param message the message to persist
+     * @throws IOException if it could not be written
+     */
+    void append(Message message) throws IOException;
+
+    /**
+     * Records several new messages, as one write where the backend allows
+     * @param messages the messages to persist
+     * @throws IOException if they could not be written
+     */
+    void appendAll(Collection<Message> messages) throws IOException;
+
+    /**
+     * Records that a message was deleted
+     * @param message the deleted message
+     * @throws IOException if the deletion could not be written
+     */
+    void remove(Message message) throws IOException;
+
+    /**
+     * Plays back every persisted message that has not been deleted, oldest first
+     * @param consumer receives each message
+     * @throws IOException if the messages could not be read
+     */
+    void load(Consumer<Message> consumer) throws IOException;
+
+    /**
+     * Opens a read-only view that decodes messages only when they are looked up
+     * Backends that cannot read part of their data load everything into the view
+     * @param cache keeps recently decoded pages
+     * @return the view
+     * @throws IOException if the store could not be opened
+     */
+    default PagedMessages openPaged(MessagePageCache cache) throws IOException {
+        return PagedMessages.resident(this);
+    }
+
+    /**
+     * Discards every persisted message
+     * @throws IOException if the files could not be reset
+     */
+    void reset() throws IOException;
+
+    /**
+     * Flushes pending writes and releases files
+     */
+    void close();
+
+    /**
+     * Creates a message store backend
+     * @param backend json, binary or memory
+     * @param directory where the backend keeps its files
+     * @param name file name prefix, e.g. "stored"
+     * @return the store
+     * @throws IllegalArgumentException if the backend is unknown
+     */
+    static MessageStore create(String backend, String directory, String name) {
+        switch (backend) {
+            case "json":
+                return new MessageJournal(directory + File.separator + name + "_messages.json",
+                    directory + File.separator + "journal", name);
+            case "binary":
+                try {
+                    return new BinaryMessageStore(directory + File.separator + name + "_messages.bin");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            case "memory":
+                return new InMemoryMessageStore();
+            default:
+                throw new IllegalArgumentException("Unknown storage backend: " + backend + " (use json, binary or memory)");
+        }
+    }
+}
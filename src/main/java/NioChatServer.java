@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless QuickChat server built on a single non-blocking Selector loop
+ * One thread accepts connections, reads length-prefixed frames (see
+ * ChatProtocol) and writes responses. A connection costs a key and two
+ * buffers rather than a thread, so thousands of idle or slow clients are cheap.
+ *
+ * Any request may reach the disk - registering can fsync the user journal,
+ * sending appends to a message journal and searches can decode stored pages -
+ * so requests run on a small worker pool, not the loop thread. A worker hands
+ * its response back through a queue and wakes the selector, which queues it
+ * for writing. Each connection has at most one request with the workers at a
+ * time, so its responses come back in request order; only PING is answered
+ * on the loop thread itself.
+ *
+ * A client that sends requests without reading the responses is throttled:
+ * once a connection has MAX_PENDING_WRITE_BYTES of responses queued, the
+ * server stops reading from it until the queue drains, and TCP flow control
+ * holds the client back.
+ */
+public class NioChatServer implements ChatServer {
+
+    private static final int INITIAL_READ_BUFFER_BYTES = 4096;
+
+    // Responses queued for one connection before the server stops reading its requests
+    static final int MAX_PENDING_WRITE_BYTES = 1 << 20;
+
+    private final ChatRequestHandler handler;
+
+    // Responses handed back by the workers, picked up by the loop thread
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+    private ExecutorService workers;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread loopThread;
+    private volatile boolean running;
+
+    // Counters for the load generator and the console
+    private final AtomicLong connectionsAccepted = new AtomicLong();
+    private final AtomicLong requestsHandled = new AtomicLong();
+
+    /**
+     * Creates a server that answers requests with the given handler
+     * @param handler the request handler
+     */
+    public NioChatServer(ChatRequestHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Binds to localhost and starts the event loop thread
+     * @param port the port to listen on, or 0 for any free port
+     * @return the port actually bound
+     * @throws IOException if the port cannot be bound
+     */
+    @Override
+    public int start(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "quickchat-nio-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        loopThread = new Thread(this::runLoop, "quickchat-nio");
+        loopThread.start();
+        return getPort();
+    }
+
+    /**
+     * Gets the port the server is listening on
+     * @return the bound port
+     */
+    @Override
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Waits until the server has been closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        loopThread.join();
+    }
+
+    /**
+     * Stops the event loop and closes every connection
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            try {
+                loopThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets how many client connections have been accepted
+     * @return connection count
+     */
+    @Override
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.get();
+    }
+
+    /**
+     * Gets how many requests have been answered
+     * @return request count
+     */
+    @Override
+    public long getRequestsHandled() {
+        return requestsHandled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "nio (selector event loop)";
+    }
+
+    // ==========================================
+    // EVENT LOOP
+    // ==========================================
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                handleCompletions();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // One broken client must not take the server down
+                        closeConnection(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("Chat server stopped: " + e.getMessage());
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+            connectionsAccepted.incrementAndGet();
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        int bytesRead = channel.read(connection.readBuffer);
+        if (bytesRead < 0) {
+            closeConnection(key);
+            return;
+        }
+
+        handleFrames(key, connection);
+        if (key.isValid()) {
+            write(key);
+        }
+    }
+
+    // Handles every complete frame in the read buffer until the connection is backed up
+    // or has a request with the workers; a partial frame, and any frames left, stay for later
+    private void handleFrames(SelectionKey key, Connection connection) {
+        ByteBuffer buffer = connection.readBuffer;
+        buffer.flip();
+        while (buffer.remaining() >= 4 && !connection.isBackedUp() && !connection.inFlight) {
+            int length = buffer.getInt(buffer.position());
+            if (length < 0 || length > ChatProtocol.MAX_FRAME_BYTES) {
+                closeConnection(key);
+                return;
+            }
+            if (buffer.remaining() < 4 + length) {
+                break;
+            }
+            buffer.getInt();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+
+            String[] request = ChatProtocol.decodePayload(payload);
+            if (request.length == 1 && ChatProtocol.PING.equals(request[0])) {
+                queueResponse(connection, handler.handle(connection.session, request));
+            } else {
+                connection.inFlight = true;
+                workers.execute(() -> {
+                    completions.add(new Completion(key, handler.handle(connection.session, request)));
+                    selector.wakeup();
+                });
+            }
+        }
+        if (buffer.remaining() >= 4 && 4 + buffer.getInt(buffer.position()) > buffer.capacity()) {
+            // The next frame will not fit - move what we have into a buffer that can hold all of it
+            ByteBuffer larger = ByteBuffer.allocate(4 + buffer.getInt(buffer.position()));
+            larger.put(buffer);
+            connection.readBuffer = larger;
+        } else {
+            buffer.compact();
+        }
+    }
+
+    private void queueResponse(Connection connection, String[] response) {
+        ByteBuffer frame = ChatProtocol.encodeFrame(response);
+        connection.pendingWrites.add(frame);
+        connection.pendingBytes += frame.remaining();
+        requestsHandled.incrementAndGet();
+    }
+
+    // Queues the responses the workers finished, then carries on with each connection's next request
+    private void handleCompletions() {
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            SelectionKey key = completion.key;
+            if (!key.isValid()) {
+                continue; // Closed while the request was with the workers
+            }
+            Connection connection = (Connection) key.attachment();
+            connection.inFlight = false;
+            queueResponse(connection, completion.response);
+            try {
+                handleFrames(key, connection);
+                if (key.isValid()) {
+                    write(key);
+                }
+            } catch (IOException e) {
+                closeConnection(key);
+            }
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        while (true) {
+            ByteBuffer pending;
+            while ((pending = connection.pendingWrites.peek()) != null) {
+                connection.pendingBytes -= channel.write(pending);
+                if (pending.hasRemaining()) {
+                    break; // Socket buffer full - wait for OP_WRITE
+                }
+                connection.pendingWrites.poll();
+            }
+
+            // Drained - run the requests that were left waiting while the connection was backed up
+            if (!connection.pendingWrites.isEmpty() || connection.readBuffer.position() < 4) {
+                break;
+            }
+            handleFrames(key, connection);
+            if (!key.isValid()) {
+                return;
+            }
+            if (connection.pendingWrites.isEmpty()) {
+                break; // Only a partial frame was left
+            }
+        }
+
+        int interest = 0;
+        if (!connection.isBackedUp() && connection.readBuffer.hasRemaining()) {
+            // Stop reading while the client is not taking its responses, or while a
+            // request with the workers has left no room for the next frame
+            interest = SelectionKey.OP_READ;
+        }
+        if (!connection.pendingWrites.isEmpty()) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        if (key.interestOps() != interest) {
+            key.interestOps(interest);
+        }
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private void shutdown() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing chat server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Buffers and session for one client connection
+     */
+    private static class Connection {
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_BYTES);
+        final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+        long pendingBytes;
+        final ChatSession session = new ChatSession();
+
+        // A request of this connection is with the workers
+        boolean inFlight;
+
+        boolean isBackedUp() {
+            return pendingBytes >= MAX_PENDING_WRITE_BYTES;
+        }
+    }
+
+    /**
+     * A response a worker has finished, waiting for the loop thread
+     */
+    private static class Completion {
+        final SelectionKey key;
+        final String[] response;
+
+        Completion(SelectionKey key, String[] response) {
+            this.key = key;
+            this.response = response;
+        }
+    }
+}
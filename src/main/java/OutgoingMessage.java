@@ -0,0 +1,33 @@
+/**
+ * One entry in a batch passed to Message.sendBatch
+ * Holds what the user typed before it is validated and turned into a Message
+ */
+public class OutgoingMessage {
+    private final String recipientCell;
+    private final String messageText;
+    private final String action;
+
+    /**
+     * Creates a batch entry
+     * @param recipientCell the recipient's cell phone number
+     * @param messageText the message text
+     * @param action send, store or disregard
+     */
+    public OutgoingMessage(String recipientCell, String messageText, String action) {
+        this.recipientCell = recipientCell;
+        this.messageText = messageText;
+        this.action = action;
+    }
+
+    public String getRecipientCell() {
+        return recipientCell;
+    }
+
+    public String getMessageText() {
+        return messageText;
+    }
+
+    public String getAction() {
+        return action;
+    }
+}
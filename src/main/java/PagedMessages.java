@@ -0,0 +1,95 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of the messages in a MessageStore that decodes them on demand
+ * Opened with MessageStore.openPaged when stored messages are loaded lazily.
+ * The view reflects the store as it was when opened; messages added later
+ * stay resident in Message and are never looked up here.
+ */
+public interface PagedMessages {
+
+    /**
+     * Gets how many live messages the view holds
+     * @return message count
+     * @throws IOException if the view had to read its index and could not
+     */
+    int size() throws IOException;
+
+    /**
+     * Finds a message by its ID, decoding only the page that holds it
+     * @param messageID the ID to look for
+     * @return the message, or null if it is not in the view
+     * @throws IOException if the page could not be read
+     */
+    Message findById(String messageID) throws IOException;
+
+    /**
+     * Finds every message for a recipient, decoding only the pages that hold them
+     * @param recipientCell the recipient to look for
+     * @return the messages in store order
+     * @throws IOException if a page could not be read
+     */
+    List<Message> findByRecipient(String recipientCell) throws IOException;
+
+    /**
+     * Counts the messages for a recipient without decoding them where the view allows
+     * @param recipientCell the recipient to look for
+     * @return message count for that recipient
+     * @throws IOException if the view had to read its index and could not
+     */
+    default int countByRecipient(String recipientCell) throws IOException {
+        return findByRecipient(recipientCell).size();
+    }
+
+    /**
+     * Releases any file the view holds open
+     */
+    void close();
+
+    /**
+     * Builds a view by loading every message in the store up front
+     * Used by backends that cannot read a single page on its own
+     * @param store the store to read
+     * @return a view over the loaded messages
+     * @throws IOException if the store could not be read
+     */
+    static PagedMessages resident(MessageStore store) throws IOException {
+        Map<String, Message> byId = new HashMap<>();
+        Map<String, List<Message>> byRecipient = new HashMap<>();
+        store.load(message -> {
+            byId.put(message.getMessageID(), message);
+            byRecipient.computeIfAbsent(message.getRecipientCell(), key -> new ArrayList<>()).add(message);
+        });
+
+        return new PagedMessages() {
+            @Override
+            public int size() {
+                return byId.size();
+            }
+
+            @Override
+            public Message findById(String messageID) {
+                return byId.get(messageID);
+            }
+
+            @Override
+            public List<Message> findByRecipient(String recipientCell) {
+                return Collections.unmodifiableList(byRecipient.getOrDefault(recipientCell, Collections.emptyList()));
+            }
+
+            @Override
+            public int countByRecipient(String recipientCell) {
+                return byRecipient.getOrDefault(recipientCell, Collections.emptyList()).size();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stateless cell phone number validator shared by Login and Message
+ * A number is valid when it is '+', one of the configured country codes,
+ * then exactly that code's number of subscriber digits - for the default
+ * South African rule, +27 followed by 9 digits. Characters are checked
+ * directly, so a check compiles no regex and allocates nothing.
+ *
+ * Rules are written as code:digits pairs separated by commas, e.g.
+ * "27:9,44:10". The default comes from the quickchat.phone.rules system
+ * property and falls back to "27:9".
+ */
+public final class PhoneNumberValidator {
+
+    /** The rule QuickChat has always used: +27 and 9 digits */
+    public static final String SOUTH_AFRICA = "27:9";
+
+    private static volatile PhoneNumberValidator defaultValidator =
+        parse(System.getProperty("quickchat.phone.rules", SOUTH_AFRICA));
+
+    // One entry per rule; kept as parallel arrays so isValid touches no objects
+    private final String[] countryCodes;
+    private final int[] subscriberDigits;
+
+    private PhoneNumberValidator(String[] countryCodes, int[] subscriberDigits) {
+        this.countryCodes = countryCodes;
+        this.subscriberDigits = subscriberDigits;
+    }
+
+    /**
+     * Creates a validator from a rule list such as "27:9,44:10"
+     * @param rules comma-separated country code and subscriber digit pairs
+     * @return the validator
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static PhoneNumberValidator parse(String rules) {
+        List<String> codes = new ArrayList<>();
+        List<Integer> digits = new ArrayList<>();
+        for (String rule : rules.split(",", -1)) {
+            String[] parts = rule.trim().split(":", -1);
+            if (parts.length != 2 || parts[0].isEmpty() || !isDigits(parts[0], 0, parts[0].length())) {
+                throw new IllegalArgumentException("Phone rule must look like 27:9 but was: " + rule);
+            }
+            int count;
+            try {
+                count = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Phone rule must look like 27:9 but was: " + rule);
+            }
+            if (count < 1) {
+                throw new IllegalArgumentException("Subscriber digits must be positive: " + rule);
+            }
+            codes.add(parts[0]);
+            digits.add(count);
+        }
+
+        int[] subscriberDigits = new int[digits.size()];
+        for (int i = 0; i < subscriberDigits.length; i++) {
+            subscriberDigits[i] = digits.get(i);
+        }
+        return new PhoneNumberValidator(codes.toArray(new String[0]), subscriberDigits);
+    }
+
+    /**
+     * Gets the validator Login and Message use
+     * @return the shared validator
+     */
+    public static PhoneNumberValidator getDefault() {
+        return defaultValidator;
+    }
+
+    /**
+     * Replaces the validator Login and Message use
+     * @param validator the new shared validator
+     */
+    public static void setDefault(PhoneNumberValidator validator) {
+        defaultValidator = validator;
+    }
+
+    /**
+     * Checks a cell phone number against every rule
+     * @param number the number to check
+     * @return true if some rule matches the whole number
+     */
+    public boolean isValid(String number) {
+        if (number == null || number.isEmpty() || number.charAt(0) != '+') {
+            return false;
+        }
+        for (int rule = 0; rule < countryCodes.length; rule++) {
+            String code = countryCodes[rule];
+            if (number.length() == 1 + code.length() + subscriberDigits[rule]
+                    && number.startsWith(code, 1)
+                    && isDigits(number, 1 + code.length(), number.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ASCII digits only, like [0-9] in the old regex
+    private static boolean isDigits(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rules = new StringBuilder();
+        for (int rule = 0; rule < countryCodes.length; rule++) {
+            if (rule > 0) {
+                rules.append(',');
+            }
+            rules.append(countryCodes[rule]).append(':').append(subscriberDigits[rule]);
+        }
+        return rules.toString();
+    }
+}
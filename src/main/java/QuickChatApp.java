@@ -1,4 +1,10 @@
 import javax.swing.JOptionPane;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 
 /**
  * Main application class for QuickChat
@@ -9,12 +15,34 @@ public class QuickChatApp {
     
     private static Login currentUser = null;
     
+    // Port used by --server when none is given
+    private static final int DEFAULT_SERVER_PORT = 5050;
+    
     public static void main(String[] args) {
-        // Check if console mode is requested via command line argument
+        // Storage backend: --storage json|binary|memory, before any other option
+        if (args.length > 1 && args[0].equals("--storage")) {
+            if (!useStorage(args[1])) {
+                return;
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        
+        // Console mode: --console [batchFile] [--quiet]
         if (args.length > 0 && args[0].equals("--console")) {
-            System.out.println("Starting QuickChat in console mode...");
-            System.out.println("Console mode not implemented in this version.");
-            System.out.println("Please run without arguments for GUI mode.");
+            runConsole(args);
+            return;
+        }
+        
+        // Headless server mode: --server [port] [nio|virtual|platform]
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? parsePort(args[1]) : DEFAULT_SERVER_PORT;
+            if (port < 0) {
+                System.err.println("Invalid port: " + args[1]);
+                System.err.println("Usage: --server [port] [nio|virtual|platform]");
+                return;
+            }
+            String engine = args.length > 2 ? args[2] : "nio";
+            runServer(port, engine);
             return;
         }
         
@@ -22,6 +50,115 @@ public class QuickChatApp {
         showWelcomeScreen();
     }
     
+    /**
+     * Switches users and all message lists to the given storage backend
+     * @param backend json, binary or memory
+     * @return false if the backend is unknown, after printing the usage line
+     */
+    private static boolean useStorage(String backend) {
+        try {
+            Login.useStorage(UserStore.create(backend, "data"));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --storage json|binary|memory [--console ...|--server ...]");
+            return false;
+        }
+        Message.useStorage(backend, "data");
+        System.out.println("Using " + backend + " storage");
+        return true;
+    }
+    
+    /**
+     * Prints how long the JVM took to reach the first menu or prompt
+     * Only when run with -Dquickchat.startupTiming=true; set -Dquickchat.lazyLoad=true
+     * as well to compare against lazy loading of stored messages
+     */
+    private static void reportTimeToFirstMenu() {
+        if (!Boolean.getBoolean("quickchat.startupTiming")) {
+            return;
+        }
+        String load = Message.getLastLoadStats() != null ? " - " + Message.getLastLoadStats() : "";
+        System.err.println("Time to first menu: " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms"
+            + (Message.isLazyLoading() ? " (lazy)" : "") + load);
+    }
+    
+    /**
+     * Runs QuickChat from the console, reading commands from stdin or a batch file
+     * @param args the command line: --console [batchFile] [--quiet]
+     */
+    private static void runConsole(String[] args) {
+        String batchFile = null;
+        boolean quiet = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else {
+                batchFile = args[i];
+            }
+        }
+        
+        Login.getTotalRegisteredUsers();
+        Message.openStoredMessages();
+        
+        ConsoleChat console = new ConsoleChat(new ChatRequestHandler(), System.out, quiet);
+        try (BufferedReader in = batchFile != null
+                ? new BufferedReader(new FileReader(batchFile))
+                : new BufferedReader(new InputStreamReader(System.in))) {
+            if (batchFile == null && !quiet) {
+                System.out.println("QuickChat console - type help for commands, quit to exit.");
+            }
+            reportTimeToFirstMenu();
+            console.run(in, batchFile == null && System.console() != null);
+        } catch (IOException e) {
+            System.err.println("Error reading commands: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Parses a --server port
+     * @param value the port as typed
+     * @return the port, or -1 if it is not a number from 0 to 65535
+     */
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            return port >= 0 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Runs QuickChat headless as a network server until the process is stopped
+     * @param port the localhost port to listen on
+     * @param engine the server engine: nio, virtual or platform
+     */
+    private static void runServer(int port, String engine) {
+        // Warm the user and message stores before accepting connections
+        Login.getTotalRegisteredUsers();
+        Message.openStoredMessages();
+        
+        ChatServer server;
+        try {
+            server = ChatServer.create(engine, new ChatRequestHandler());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        try {
+            int boundPort = server.start(port);
+            System.out.println("QuickChat server (" + engine + ") listening on 127.0.0.1:" + boundPort);
+            reportTimeToFirstMenu();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.awaitTermination();
+        } catch (IOException e) {
+            System.err.println("Could not start server: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.close();
+        }
+    }
+    
     /**
      * Shows the welcome screen and handles authentication
      */
@@ -32,6 +169,7 @@ public class QuickChatApp {
         if (userCount > 0) {
             welcomeMessage += "\n\n" + userCount + " user(s) already registered.";
         }
+        reportTimeToFirstMenu();
         
         JOptionPane.showMessageDialog(null, 
             welcomeMessage, 
@@ -0,0 +1,15 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The original ID scheme: 10 random digits
+ * Uses ThreadLocalRandom instead of a new Random per call, but nothing stops
+ * two messages drawing the same ID - with a million messages a collision is
+ * more likely than not. Kept for comparison in the benchmark.
+ */
+public class RandomMessageIdGenerator implements MessageIdGenerator {
+
+    @Override
+    public String nextId() {
+        return MessageIdGenerator.formatId(ThreadLocalRandom.current().nextLong(SequenceMessageIdGenerator.ID_SPACE));
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Collision-free message IDs from a scrambled sequence
+ * A shared counter is multiplied by a constant coprime to 10^10 and reduced
+ * mod 10^10. That maps the counter one-to-one onto every 10-digit number, so
+ * no two IDs in a run can be equal until all 10 billion have been handed out,
+ * while consecutive IDs still look random (their first two digits, which go
+ * into the message hash, vary from message to message).
+ *
+ * Given a counter file, the generator carries on across runs from where the
+ * last one stopped. Counter values are reserved a block at a time by writing
+ * the end of the block to the file before any ID in it is handed out, so a
+ * crash can skip IDs but never repeat one that may already be on disk.
+ * Once half a block is used the next one is reserved in the background, so
+ * callers only wait on the file for the first block or when the background
+ * write falls behind. If the file cannot be written, nextId throws rather
+ * than hand out an ID that was never reserved.
+ * Without a file the counter starts at a random point. An optional
+ * reservation check skips IDs that are already taken - Message uses it for
+ * messages that came from somewhere the counter does not cover.
+ */
+public class SequenceMessageIdGenerator implements MessageIdGenerator {
+
+    // Number of distinct 10-digit IDs
+    static final long ID_SPACE = 10_000_000_000L;
+
+    // Counter values reserved per write of the counter file
+    static final long RESERVED_BLOCK = 100_000;
+
+    // Odd and not a multiple of 5, so coprime to 10^10; small enough that
+    // counter * MULTIPLIER never overflows a long
+    private static final long MULTIPLIER = 918_273_647L;
+
+    // Single background worker shared by every generator, so message creation never waits on the next block
+    private static final ExecutorService RESERVER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-id-reserver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong counter;
+    private final Predicate<String> inUse;
+
+    // Where the reserved counter values are recorded, or null when nothing is persisted
+    private final File counterFile;
+    private volatile long reservedUpTo;
+    private final AtomicBoolean reservingAhead = new AtomicBoolean();
+
+    /**
+     * Creates a generator starting at a random point with no reservation check
+     */
+    public SequenceMessageIdGenerator() {
+        this(ThreadLocalRandom.current().nextLong(ID_SPACE), id -> false);
+    }
+
+    /**
+     * Creates a generator
+     * @param start where the sequence starts
+     * @param inUse returns true for IDs that must not be handed out again
+     */
+    public SequenceMessageIdGenerator(long start, Predicate<String> inUse) {
+        this.counter = new AtomicLong(Math.floorMod(start, ID_SPACE));
+        this.inUse = inUse;
+        this.counterFile = null;
+        this.reservedUpTo = Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a generator that continues the sequence saved in a counter file
+     * A missing or unreadable file starts the sequence at a random point.
+     * @param counterFile where the sequence is saved between runs
+     * @param inUse returns true for IDs that must not be handed out again
+     */
+    public SequenceMessageIdGenerator(File counterFile, Predicate<String> inUse) {
+        long start = readCounter(counterFile);
+        this.counter = new AtomicLong(start);
+        this.inUse = inUse;
+        this.counterFile = counterFile;
+        this.reservedUpTo = start; // Nothing is reserved until the first ID
+    }
+
+    @Override
+    public String nextId() {
+        for (long attempt = 0; attempt < ID_SPACE; attempt++) {
+            long next = counter.getAndIncrement();
+            long reserved = reservedUpTo;
+            if (next >= reserved) {
+                reserve(next);
+            } else if (next >= reserved - RESERVED_BLOCK / 2) {
+                reserveAhead();
+            }
+            String id = MessageIdGenerator.formatId(Math.floorMod(next, ID_SPACE) * MULTIPLIER % ID_SPACE);
+            if (!inUse.test(id)) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("Every 10-digit message ID is in use");
+    }
+
+    // Extends the reservation to cover a counter value; callers past the end wait here
+    private synchronized void reserve(long next) {
+        while (next >= reservedUpTo) {
+            long end = reservedUpTo + RESERVED_BLOCK;
+            try {
+                writeCounter(end);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not reserve message IDs", e);
+            }
+            reservedUpTo = end;
+        }
+    }
+
+    // Reserves the next block on the background worker, once per block
+    private void reserveAhead() {
+        if (!reservingAhead.compareAndSet(false, true)) {
+            return;
+        }
+        RESERVER.execute(() -> {
+            try {
+                synchronized (this) {
+                    if (counter.get() >= reservedUpTo - RESERVED_BLOCK / 2) {
+                        long end = reservedUpTo + RESERVED_BLOCK;
+                        writeCounter(end);
+                        reservedUpTo = end;
+                    }
+                }
+            } catch (IOException e) {
+                // The caller that reaches the end of the block retries and reports it
+                System.err.println("Error saving message ID counter: " + e.getMessage());
+            } finally {
+                reservingAhead.set(false);
+            }
+        });
+    }
+
+    /**
+     * Waits for a background reservation to finish
+     * For tests that read the counter file.
+     */
+    void awaitReservation() {
+        try {
+            RESERVER.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Error waiting for message ID reservation: " + e.getMessage());
+        }
+    }
+
+    private static long readCounter(File counterFile) {
+        if (counterFile.exists()) {
+            try {
+                String saved = new String(Files.readAllBytes(counterFile.toPath()), StandardCharsets.UTF_8).trim();
+                return Long.parseLong(saved);
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Error reading message ID counter: " + e.getMessage());
+            }
+        }
+        return ThreadLocalRandom.current().nextLong(ID_SPACE);
+    }
+
+    // Writes and syncs a temporary file, then renames it over the counter file
+    private void writeCounter(long value) throws IOException {
+        File dataDir = counterFile.getAbsoluteFile().getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+
+        File tempFile = new File(counterFile.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((value + "\n").getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(tempFile.toPath(), counterFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe collection of messages ordered by when they were created
+ * Messages are kept in a skip list keyed by their creation sequence number,
+ * so adds and removals are O(log n), size() and getTotalCharacters() are
+ * O(1) running counters, and iteration never
+ * throws ConcurrentModificationException (it is weakly consistent, like the
+ * java.util.concurrent collections).
+ *
+ * Each entry records the text length it was counted with, so a message whose
+ * text is changed while it is in the collection still takes away exactly what
+ * it added when it is removed.
+ */
+public class SequencedMessages extends AbstractCollection<Message> {
+
+    private final ConcurrentSkipListMap<Long, Entry> messagesBySequence = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong characters = new AtomicLong();
+
+    // Array copy behind get(int): appends in sequence order extend it in place,
+    // anything else drops it to be taken again on the next get. Changed only under snapshotLock.
+    private final Object snapshotLock = new Object();
+    private volatile Snapshot snapshot;
+
+    // Set while a copy is being taken. A writer checks it after changing the map and
+    // before reading snapshot, so it either changed the map before the copy started
+    // or sees the published copy and updates it under the lock.
+    private volatile boolean copying;
+
+    @Override
+    public boolean add(Message message) {
+        Entry entry = new Entry(message);
+        if (messagesBySequence.putIfAbsent(message.getSequence(), entry) == null) {
+            size.incrementAndGet();
+            characters.addAndGet(entry.length);
+            appended(message);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Message)) {
+            return false;
+        }
+        Message message = (Message) o;
+        Entry entry = messagesBySequence.get(message.getSequence());
+        if (entry != null && entry.message == message && messagesBySequence.remove(message.getSequence(), entry)) {
+            size.decrementAndGet();
+            characters.addAndGet(-entry.length);
+            invalidateSnapshot();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Message)) {
+            return false;
+        }
+        Message message = (Message) o;
+        Entry entry = messagesBySequence.get(message.getSequence());
+        return entry != null && entry.message == message;
+    }
+
+    /**
+     * Gets the combined length of every message text, kept up to date on add and remove
+     * @return total characters
+     */
+    public long getTotalCharacters() {
+        return characters.get();
+    }
+
+    // A message and the text length it was counted with when it was added
+    private static final class Entry {
+        final Message message;
+        final int length;
+
+        Entry(Message message) {
+            this.message = message;
+            this.length = message.getMessageText() == null ? 0 : message.getMessageText().length();
+        }
+    }
+
+    /**
+     * Gets the message at a position in creation order
+     * The first indexed access after a removal copies the messages into an
+     * array. New messages are appended to that copy as they are added, so
+     * indexed reads stay O(1) while sends carry on and an indexed loop is
+     * linear overall; only a removal, or a message older than the newest
+     * one, makes the next call copy again.
+     * @param index position, 0 for the oldest message
+     * @return the message
+     * @throws IndexOutOfBoundsException if index is outside the collection
+     */
+    public Message get(int index) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = takeSnapshot();
+        }
+        int count = current.count;
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return current.messages[index];
+    }
+
+    private Snapshot takeSnapshot() {
+        synchronized (snapshotLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                copying = true;
+                try {
+                    List<Message> messages = new ArrayList<>(size());
+                    long lastSequence = Long.MIN_VALUE;
+                    for (Map.Entry<Long, Entry> entry : messagesBySequence.entrySet()) {
+                        messages.add(entry.getValue().message);
+                        lastSequence = entry.getKey();
+                    }
+                    Message[] array = messages.toArray(new Message[Math.max(16, messages.size() * 2)]);
+                    current = new Snapshot(array, messages.size(), lastSequence);
+                    snapshot = current;
+                } finally {
+                    copying = false;
+                }
+            }
+            return current;
+        }
+    }
+
+    // A message added after everything in the copy goes on its end; an older one
+    // (or one the copy already picked up from the map) means the copy is taken again
+    private void appended(Message message) {
+        if (!copying && snapshot == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            long sequence = message.getSequence();
+            if (sequence <= current.lastSequence) {
+                snapshot = null;
+                return;
+            }
+            if (current.count == current.messages.length) {
+                current = new Snapshot(Arrays.copyOf(current.messages, current.count * 2),
+                    current.count, current.lastSequence);
+                snapshot = current;
+            }
+            current.messages[current.count] = message;
+            current.lastSequence = sequence;
+            current.count++; // Volatile write - readers that see the new count see the message
+        }
+    }
+
+    private void invalidateSnapshot() {
+        if (!copying && snapshot == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            snapshot = null; // Let removed messages be collected
+        }
+    }
+
+    private static final class Snapshot {
+        final Message[] messages;
+        volatile int count;
+        long lastSequence; // Guarded by snapshotLock
+
+        Snapshot(Message[] messages, int count, long lastSequence) {
+            this.messages = messages;
+            this.count = count;
+            this.lastSequence = lastSequence;
+        }
+    }
+
+    /**
+     * Gets the message that was created first
+     * @return the oldest message, or null if empty
+     */
+    public Message first() {
+        Map.Entry<Long, Entry> entry = messagesBySequence.firstEntry();
+        return entry == null ? null : entry.getValue().message;
+    }
+
+    @Override
+    public Iterator<Message> iterator() {
+        Iterator<Entry> iterator = messagesBySequence.values().iterator();
+        return new Iterator<Message>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Message next() {
+                return iterator.next().message;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return messagesBySequence.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        for (Entry entry : messagesBySequence.values()) {
+            remove(entry.message);
+        }
+    }
+}
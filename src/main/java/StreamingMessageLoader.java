@@ -0,0 +1,274 @@
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader and writer for the stored messages JSON file
+ * Decodes one message at a time with Gson's JsonReader instead of building
+ * the whole List first, so peak heap no longer holds the dataset twice
+ */
+public class StreamingMessageLoader {
+
+    /**
+     * Statistics for a single load
+     */
+    public static class LoadStats {
+        private final long messagesRead;
+        private final long messagesKept;
+        private final long elapsedNanos;
+
+        public LoadStats(long messagesRead, long messagesKept, long elapsedNanos) {
+            this.messagesRead = messagesRead;
+            this.messagesKept = messagesKept;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getMessagesRead() { return messagesRead; }
+        public long getMessagesKept() { return messagesKept; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Gets the load throughput
+         * @return messages decoded per second
+         */
+        public double getMessagesPerSecond() {
+            if (elapsedNanos <= 0) {
+                return 0;
+            }
+            return messagesRead * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %d messages (%d kept) in %.1f ms - %.0f messages/sec",
+                messagesRead, messagesKept, elapsedNanos / 1_000_000.0, getMessagesPerSecond());
+        }
+    }
+
+    /**
+     * Streams every message in a JSON array file to the consumer
+     * @param file the JSON file to read
+     * @param consumer receives each decoded message
+     * @return number of messages read
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public static long read(File file, Consumer<Message> consumer) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+
+        long count = 0;
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(in)) {
+            if (reader.peek() == JsonToken.NULL) {
+                return 0;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Message message = readMessage(reader);
+                if (message != null) {
+                    consumer.accept(message);
+                    count++;
+                }
+            }
+            reader.endArray();
+        }
+        return count;
+    }
+
+    /**
+     * Decodes one page of messages from a slice of a JSON array file
+     * The slice starts anywhere before the page's first object (the separator
+     * left by the previous page is skipped) and runs at least to its last one
+     *
+     * @param bytes the UTF-8 bytes of the page
+     * @param count number of messages on the page
+     * @return the decoded messages
+     * @throws IOException if the slice is malformed
+     */
+    public static List<Message> readPage(byte[] bytes, int count) throws IOException {
+        int start = 0;
+        while (start < bytes.length && bytes[start] != '{') {
+            start++;
+        }
+
+        // Re-open the array in front of the first object so JsonReader accepts the slice
+        List<Message> page = new ArrayList<>(count);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new SequenceInputStream(
+                new ByteArrayInputStream(new byte[] {'['}),
+                new ByteArrayInputStream(bytes, start, bytes.length - start)), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (page.size() < count && reader.hasNext()) {
+                Message message = readMessage(reader);
+                if (message != null) {
+                    page.add(message);
+                }
+            }
+        }
+        if (page.size() < count) {
+            throw new IOException("Page holds " + page.size() + " messages, expected " + count);
+        }
+        return page;
+    }
+
+    /**
+     * Streams messages from an in-memory source into a pretty-printed JSON array
+     * The file is written in the same layout Gson's pretty printer produces
+     *
+     * @param file the JSON file to write
+     * @param source pushes each message to write into the given consumer
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, Consumer<Consumer<Message>> source) throws IOException {
+        write(file, source, null);
+    }
+
+    /**
+     * Streams messages into a pretty-printed JSON array and fills in a page index
+     * The writer is flushed at every page boundary so the index can record the
+     * exact byte offset each page starts at
+     *
+     * @param file the JSON file to write
+     * @param source pushes each message to write into the given consumer
+     * @param pages receives page offsets and message keys, or null for no index
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, Consumer<Consumer<Message>> source, MessagePageIndex pages) throws IOException {
+        try (CountingOutputStream counted = new CountingOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(file.toPath())));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(counted, StandardCharsets.UTF_8));
+             JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.beginArray();
+
+            IOException[] failure = new IOException[1];
+            source.accept(message -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    if (pages != null) {
+                        if (pages.isAtPageStart()) {
+                            writer.flush();
+                            pages.startPage(counted.getCount());
+                        }
+                        pages.add(message);
+                    }
+                    writeMessage(writer, message);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            writer.endArray();
+        }
+    }
+
+    private static Message readMessage(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        String messageID = null;
+        String recipientCell = null;
+        String messageText = null;
+        String messageHash = null;
+        int messageNumber = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "messageID":
+                    messageID = reader.nextString();
+                    break;
+                case "recipientCell":
+                    recipientCell = reader.nextString();
+                    break;
+                case "messageText":
+                    messageText = reader.nextString();
+                    break;
+                case "messageHash":
+                    messageHash = reader.nextString();
+                    break;
+                case "messageNumber":
+                    messageNumber = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return Message.restore(messageID, recipientCell, messageText, messageHash, messageNumber);
+    }
+
+    private static void writeMessage(JsonWriter writer, Message message) throws IOException {
+        writer.beginObject();
+        writeField(writer, "messageID", message.getMessageID());
+        writeField(writer, "recipientCell", message.getRecipientCell());
+        writeField(writer, "messageText", message.getMessageText());
+        writeField(writer, "messageHash", message.getMessageHash());
+        writer.name("messageNumber").value(message.getMessageNumber());
+        writer.endObject();
+    }
+
+    private static void writeField(JsonWriter writer, String name, String value) throws IOException {
+        // Gson leaves null fields out by default, so do the same here
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    /**
+     * Counts the bytes that reach the file so page offsets can be recorded
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
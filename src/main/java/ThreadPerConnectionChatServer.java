@@ -0,0 +1,200 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * QuickChat server that gives every connection its own thread
+ * Each connection runs plain blocking code: read a frame, call the
+ * ChatRequestHandler, write the response. With virtual threads a blocked
+ * connection costs a few kilobytes of heap, so this scales like the NIO
+ * engine while reading like the GUI code. With a fixed pool of platform
+ * threads, connections beyond the pool size wait until a thread frees up.
+ */
+public class ThreadPerConnectionChatServer implements ChatServer {
+
+    // Pool size used by the "platform" engine
+    public static final int DEFAULT_PLATFORM_THREADS = 200;
+
+    private final ChatRequestHandler handler;
+    private final String engineName;
+    private final Supplier<ExecutorService> executorFactory;
+
+    private ServerSocket serverSocket;
+    private ExecutorService connectionExecutor;
+    private Thread acceptorThread;
+    private volatile boolean running;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong connectionsAccepted = new AtomicLong();
+    private final AtomicLong requestsHandled = new AtomicLong();
+
+    private ThreadPerConnectionChatServer(ChatRequestHandler handler, String engineName,
+                                          Supplier<ExecutorService> executorFactory) {
+        this.handler = handler;
+        this.engineName = engineName;
+        this.executorFactory = executorFactory;
+    }
+
+    /**
+     * Creates a server that runs each connection on a virtual thread
+     * Falls back to one platform thread per connection before Java 21
+     * @param handler the request handler
+     * @return the server, not yet started
+     */
+    public static ThreadPerConnectionChatServer withVirtualThreads(ChatRequestHandler handler) {
+        String name = VirtualThreads.isAvailable() ? "virtual" : "virtual (platform fallback)";
+        return new ThreadPerConnectionChatServer(handler, name,
+            () -> VirtualThreads.newThreadPerTaskExecutor("quickchat-conn"));
+    }
+
+    /**
+     * Creates a server that runs connections on a fixed pool of platform threads
+     * @param handler the request handler
+     * @param threads the pool size
+     * @return the server, not yet started
+     */
+    public static ThreadPerConnectionChatServer withPlatformThreads(ChatRequestHandler handler, int threads) {
+        return new ThreadPerConnectionChatServer(handler, "platform x" + threads, () -> {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "quickchat-conn-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+
+    @Override
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        connectionExecutor = executorFactory.get();
+
+        running = true;
+        acceptorThread = new Thread(this::acceptLoop, "quickchat-acceptor");
+        acceptorThread.start();
+        return getPort();
+    }
+
+    @Override
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        acceptorThread.join();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing chat server: " + e.getMessage());
+        }
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        if (connectionExecutor != null) {
+            connectionExecutor.shutdownNow();
+        }
+        if (acceptorThread != null && acceptorThread != Thread.currentThread()) {
+            try {
+                acceptorThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.get();
+    }
+
+    @Override
+    public long getRequestsHandled() {
+        return requestsHandled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "thread-per-connection (" + engineName + ")";
+    }
+
+    // ==========================================
+    // CONNECTION HANDLING
+    // ==========================================
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                openSockets.add(socket);
+                connectionsAccepted.incrementAndGet();
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        ChatSession session = new ChatSession();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (running) {
+                int length = in.readInt();
+                if (length < 0 || length > ChatProtocol.MAX_FRAME_BYTES) {
+                    return;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+
+                String[] response = handler.handle(session, ChatProtocol.decodePayload(payload));
+                requestsHandled.incrementAndGet();
+                ByteBuffer frame = ChatProtocol.encodeFrame(response);
+                out.write(frame.array(), frame.arrayOffset(), frame.remaining());
+                out.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            System.err.println("Connection error: " + e.getMessage());
+        } finally {
+            openSockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+}
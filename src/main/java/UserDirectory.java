@@ -0,0 +1,190 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory directory of registered users for QuickChat
+ * Indexes users by username and by cell phone number so lookups are O(1)
+ * instead of a scan over every registered account.
+ *
+ * Safe for concurrent use. Lookups take no lock at all. Registration is an
+ * atomic putIfAbsent on the username index, so two threads registering the
+ * same username can never both succeed. A reload builds the new indexes off
+ * to the side and swaps them in with one write, so readers never see a
+ * half-loaded or empty directory, and carries over every user added since
+ * the last load, so a registration racing a reload is never dropped.
+ */
+public class UserDirectory {
+
+    /**
+     * One generation of the directory's indexes
+     */
+    private static class Indexes {
+        // Primary index - ConcurrentHashMap locks per bin, so registrations of different names don't contend
+        final Map<String, Login> usersByUsername = new ConcurrentHashMap<>();
+
+        // Secondary index - first user registered with a given cell number wins
+        final Map<String, Login> usersByCellPhoneNumber = new ConcurrentHashMap<>();
+
+        // Registration order so the JSON file stays stable
+        final Queue<Login> usersInOrder = new ConcurrentLinkedQueue<>();
+
+        // How many of usersInOrder came from the load - everything after them was added
+        int loadedCount;
+
+        boolean add(Login user) {
+            if (usersByUsername.putIfAbsent(user.getUsername(), user) != null) {
+                return false;
+            }
+            if (user.getCellPhoneNumber() != null) {
+                usersByCellPhoneNumber.putIfAbsent(user.getCellPhoneNumber(), user);
+            }
+            usersInOrder.add(user);
+            return true;
+        }
+    }
+
+    private volatile Indexes indexes = new Indexes();
+
+    // Adds share the read side and swaps take the write side, so while a swap holds
+    // it no add is half done: every add has either reached the old generation,
+    // where reload can still see it, or will run against the new one
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a user to the directory
+     * @param user the user to add
+     * @return true if added, false if the username is already taken
+     */
+    public boolean add(Login user) {
+        if (user == null || user.getUsername() == null) {
+            return false;
+        }
+
+        swapLock.readLock().lock();
+        try {
+            return indexes.add(user);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the directory contents with the given users
+     * Users added earlier are dropped - stores reloading from disk use reload
+     * Lookups keep seeing the old users until the new ones are all in place
+     * @param users the users to load
+     */
+    public void replaceAll(Collection<Login> users) {
+        swap(load(users));
+    }
+
+    /**
+     * Replaces the loaded users but keeps users added since the last load
+     * Every user that reached the directory through add() and is not in the
+     * new users is carried over, so a registration that raced the reload -
+     * added before the caller read its users but not yet written where the
+     * caller reads them - is never lost. Lookups see the old users until the
+     * new ones are all in place.
+     * @param users the users to load
+     */
+    public void reload(Collection<Login> users) {
+        Indexes replacement = load(users);
+        swapLock.writeLock().lock();
+        try {
+            Indexes previous = indexes;
+            Iterator<Login> added = previous.usersInOrder.iterator();
+            for (int i = 0; i < previous.loadedCount && added.hasNext(); i++) {
+                added.next();
+            }
+            while (added.hasNext()) {
+                replacement.add(added.next()); // Already loaded under the same username - the load wins
+            }
+            indexes = replacement;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a user by username
+     * @param username the username to look up
+     * @return the user, or null if not registered
+     */
+    public Login findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        return indexes.usersByUsername.get(username);
+    }
+
+    /**
+     * Finds a user by cell phone number
+     * @param cellPhoneNumber the cell number to look up
+     * @return the first user registered with that number, or null
+     */
+    public Login findByCellPhoneNumber(String cellPhoneNumber) {
+        if (cellPhoneNumber == null) {
+            return null;
+        }
+        return indexes.usersByCellPhoneNumber.get(cellPhoneNumber);
+    }
+
+    /**
+     * Checks if a username is already registered
+     * @param username the username to check
+     * @return true if the username exists
+     */
+    public boolean containsUsername(String username) {
+        return username != null && indexes.usersByUsername.containsKey(username);
+    }
+
+    /**
+     * Gets all users in registration order
+     * @return read-only view of the registered users
+     */
+    public Collection<Login> getUsers() {
+        return Collections.unmodifiableCollection(indexes.usersInOrder);
+    }
+
+    /**
+     * Gets the number of registered users
+     * @return user count
+     */
+    public int size() {
+        return indexes.usersByUsername.size();
+    }
+
+    /**
+     * Removes all users from the directory
+     */
+    public void clear() {
+        swap(new Indexes());
+    }
+
+    private static Indexes load(Collection<Login> users) {
+        Indexes loaded = new Indexes();
+        for (Login user : users) {
+            if (user != null && user.getUsername() != null) {
+                loaded.add(user);
+            }
+        }
+        loaded.loadedCount = loaded.usersInOrder.size();
+        return loaded;
+    }
+
+    private void swap(Indexes replacement) {
+        swapLock.writeLock().lock();
+        try {
+            indexes = replacement;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+}
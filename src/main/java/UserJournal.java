@@ -0,0 +1,296 @@
+import com.google.gson.Gson;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Append-only write-ahead log of user registrations
+ * Each registration is written as a single JSON line so registering a user
+ * costs the same no matter how many users already exist. Records are forced
+ * to disk in batches rather than one fsync per registration; a background
+ * flusher syncs a batch that stops short of the batch size once its oldest
+ * record reaches the sync interval.
+ */
+public class UserJournal {
+
+    // Force to disk after this many unsynced records...
+    private static final int SYNC_BATCH_SIZE = 32;
+
+    // ...or once the oldest unsynced record is this old
+    private static final long SYNC_INTERVAL_MS = 200;
+
+    private static final Gson GSON = new Gson();
+
+    // Shared by every journal - a sync is one short fsync, so one thread is enough
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-journal-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private FileChannel channel;
+    private int recordCount;
+    private int unsyncedRecords;
+    private long firstUnsyncedAt;
+
+    // Torn record left by a crash, cut off before the next append (-1 = none)
+    private long tornTailAt = -1;
+    private long tornTailFileLength;
+
+    /**
+     * Creates a journal for the given log file
+     * @param filePath path of the log file
+     */
+    public UserJournal(String filePath) {
+        this.file = new File(filePath);
+    }
+
+    /**
+     * Appends a registration record to the log
+     * @param user the registered user
+     * @throws IOException if the record could not be written
+     */
+    public synchronized void append(Login user) throws IOException {
+        byte[] record = (GSON.toJson(user) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+
+        FileChannel out = openChannel();
+        dropTornTail(out);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        recordCount++;
+
+        if (unsyncedRecords == 0) {
+            firstUnsyncedAt = System.currentTimeMillis();
+            FLUSHER.schedule(this::syncIfDue, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        unsyncedRecords++;
+        if (unsyncedRecords >= SYNC_BATCH_SIZE
+                || System.currentTimeMillis() - firstUnsyncedAt >= SYNC_INTERVAL_MS) {
+            sync();
+        }
+    }
+
+    /**
+     * Replays every complete record from the given byte offset
+     * A torn record at the end of the log (from a crash mid-write) is ignored
+     * and cut off before the next append, so new records never join onto it
+     *
+     * @param offset byte offset to start reading from
+     * @param consumer receives each replayed user
+     * @return offset just past the last complete record
+     * @throws IOException if the log could not be read
+     */
+    public synchronized long replay(long offset, Consumer<Login> consumer) throws IOException {
+        if (offset == 0) {
+            recordCount = 0;
+        }
+        if (!file.exists()) {
+            return offset;
+        }
+
+        long position = offset;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            long skipped = 0;
+            while (skipped < offset) {
+                long step = in.skip(offset - skipped);
+                if (step <= 0) {
+                    return skipped;
+                }
+                skipped += step;
+            }
+
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+
+                position += line.size() + 1;
+                String json = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+                line.reset();
+                if (json.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    Login user = GSON.fromJson(json, Login.class);
+                    if (user != null) {
+                        consumer.accept(user);
+                        recordCount++;
+                    }
+                } catch (Exception e) {
+                    System.err.println("Skipping corrupt user journal record: " + e.getMessage());
+                }
+            }
+
+            if (line.size() > 0) {
+                tornTailAt = position;
+                tornTailFileLength = position + line.size();
+            } else {
+                tornTailAt = -1;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Forces any buffered records to disk
+     */
+    public synchronized void sync() {
+        if (channel == null || unsyncedRecords == 0) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error syncing user journal: " + e.getMessage());
+        }
+        unsyncedRecords = 0;
+    }
+
+    // Runs on the flusher; a batch started after the one that scheduled this is left to its own task
+    private synchronized void syncIfDue() {
+        if (unsyncedRecords > 0 && System.currentTimeMillis() - firstUnsyncedAt >= SYNC_INTERVAL_MS) {
+            sync();
+        }
+    }
+
+    /**
+     * Discards the records before a byte offset, used once they are captured
+     * in a snapshot that was written while registrations carried on
+     * The records from the offset on are copied to a fresh log that replaces
+     * this one in a single rename, so a crash leaves either log intact
+     * @param offset byte offset of the first record to keep
+     * @throws IOException if the log could not be rewritten
+     */
+    public synchronized void discardBefore(long offset) throws IOException {
+        long length = file.exists() ? file.length() : 0;
+        if (offset >= length) {
+            truncate();
+            return;
+        }
+        if (offset <= 0) {
+            return;
+        }
+
+        byte[] tail = new byte[(int) (length - offset)];
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(tail);
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer, offset + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(tail);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.move(tempFile.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        recordCount = 0;
+        for (byte b : tail) {
+            if (b == '\n') {
+                recordCount++;
+            }
+        }
+        if (tornTailAt >= offset) {
+            tornTailAt -= offset;
+            tornTailFileLength -= offset;
+        } else {
+            tornTailAt = -1;
+        }
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Discards every record, used once they are captured in a snapshot
+     * @throws IOException if the log could not be truncated
+     */
+    public synchronized void truncate() throws IOException {
+        openChannel().truncate(0);
+        channel.force(true);
+        tornTailAt = -1;
+        recordCount = 0;
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Syncs and closes the log file
+     */
+    public synchronized void close() {
+        sync();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing user journal: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Gets the number of records currently in the log
+     * @return record count
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the log file
+     * @return the log file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    // Only cuts if the log is still the length replay saw - if another writer has
+    // appended since, the partial line was theirs and is now complete
+    private void dropTornTail(FileChannel out) throws IOException {
+        if (tornTailAt < 0) {
+            return;
+        }
+        if (out.size() == tornTailFileLength) {
+            out.truncate(tornTailAt);
+        }
+        tornTailAt = -1;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
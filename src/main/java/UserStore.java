@@ -0,0 +1,63 @@
+import java.io.File;
+
+/**
+ * Where QuickChat persists registered users between runs
+ * Every backend keeps the users resident in a UserDirectory for lookups and
+ * decides itself how registrations reach the disk. Backends are picked at
+ * startup with Login.useStorage or the quickchat.storage system property.
+ *
+ * Backends:
+ *   json   - Gson snapshot plus registration log (JsonUserStore), the default
+ *   binary - compact length-prefixed records (BinaryUserStore)
+ *   memory - nothing reaches the disk (InMemoryUserStore)
+ */
+public interface UserStore {
+
+    /**
+     * Gets the directory holding the resident users
+     * @return the user directory
+     */
+    UserDirectory getDirectory();
+
+    /**
+     * Makes sure the resident users are loaded and up to date
+     */
+    void refresh();
+
+    /**
+     * Adds a newly registered user and persists it
+     * @param user the user to register
+     * @return true if registered, false if the username is already taken
+     */
+    boolean register(Login user);
+
+    /**
+     * Persists every resident user, replacing what was on disk
+     */
+    void save();
+
+    /**
+     * Flushes pending writes and releases files
+     */
+    void close();
+
+    /**
+     * Creates a user store backend
+     * @param backend json, binary or memory
+     * @param directory where the backend keeps its files
+     * @return the store
+     * @throws IllegalArgumentException if the backend is unknown
+     */
+    static UserStore create(String backend, String directory) {
+        switch (backend) {
+            case "json":
+                return new JsonUserStore(directory + File.separator + "users.json");
+            case "binary":
+                return new BinaryUserStore(directory + File.separator + "users.bin");
+            case "memory":
+                return new InMemoryUserStore();
+            default:
+                throw new IllegalArgumentException("Unknown storage backend: " + backend + " (use json, binary or memory)");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit and stress tests for ConcurrentMessageStore
+ * Hammers send, store, delete and search from many threads at once
+ */
+public class ConcurrentMessageStoreTest {
+
+    private static final int THREADS = 8;
+    private static final int MESSAGES_PER_THREAD = 500;
+
+    private ConcurrentMessageStore store;
+
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setUp() {
+        Message.useStorage("json", storageDir.toString());
+        store = new ConcurrentMessageStore();
+        Message.clearAllMessages();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Message.clearAllMessages();
+        Message.useStorage("memory", null);
+    }
+
+    @Test
+    @DisplayName("Messages are added once and removed once")
+    void testAddAndRemove() {
+        Message message = new Message("+27838968976", "Hello there", 0);
+
+        assertTrue(store.add(message, MessageStatus.SENT));
+        assertFalse(store.add(message, MessageStatus.STORED), "A message can only be in one list");
+        assertEquals(MessageStatus.SENT, message.getStatus());
+        assertEquals(1, store.count(MessageStatus.SENT));
+        assertEquals(0, store.count(MessageStatus.STORED));
+
+        assertSame(message, store.removeFirstByHash(message.getMessageHash()));
+        assertNull(store.removeFirstByHash(message.getMessageHash()));
+        assertFalse(store.remove(message));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent deletes of one hash remove each message exactly once")
+    void testConcurrentDeleteSameHash() throws Exception {
+        int copies = 200;
+        for (int i = 0; i < copies; i++) {
+            store.add(Message.restore(String.format("%010d", i), "+27838968976", "Same text", "00:0:SAMETEXT", 0),
+                MessageStatus.SENT);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger deleted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (store.removeFirstByHash("00:0:SAMETEXT") != null) {
+                    deleted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(copies, deleted.get());
+        assertEquals(0, store.size());
+        assertEquals(0, store.count(MessageStatus.SENT));
+    }
+
+    @Test
+    @DisplayName("Send, disregard, delete and search hammered from many threads stay consistent")
+    void testStress() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            String recipient = "+278389689" + (70 + t % 4); // Threads share recipients, so stripes contend
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    Message message = new Message(recipient, "Stress message number " + i, i);
+                    message.sentMessage(i % 3 == 0 ? "disregard" : "send");
+                    added.incrementAndGet();
+                    if (i % 2 == 0 && Message.deleteMessageByHash(message.getMessageHash())) {
+                        deleted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Readers walk the live views while the writers run
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                while (!writers.stream().allMatch(Future::isDone)) {
+                    try {
+                        for (Message message : Message.searchByRecipient("+27838968970")) {
+                            assertEquals("+27838968970", message.getRecipientCell());
+                        }
+                        for (Message message : Message.getSentMessages()) {
+                            // May already be deleted by a writer - must simply not throw
+                            Message.findStatusByMessageID(message.getMessageID());
+                        }
+                        Message.searchByRecipient("+27838968971", 5, 10);
+                        Message.findLongestMessages(3);
+                        for (String hash : Message.getMessageHashArray()) {
+                            assertNotNull(hash);
+                        }
+                        Message.findLongestMessage();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                        return null;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : writers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        for (Future<?> future : readers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(failures.isEmpty(), () -> "Reader failed: " + failures.peek());
+        int live = added.get() - deleted.get();
+        assertEquals(THREADS * MESSAGES_PER_THREAD, added.get());
+        assertEquals(live, Message.getSentMessages().size() + Message.getDisregardedMessages().size());
+        assertEquals(live, Message.getMessageHashArray().size());
+        assertEquals(live, Message.getMessageIDArray().size());
+
+        int perRecipient = 0;
+        for (int r = 0; r < 4; r++) {
+            perRecipient += Message.searchByRecipient("+278389689" + (70 + r)).size();
+        }
+        assertEquals(live, perRecipient);
+
+        int walked = 0;
+        for (Message message : Message.getSentMessages()) {
+            assertEquals(MessageStatus.SENT, message.getStatus());
+            walked++;
+        }
+        assertEquals(Message.getSentMessages().size(), walked);
+    }
+
+    @Test
+    @DisplayName("Indexed access matches iteration and follows changes")
+    void testIndexedAccess() {
+        List<Message> added = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Message message = new Message("+27838968976", "Message " + i, i);
+            store.add(message, MessageStatus.SENT);
+            added.add(message);
+        }
+        List<Message> sent = store.getMessages(MessageStatus.SENT);
+        List<String> ids = store.getIndex().getMessageIDs();
+        assertTrue(sent instanceof RandomAccess);
+
+        for (int i = 0; i < sent.size(); i++) {
+            assertSame(added.get(i), sent.get(i));
+            assertEquals(added.get(i).getMessageID(), ids.get(i));
+        }
+
+        // Appends extend the copy instead of replacing it
+        for (int i = 1000; i < 1100; i++) {
+            Message message = new Message("+27838968976", "Message " + i, i);
+            store.add(message, MessageStatus.SENT);
+            added.add(message);
+            assertSame(message, sent.get(i), "An append must be seen by the next indexed access");
+        }
+
+        store.remove(added.get(0));
+        assertSame(added.get(1), sent.get(0), "A removal must be seen by the next indexed access");
+        assertThrows(IndexOutOfBoundsException.class, () -> sent.get(1099));
+    }
+}
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Unit tests for ConsoleChat
+ * Runs batch scripts through the console front end
+ */
+public class ConsoleChatTest {
+
+    private ByteArrayOutputStream output;
+
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setUp() {
+        Message.useStorage("json", storageDir.toString());
+        Login.useStorage(UserStore.create("json", storageDir.toString()));
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+        output = new ByteArrayOutputStream();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+        Message.useStorage("memory", null);
+    }
+
+    private ConsoleChat runScript(String script, boolean quiet) throws IOException {
+        ConsoleChat console = new ConsoleChat(new ChatRequestHandler(), new PrintStream(output, true), quiet);
+        console.run(new BufferedReader(new StringReader(script)), false);
+        return console;
+    }
+
+    @Test
+    @DisplayName("Quoted arguments keep their spaces")
+    void testTokenize() {
+        assertEquals(Arrays.asList("send", "store", "+27838968976", "Hi \"Mike\", dinner?"),
+            ConsoleChat.tokenize("send store  +27838968976 \"Hi \\\"Mike\\\", dinner?\""));
+        assertThrows(IllegalArgumentException.class, () -> ConsoleChat.tokenize("send \"unclosed"));
+    }
+
+    @Test
+    @DisplayName("A batch script registers, logs in, sends, searches and deletes")
+    void testBatchScript() throws IOException {
+        String script = String.join("\n",
+            "# Comments and blank lines are skipped",
+            "",
+            "register Kyle Smith kyl_1 Ch&&sec@ke99! +27838968976",
+            "login kyl_1 Ch&&sec@ke99!",
+            "send send +27718693002 \"Hi Mike, can you join us for dinner tonight\"",
+            "search recipient +27718693002",
+            "longest",
+            "send send 0838968976 \"Bad number\"",
+            "fly away",
+            "quit",
+            "send send +27718693002 \"Never reached\"");
+
+        ConsoleChat console = runScript(script, false);
+        String text = output.toString();
+
+        assertTrue(text.contains("OK | User registered successfully."), text);
+        assertTrue(text.contains("OK | Message successfully sent"), text);
+        assertTrue(text.contains("Hi Mike, can you join us for dinner tonight"), text);
+        assertTrue(text.contains("ERR line 8:"), "Invalid recipient should be reported with its line number");
+        assertTrue(text.contains("ERR line 9: Unknown command"), text);
+        assertEquals(2, console.getErrors());
+        assertEquals(1, Message.getSentMessages().size(), "Commands after quit must not run");
+
+        // A second batch deletes the message by its real hash
+        String hash = Message.getSentMessages().get(0).getMessageHash();
+        ConsoleChat second = runScript("login kyl_1 Ch&&sec@ke99!\ndelete " + hash + "\ndelete " + hash, false);
+        assertEquals(1, second.getErrors(), "Deleting twice should fail the second time");
+        assertTrue(Message.getSentMessages().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Bulk sends go through the same validation and are counted")
+    void testBulkSend() throws IOException {
+        String script = String.join("\n",
+            "register Kyle Smith kyl_1 Ch&&sec@ke99! +27838968976",
+            "login kyl_1 Ch&&sec@ke99!",
+            "bulk 1000 send +27718693002 \"Bulk message\"",
+            "bulk 500 store +27718693002 \"Stored bulk message\"",
+            "bulk 10 send +2771 \"Invalid recipient\"");
+
+        ConsoleChat console = runScript(script, true);
+
+        assertEquals(1000, Message.getSentMessages().size());
+        assertEquals(500, Message.getStoredMessages().size());
+        assertEquals(2 + 1000 + 500 + 10, console.getOperations());
+        assertEquals(10, console.getErrors());
+        assertFalse(output.toString().contains("OK"), "Quiet mode prints only errors and the summary");
+        assertTrue(output.toString().contains("1,512 operations, 10 errors"), output.toString());
+    }
+
+    @Test
+    @DisplayName("report writes to the console output, report <file> exports it")
+    void testReport(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("report.txt");
+        String script = String.join("\n",
+            "register Kyle Smith kyl_1 Ch&&sec@ke99! +27838968976",
+            "login kyl_1 Ch&&sec@ke99!",
+            "send send +27718693002 \"Hi Mike, can you join us for dinner tonight\"",
+            "send store +27718693002 \"Where are you? You are late!\"",
+            "report",
+            "report " + file);
+
+        ConsoleChat console = runScript(script, false);
+        StringWriter expected = new StringWriter();
+        Message.writeComprehensiveReport(expected);
+
+        assertEquals(0, console.getErrors(), output.toString());
+        assertTrue(output.toString().contains("   Total Messages: 2\n"), output.toString());
+        assertTrue(output.toString().contains("Stored Message 1:\n"), output.toString());
+        assertTrue(output.toString().contains("OK | Report written to " + file), output.toString());
+        assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,264 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for JsonUserStore
+ * Tests that users.json is only re-parsed when the file changes
+ * and that registrations are journaled and replayed on startup
+ */
+public class JsonUserStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Repeated refreshes are served from memory")
+    void testRefreshUsesCache() {
+        JsonUserStore store = new JsonUserStore(tempDir.resolve("users.json").toString());
+        store.refresh();
+
+        Login user = new Login("John", "Doe");
+        user.setUsername("kyl_1");
+        user.setPassword("Ch&&sec@ke99!");
+        user.setCellPhoneNumber("+27838968976");
+        store.getDirectory().add(user);
+        store.save();
+        store.resetCounters();
+
+        for (int i = 0; i < 5; i++) {
+            store.refresh();
+        }
+
+        assertEquals(5, store.getCacheHits(), "Unchanged file should be served from memory");
+        assertEquals(0, store.getReloadCount(), "Our own save should not trigger a reload");
+        assertSame(user, store.getDirectory().findByUsername("kyl_1"));
+    }
+
+    @Test
+    @DisplayName("External changes to the file are picked up")
+    void testRefreshReloadsChangedFile() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        assertEquals(0, store.getDirectory().size());
+
+        try (FileWriter writer = new FileWriter(file.toFile())) {
+            writer.write("[{\"username\":\"ab_1\",\"password\":\"Ch&&sec@ke99!\","
+                + "\"cellPhoneNumber\":\"+27838968976\",\"firstName\":\"A\",\"lastName\":\"B\"}]");
+        }
+        store.refresh();
+
+        assertEquals(1, store.getReloadCount(), "Changed file should be parsed once");
+        assertNotNull(store.getDirectory().findByUsername("ab_1"));
+    }
+
+    private static Login createUser(String username) {
+        Login user = new Login("John", "Doe");
+        user.setUsername(username);
+        user.setPassword("Ch&&sec@ke99!");
+        user.setCellPhoneNumber("+27838968976");
+        return user;
+    }
+
+    @Test
+    @DisplayName("Registrations are appended to the journal, not the snapshot")
+    void testRegisterAppendsToJournal() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        String snapshotBefore = new String(Files.readAllBytes(file));
+
+        assertTrue(store.register(createUser("a_1")));
+        assertTrue(store.register(createUser("b_1")));
+        assertFalse(store.register(createUser("a_1")), "Duplicate username should be rejected");
+        store.close();
+
+        assertEquals(snapshotBefore, new String(Files.readAllBytes(file)), "Snapshot should not be rewritten");
+        assertEquals(2, Files.readAllLines(tempDir.resolve("users.log")).size());
+
+        // A fresh store replays snapshot plus journal
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertEquals(2, reopened.getDirectory().size());
+        assertNotNull(reopened.getDirectory().findByUsername("b_1"));
+    }
+
+    @Test
+    @DisplayName("Saving folds the journal into the snapshot")
+    void testSaveCompactsJournal() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        store.register(createUser("a_1"));
+        store.save();
+        store.close();
+
+        assertEquals(0, Files.size(tempDir.resolve("users.log")), "Journal should be empty after compaction");
+
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertNotNull(reopened.getDirectory().findByUsername("a_1"));
+    }
+
+    @Test
+    @DisplayName("Compaction keeps registrations made after it started in the journal")
+    void testCompactKeepsLaterRegistrations() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        store.register(createUser("a_1"));
+        store.register(createUser("b_1"));
+        store.compact();
+        assertEquals(0, Files.size(tempDir.resolve("users.log")), "Compacted records should leave the journal");
+
+        store.register(createUser("c_1"));
+        store.close();
+        assertEquals(1, Files.readAllLines(tempDir.resolve("users.log")).size());
+
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertEquals(3, reopened.getDirectory().size());
+        assertNotNull(reopened.getDirectory().findByUsername("c_1"));
+    }
+
+    @Test
+    @DisplayName("Journaled users survive a missing snapshot")
+    void testMissingSnapshotKeepsJournal() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        store.register(createUser("a_1"));
+        store.register(createUser("b_1"));
+        store.close();
+
+        Files.delete(file);
+
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertEquals(2, reopened.getDirectory().size());
+        assertNotNull(reopened.getDirectory().findByUsername("a_1"));
+        assertEquals(2, Files.readAllLines(tempDir.resolve("users.log")).size(), "Journal should be kept");
+
+        // The running store notices the missing snapshot too
+        Files.delete(file);
+        reopened.refresh();
+        assertNotNull(reopened.getDirectory().findByUsername("b_1"));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the journal is ignored")
+    void testTornJournalRecordIgnored() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        store.register(createUser("a_1"));
+        store.close();
+
+        Files.write(tempDir.resolve("users.log"), "{\"username\":\"b_".getBytes(), StandardOpenOption.APPEND);
+
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertEquals(1, reopened.getDirectory().size());
+        assertNotNull(reopened.getDirectory().findByUsername("a_1"));
+    }
+
+    @Test
+    @DisplayName("A registration after a torn record survives the next reload")
+    void testRegisterAfterTornJournalRecord() throws IOException {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        store.register(createUser("a_1"));
+        store.close();
+
+        Files.write(tempDir.resolve("users.log"), "{\"username\":\"b_".getBytes(), StandardOpenOption.APPEND);
+
+        JsonUserStore reopened = new JsonUserStore(file.toString());
+        reopened.refresh();
+        assertTrue(reopened.register(createUser("c_1")));
+        reopened.close();
+        assertEquals(2, Files.readAllLines(tempDir.resolve("users.log")).size(), "Torn record should be cut off");
+
+        JsonUserStore reloaded = new JsonUserStore(file.toString());
+        reloaded.refresh();
+        assertEquals(2, reloaded.getDirectory().size());
+        assertNotNull(reloaded.getDirectory().findByUsername("c_1"), "Registration after the torn record was lost");
+    }
+
+    @Test
+    @DisplayName("Logins never fail spuriously while other threads register and reload")
+    void testConcurrentLoginDuringReload() throws Exception {
+        Path file = tempDir.resolve("users.json");
+        JsonUserStore store = new JsonUserStore(file.toString());
+        store.refresh();
+        for (int i = 0; i < 50; i++) {
+            store.register(createUser("u_" + i));
+        }
+        store.save();
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failedLogins = new AtomicInteger();
+        AtomicInteger registered = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            workers.add(pool.submit(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < 50; i++) {
+                        store.refresh();
+                        Login user = store.getDirectory().findByUsername("u_" + i);
+                        if (user == null || !"Ch&&sec@ke99!".equals(user.getPassword())) {
+                            failedLogins.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        // Two registrars race on the same new usernames
+        for (int t = 0; t < 2; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    if (store.register(createUser("n_" + i))) {
+                        registered.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Touch the snapshot so readers keep hitting full reloads
+        for (int round = 0; round < 20; round++) {
+            Files.write(file, " ".getBytes(), StandardOpenOption.APPEND);
+            Thread.sleep(5);
+        }
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        store.close();
+
+        assertEquals(0, failedLogins.get(), "Existing users must always be found");
+        assertEquals(200, registered.get(), "Each new username should be registered exactly once");
+        store.refresh();
+        assertEquals(250, store.getDirectory().size());
+    }
+}
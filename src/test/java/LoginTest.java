@@ -1,6 +1,8 @@
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
 
 /**
  * Unit tests for Login class
@@ -13,8 +15,13 @@ public class LoginTest {
     
     private Login login;
     
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+    
     @BeforeEach
     public void setUp() {
+        Login.useStorage(UserStore.create("json", storageDir.toString()));
         // Clear all users before each test to ensure clean state
         Login.clearAllUsers();
         login = new Login("John", "Doe");
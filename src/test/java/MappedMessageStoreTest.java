@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MappedMessageStore
+ * Tests the binary record layout, deletion and reopening the mapped file
+ */
+public class MappedMessageStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String storePath() {
+        return tempDir.resolve("messages.bin").toString();
+    }
+
+    @Test
+    @DisplayName("Messages survive closing and reopening the store")
+    void testAppendAndReopen() throws IOException {
+        Message first = new Message("+27838968976", "Hi Mike, can you join us for dinner tonight", 0);
+        Message second = new Message("+27838884567", "Unicode text: café ✓", 1);
+
+        MappedMessageStore store = new MappedMessageStore(storePath());
+        store.append(first);
+        store.append(second);
+        store.close();
+
+        MappedMessageStore reopened = new MappedMessageStore(storePath());
+        List<Message> loaded = new ArrayList<>();
+        reopened.load(loaded::add);
+        reopened.close();
+
+        assertEquals(2, loaded.size());
+        assertEquals(first.getMessageID(), loaded.get(0).getMessageID());
+        assertEquals(first.getRecipientCell(), loaded.get(0).getRecipientCell());
+        assertEquals(first.getMessageText(), loaded.get(0).getMessageText());
+        assertEquals(first.getMessageHash(), loaded.get(0).getMessageHash());
+        assertEquals("Unicode text: café ✓", loaded.get(1).getMessageText());
+        assertEquals(1, loaded.get(1).getMessageNumber());
+    }
+
+    @Test
+    @DisplayName("Deleted records are skipped and counted")
+    void testDelete() throws IOException {
+        MappedMessageStore store = new MappedMessageStore(storePath());
+        long kept = store.append(new Message("+27838968976", "Keep me", 0));
+        long deleted = store.append(new Message("+27838884567", "Delete me", 1));
+
+        assertTrue(store.delete(deleted));
+        assertFalse(store.delete(deleted), "Deleting twice should fail");
+        assertEquals(2, store.getRecordCount());
+        assertEquals(1, store.getLiveCount());
+
+        List<String> texts = new ArrayList<>();
+        store.forEachRecord(record -> texts.add(record.getMessageText()));
+        assertEquals(List.of("Keep me"), texts);
+        assertEquals("Keep me", store.recordAt(kept).getMessageText());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Records can be matched without decoding them")
+    void testInPlaceComparison() throws IOException {
+        Message message = new Message("+27838968976", "Hello", 0);
+        MappedMessageStore store = new MappedMessageStore(storePath());
+        long offset = store.append(message);
+
+        MappedMessageStore.Record record = store.recordAt(offset);
+        assertTrue(record.recipientEquals("+27838968976"));
+        assertFalse(record.recipientEquals("+27838884567"));
+        assertTrue(record.messageIdEquals(message.getMessageID()));
+        assertEquals(5, record.getTextByteLength());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Null fields are stored and restored as null")
+    void testNullFields() throws IOException {
+        Message empty = new Message();
+        MappedMessageStore store = new MappedMessageStore(storePath());
+        store.append(empty);
+
+        List<Message> loaded = new ArrayList<>();
+        store.load(loaded::add);
+        store.close();
+
+        assertEquals(empty.getMessageID(), loaded.get(0).getMessageID());
+        assertNull(loaded.get(0).getRecipientCell());
+        assertNull(loaded.get(0).getMessageText());
+        assertNull(loaded.get(0).getMessageHash());
+    }
+
+    @Test
+    @DisplayName("The mapping grows past its initial size")
+    void testGrowth() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            text.append('x');
+        }
+
+        MappedMessageStore store = new MappedMessageStore(storePath());
+        for (int i = 0; i < 10000; i++) {
+            store.append(new Message("+27838968976", text.toString(), i));
+        }
+        store.close();
+
+        MappedMessageStore reopened = new MappedMessageStore(storePath());
+        assertEquals(10000, reopened.getLiveCount());
+        int[] count = {0};
+        reopened.forEachRecord(record -> count[0]++);
+        assertEquals(10000, count[0]);
+        reopened.close();
+    }
+}
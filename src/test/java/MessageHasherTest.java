@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Differential tests for MessageHasher
+ * Compares the single-pass hash with the original trim/split/toUpperCase version
+ */
+public class MessageHasherTest {
+
+    // Mix of separators, characters trim removes but split keeps, and non-ASCII case rules
+    private static final char[] ALPHABET = (
+        "abcxyzABCXYZ019!?,.:-  \t\n\u000B\f\r\u0000\u0001\u001F  \u0085"
+        + "éßıİǆςᾀ😀").toCharArray();
+
+    /**
+     * The original createMessageHash, kept as the reference implementation
+     */
+    static String legacyHash(String messageID, int messageNumber, String messageText) {
+        if (messageID == null || messageText == null) {
+            return "";
+        }
+        String firstTwoDigits = messageID.substring(0, 2);
+        String msgNum = String.valueOf(messageNumber);
+        String trimmedText = messageText.trim();
+        String firstWord = "";
+        String lastWord = "";
+        if (!trimmedText.isEmpty()) {
+            String[] words = trimmedText.split("\\s+");
+            firstWord = words.length > 0 ? words[0].toUpperCase() : "";
+            lastWord = words.length > 1 ? words[words.length - 1].toUpperCase() : firstWord;
+        }
+        return firstTwoDigits + ":" + msgNum + ":" + firstWord + lastWord;
+    }
+
+    private static void assertSameHash(String id, int number, String text) {
+        assertEquals(legacyHash(id, number, text), MessageHasher.hash(id, number, text),
+            () -> "Hash differs for text [" + text + "] number " + number);
+    }
+
+    @Test
+    @DisplayName("Known messages hash exactly as before")
+    void testKnownMessages() {
+        assertEquals("00:0:HITONIGHT", MessageHasher.hash("0012345678", 0, "Hi Mike, can you join us for dinner tonight"));
+        assertEquals("12:3:HELLOHELLO", MessageHasher.hash("1234567890", 3, "  hello  "));
+        assertEquals("98:-7:", MessageHasher.hash("9876543210", -7, " \t\n "));
+        assertEquals("", MessageHasher.hash(null, 1, "text"));
+        assertEquals("", MessageHasher.hash("1234567890", 1, null));
+
+        for (String text : new String[] {"", "a", "a b", "ßtraße ende", "one two", "x\u0001y z"}) {
+            assertSameHash("5555555555", Integer.MIN_VALUE, text);
+            assertSameHash("5555555555", Integer.MAX_VALUE, text);
+        }
+    }
+
+    @Test
+    @DisplayName("Randomized texts hash identically to the original implementation")
+    void testRandomizedDifferential() {
+        Random random = new Random(20240917L);
+        for (int round = 0; round < 200_000; round++) {
+            char[] text = new char[random.nextInt(40)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            String id = MessageIdGenerator.formatId(Math.floorMod(random.nextLong(), 10_000_000_000L));
+            assertSameHash(id, random.nextInt(), new String(text));
+        }
+    }
+
+    @Test
+    @DisplayName("Locale-specific upper-casing is preserved")
+    void testTurkishLocale() {
+        Locale original = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertSameHash("1234567890", 1, "istanbul izmir");
+            assertEquals("12:1:İSTANBULİZMİR", MessageHasher.hash("1234567890", 1, "istanbul izmir"));
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unit tests for the message ID generators
+ * Tests the 10-digit format, uniqueness under concurrency and reserved IDs
+ */
+public class MessageIdGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("IDs are always 10 digits, including zero-padded ones")
+    void testFormat() {
+        assertEquals("0000000000", MessageIdGenerator.formatId(0));
+        assertEquals("0000000042", MessageIdGenerator.formatId(42));
+        assertEquals("9999999999", MessageIdGenerator.formatId(9_999_999_999L));
+
+        Message checker = new Message();
+        MessageIdGenerator sequence = new SequenceMessageIdGenerator();
+        MessageIdGenerator random = new RandomMessageIdGenerator();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(checker.checkMessageID(sequence.nextId()));
+            assertTrue(checker.checkMessageID(random.nextId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent callers never receive the same ID")
+    void testUniqueUnderConcurrency() throws InterruptedException {
+        MessageIdGenerator generator = new SequenceMessageIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(800_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Reserved IDs are skipped and the sequence wraps without repeats")
+    void testReservedIdsAndWrap() {
+        String first = new SequenceMessageIdGenerator(0, id -> false).nextId();
+        SequenceMessageIdGenerator generator = new SequenceMessageIdGenerator(0, first::equals);
+        assertNotEquals(first, generator.nextId());
+
+        // Starting just before the end of the space crosses the wrap cleanly
+        SequenceMessageIdGenerator wrapping = new SequenceMessageIdGenerator(-2, id -> false);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ids.add(wrapping.nextId()));
+        }
+        assertTrue(ids.contains(first), "Sequence 0 follows the last sequence in the space");
+    }
+
+    @Test
+    @DisplayName("A counter file carries the sequence on without repeats, even after a crash")
+    void testCounterFile() throws IOException {
+        File counterFile = tempDir.resolve("message_ids.txt").toFile();
+        Files.write(counterFile.toPath(), "0\n".getBytes(StandardCharsets.UTF_8));
+
+        long block = SequenceMessageIdGenerator.RESERVED_BLOCK;
+        Set<String> firstRun = new HashSet<>();
+        SequenceMessageIdGenerator first = new SequenceMessageIdGenerator(counterFile, id -> false);
+        for (int i = 0; i < 2500; i++) {
+            assertTrue(firstRun.add(first.nextId()));
+        }
+        // The file always covers every ID handed out, so the next run starts past them
+        assertEquals(String.valueOf(block), new String(Files.readAllBytes(counterFile.toPath()), StandardCharsets.UTF_8).trim());
+
+        // Past half a block, the next block is reserved before it is needed
+        for (long i = 2500; i < block / 2 + 1; i++) {
+            assertTrue(firstRun.add(first.nextId()));
+        }
+        first.awaitReservation();
+        assertEquals(String.valueOf(2 * block), new String(Files.readAllBytes(counterFile.toPath()), StandardCharsets.UTF_8).trim());
+
+        SequenceMessageIdGenerator second = new SequenceMessageIdGenerator(counterFile, id -> false);
+        String next = second.nextId();
+        assertEquals(new SequenceMessageIdGenerator(2 * block, id -> false).nextId(), next);
+        assertFalse(firstRun.contains(next));
+        for (int i = 0; i < 2500; i++) {
+            assertFalse(firstRun.contains(second.nextId()));
+        }
+    }
+
+    @Test
+    @DisplayName("No ID is handed out when its reservation cannot be written")
+    void testCounterFileWriteFailure() throws IOException {
+        // A regular file where the data directory should be makes every write fail
+        File blocked = tempDir.resolve("blocked").toFile();
+        Files.write(blocked.toPath(), new byte[0]);
+        SequenceMessageIdGenerator generator = new SequenceMessageIdGenerator(new File(blocked, "message_ids.txt"), id -> false);
+
+        assertThrows(UncheckedIOException.class, generator::nextId);
+        assertThrows(UncheckedIOException.class, generator::nextId, "A failed reservation must not count as made");
+    }
+}
@@ -0,0 +1,242 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MessageJournal
+ * Tests append, replay, tombstones, compaction and torn-write recovery
+ */
+public class MessageJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String snapshotPath;
+    private String segmentPath;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = tempDir.resolve("stored_messages.json").toString();
+        segmentPath = tempDir.resolve("journal").toString();
+    }
+
+    private MessageJournal openJournal() {
+        return new MessageJournal(snapshotPath, segmentPath, "stored");
+    }
+
+    private static List<Message> loadAll(MessageJournal journal) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        journal.load(messages::add);
+        return messages;
+    }
+
+    @Test
+    @DisplayName("Appended messages are replayed in order by a new journal")
+    void testAppendAndReplay() throws IOException {
+        MessageJournal journal = openJournal();
+        Message first = new Message("+27838968976", "Hello world", 0);
+        Message second = new Message("+27838884567", "How are you?", 1);
+        journal.append(first);
+        journal.append(second);
+        journal.close();
+
+        List<Message> loaded = loadAll(openJournal());
+        assertEquals(2, loaded.size());
+        assertEquals(first.getMessageID(), loaded.get(0).getMessageID());
+        assertEquals(first.getMessageHash(), loaded.get(0).getMessageHash());
+        assertEquals("How are you?", loaded.get(1).getMessageText());
+        assertEquals(1, loaded.get(1).getMessageNumber());
+    }
+
+    @Test
+    @DisplayName("Tombstones remove messages and compaction folds them into the snapshot")
+    void testDeleteAndCompact() throws IOException {
+        MessageJournal journal = openJournal();
+        Message kept = new Message("+27838968976", "Keep me", 0);
+        Message deleted = new Message("+27838884567", "Delete me", 1);
+        journal.append(kept);
+        journal.append(deleted);
+        journal.appendDelete(deleted);
+
+        journal.compactAsync();
+        journal.awaitCompaction();
+
+        assertTrue(journal.listSegments().isEmpty(), "Compaction should remove sealed segments");
+        assertTrue(new File(snapshotPath).length() > 0, "Compaction should write the snapshot");
+
+        List<Message> loaded = loadAll(openJournal());
+        assertEquals(1, loaded.size());
+        assertEquals("Keep me", loaded.get(0).getMessageText());
+    }
+
+    @Test
+    @DisplayName("Compaction waits until tombstones make up a share of the live messages")
+    void testCompactionTriggeredByTombstoneRatio() throws IOException {
+        MessageJournal journal = openJournal();
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            messages.add(new Message("+27838968976", "Message " + i, i));
+        }
+        journal.appendAll(messages);
+
+        for (int i = 0; i < 64; i++) {
+            journal.appendDelete(messages.get(i));
+        }
+        journal.awaitCompaction();
+        assertEquals(1, journal.listSegments().size(), "64 of 300 deleted should not compact yet");
+
+        for (int i = 64; i < 100; i++) {
+            journal.appendDelete(messages.get(i));
+        }
+        journal.awaitCompaction();
+        assertTrue(journal.listSegments().isEmpty(), "Tombstones at half the live messages should compact");
+        journal.close();
+
+        assertEquals(200, loadAll(openJournal()).size());
+    }
+
+    @Test
+    @DisplayName("A torn record at the tail of the last segment is dropped")
+    void testTornWriteRecovery() throws IOException {
+        MessageJournal journal = openJournal();
+        journal.append(new Message("+27838968976", "Survives the crash", 0));
+        journal.append(new Message("+27838884567", "Torn in half", 1));
+        journal.close();
+
+        File segment = journal.listSegments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        List<Message> loaded = loadAll(openJournal());
+        assertEquals(1, loaded.size());
+        assertEquals("Survives the crash", loaded.get(0).getMessageText());
+    }
+
+    @Test
+    @DisplayName("Reset discards every persisted message")
+    void testReset() throws IOException {
+        MessageJournal journal = openJournal();
+        journal.append(new Message("+27838968976", "Hello world", 0));
+        journal.reset();
+
+        assertTrue(loadAll(openJournal()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A batch append replays like individual appends, across segment rolls")
+    void testAppendAll() throws IOException {
+        MessageJournal journal = openJournal();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 240; i++) {
+            text.append('x');
+        }
+        // Roughly 300 bytes a record, so 5000 records span more than one 1 MiB segment
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(new Message("+27838968976", text + " " + i, i));
+        }
+        journal.appendAll(batch);
+        journal.append(new Message("+27838884567", "After the batch", 5000));
+        journal.close();
+
+        List<Message> loaded = loadAll(openJournal());
+        assertEquals(5001, loaded.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(batch.get(i).getMessageID(), loaded.get(i).getMessageID());
+        }
+        assertEquals("After the batch", loaded.get(5000).getMessageText());
+    }
+
+    @Test
+    @DisplayName("A paged view decodes single pages, applies the segments and survives compaction")
+    void testOpenPaged() throws IOException {
+        MessageJournal journal = openJournal();
+        String[] recipients = {"+27838968976", "+27838884567", "+27838123456"};
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(new Message(recipients[i % 3], "Paged message " + i, i));
+        }
+        journal.appendAll(batch);
+        journal.compactAsync();
+        journal.awaitCompaction();
+        assertTrue(new File(MessagePageIndex.pathFor(snapshotPath)).exists());
+
+        // Segment changes on top of the snapshot
+        journal.appendDelete(batch.get(10));
+        Message added = new Message(recipients[0], "After the snapshot", 1000);
+        journal.append(added);
+
+        MessagePageCache cache = new MessagePageCache(2);
+        PagedMessages pages = journal.openPaged(cache);
+        assertEquals(1000, pages.size());
+        assertEquals(0, cache.getMisses(), "Opening must not decode any page");
+
+        assertEquals("Paged message 700", pages.findById(batch.get(700).getMessageID()).getMessageText());
+        assertEquals("Paged message 701", pages.findById(batch.get(701).getMessageID()).getMessageText());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertNull(pages.findById(batch.get(10).getMessageID()));
+        assertNull(pages.findById("0000000000"));
+        assertEquals("After the snapshot", pages.findById(added.getMessageID()).getMessageText());
+
+        // A compaction swaps the snapshot - the open view keeps reading the old one
+        journal.compactAsync();
+        journal.awaitCompaction();
+        List<Message> conversation = pages.findByRecipient(recipients[1]);
+        assertEquals(332, conversation.size(), "Message 10 was deleted");
+        assertEquals("Paged message 1", conversation.get(0).getMessageText());
+        assertEquals("Paged message 997", conversation.get(331).getMessageText());
+        assertTrue(cache.size() <= 2);
+        pages.close();
+        journal.close();
+
+        // A missing index is rebuilt from the snapshot
+        assertTrue(new File(MessagePageIndex.pathFor(snapshotPath)).delete());
+        PagedMessages rebuilt = openJournal().openPaged(new MessagePageCache(4));
+        assertEquals(1000, rebuilt.size());
+        assertEquals(335, rebuilt.findByRecipient(recipients[0]).size());
+        rebuilt.close();
+    }
+
+    @Test
+    @DisplayName("Views of different snapshots sharing a cache never read each other's pages")
+    void testSharedCacheKeepsViewsApart() throws IOException {
+        MessageJournal journal = openJournal();
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            batch.add(new Message("+27838968976", "Paged message " + i, i));
+        }
+        journal.appendAll(batch);
+        journal.compactAsync();
+        journal.awaitCompaction();
+
+        MessagePageCache cache = new MessagePageCache(8);
+        PagedMessages before = journal.openPaged(cache);
+
+        // Deleting the first message shifts every position in the next snapshot
+        journal.appendDelete(batch.get(0));
+        journal.compactAsync();
+        journal.awaitCompaction();
+        PagedMessages after = journal.openPaged(cache);
+
+        // The old view decodes its page 0 after the new view has opened
+        assertEquals("Paged message 0", before.findById(batch.get(0).getMessageID()).getMessageText());
+        assertEquals("Paged message 1", after.findById(batch.get(1).getMessageID()).getMessageText());
+        assertNull(after.findById(batch.get(0).getMessageID()));
+
+        before.close();
+        assertEquals("Paged message 1", after.findById(batch.get(1).getMessageID()).getMessageText());
+        after.close();
+        assertEquals(0, cache.size());
+        journal.close();
+    }
+}
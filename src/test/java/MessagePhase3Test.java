@@ -1,8 +1,15 @@
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Unit tests for Phase 3: Data Management & Reporting Features
@@ -10,12 +17,22 @@ import java.util.List;
  */
 public class MessagePhase3Test {
     
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+    
     @BeforeEach
     void setUp() {
+        Message.useStorage("json", storageDir.toString());
         // Clear all messages before each test
         Message.clearAllMessages();
     }
     
+    @AfterEach
+    void tearDown() {
+        Message.useStorage("memory", null);
+    }
+    
     @Test
     @DisplayName("Test 3.1: Array population verification")
     void testArrayPopulation() {
@@ -59,6 +76,20 @@ public class MessagePhase3Test {
                     "Should return the longest message");
     }
     
+    @Test
+    @DisplayName("Test 3.2b: Longest message stays correct after a text edit")
+    void testLongestMessageAfterTextEdit() {
+        Message edited = new Message("+27838968976", "The longest message until it gets edited", 0);
+        Message other = new Message("+27838884567", "Medium length message here", 1);
+        edited.sentMessage("store");
+        other.sentMessage("store");
+        
+        edited.setMessageText("Short");
+        assertTrue(Message.deleteMessageByHash(edited.getMessageHash()));
+        assertEquals("Medium length message here", Message.findLongestMessage(),
+                    "An edited message must still leave the tracker when deleted");
+    }
+    
     @Test
     @DisplayName("Test 3.3: Message ID search")
     void testMessageIDSearch() {
@@ -230,4 +261,297 @@ public class MessagePhase3Test {
         
         assertEquals(2, Message.returnTotalMessages());
     }
-} 
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Test 3.11: Message ID index tracks status and deletions")
+    void testMessageIDIndexStatus() {
+        Message sentMsg = new Message("+27838968976", "Sent message", 0);
+        Message storedMsg = new Message("+27838884567", "Stored message", 1);
+        Message disregardedMsg = new Message("+27838123456", "Disregarded message", 2);
+        
+        sentMsg.sentMessage("send");
+        storedMsg.sentMessage("store");
+        disregardedMsg.sentMessage("disregard");
+        
+        assertEquals(MessageStatus.SENT, Message.findStatusByMessageID(sentMsg.getMessageID()));
+        assertEquals(MessageStatus.STORED, Message.findStatusByMessageID(storedMsg.getMessageID()));
+        assertEquals(MessageStatus.DISREGARDED, Message.findStatusByMessageID(disregardedMsg.getMessageID()));
+        
+        // Deleted messages drop out of the index
+        Message.deleteMessageByHash(storedMsg.getMessageHash());
+        assertNull(Message.searchByMessageID(storedMsg.getMessageID()));
+        assertNull(Message.findStatusByMessageID(storedMsg.getMessageID()));
+    }
+    
+    @Test
+    @DisplayName("Test 3.12: Message ID index is rebuilt for loaded messages")
+    void testMessageIDIndexAfterLoad() {
+        Message storedMsg = new Message("+27838884567", "Stored before reload", 1);
+        storedMsg.sentMessage("store");
+        
+        Message.loadFromJSON();
+        
+        assertEquals(1, Message.getStoredMessages().size());
+        assertEquals("Stored before reload", Message.searchByMessageID(storedMsg.getMessageID()));
+        assertEquals(MessageStatus.STORED, Message.findStatusByMessageID(storedMsg.getMessageID()));
+    }
+    
+    @Test
+    @DisplayName("Test 3.13: Recipient index keeps insertion order and supports paging")
+    void testRecipientIndexPaging() {
+        for (int i = 0; i < 5; i++) {
+            new Message("+27838884567", "Message " + i, i).sentMessage(i % 2 == 0 ? "send" : "store");
+        }
+        new Message("+27838968976", "Other recipient", 5).sentMessage("send");
+        
+        List<Message> all = Message.searchByRecipient("+27838884567");
+        assertEquals(5, all.size());
+        assertEquals("Message 0", all.get(0).getMessageText());
+        assertEquals("Message 4", all.get(4).getMessageText());
+        
+        List<Message> page = Message.searchByRecipient("+27838884567", 1, 2);
+        assertEquals(2, page.size());
+        assertEquals("Message 1", page.get(0).getMessageText());
+        assertEquals("Message 2", page.get(1).getMessageText());
+        
+        assertTrue(Message.searchByRecipient("+27838884567", 5, 2).isEmpty(), "Page past the end should be empty");
+        
+        // Deleting updates the index and the live view
+        Message.deleteMessageByHash(all.get(0).getMessageHash());
+        assertEquals(4, all.size());
+        assertEquals("Message 1", Message.searchByRecipient("+27838884567").get(0).getMessageText());
+    }
+    
+    @Test
+    @DisplayName("Test 3.14: Duplicate hashes are deleted oldest first")
+    void testDuplicateHashDeletion() {
+        // Same ID prefix, message number and words give the same hash
+        Message first = Message.restore("1200000001", "+27838968976", "Hi there", "12:0:HITHERE", 0);
+        Message second = Message.restore("1200000002", "+27838884567", "Hi there", "12:0:HITHERE", 0);
+        first.sentMessage("send");
+        second.sentMessage("store");
+        
+        assertTrue(Message.deleteMessageByHash("12:0:HITHERE"));
+        assertNull(Message.searchByMessageID("1200000001"), "Oldest message should be deleted first");
+        assertEquals(0, Message.getSentMessages().size());
+        assertEquals(1, Message.getStoredMessages().size());
+        
+        assertTrue(Message.deleteMessageByHash("12:0:HITHERE"));
+        assertEquals(0, Message.getStoredMessages().size());
+        assertFalse(Message.deleteMessageByHash("12:0:HITHERE"));
+    }
+    
+    @Test
+    @DisplayName("Test 3.15: Hash and ID arrays are live views in insertion order")
+    void testArraysAreLiveViews() {
+        List<String> hashArray = Message.getMessageHashArray();
+        List<String> idArray = Message.getMessageIDArray();
+        assertTrue(hashArray.isEmpty());
+        
+        Message msg1 = new Message("+27838968976", "First message", 0);
+        Message msg2 = new Message("+27838884567", "Second message", 1);
+        msg1.sentMessage("disregard");
+        msg2.sentMessage("send");
+        
+        // Views fetched before the sends already reflect them
+        assertEquals(List.of(msg1.getMessageHash(), msg2.getMessageHash()), hashArray);
+        assertEquals(List.of(msg1.getMessageID(), msg2.getMessageID()), idArray);
+        assertThrows(UnsupportedOperationException.class, () -> hashArray.add("00:0:NOPE"));
+        
+        Message.deleteMessageByHash(msg1.getMessageHash());
+        assertEquals(List.of(msg2.getMessageHash()), hashArray);
+    }
+    
+    @Test
+    @DisplayName("Test 3.16: Longest message updates when the longest is deleted")
+    void testLongestAfterDeletingMaximum() {
+        Message shortMsg = new Message("+27838968976", "Short", 0);
+        Message mediumMsg = new Message("+27838884567", "Medium length message", 1);
+        Message longMsg = new Message("+27838123456", "This is by far the longest message of them all", 2);
+        shortMsg.sentMessage("send");
+        longMsg.sentMessage("store");
+        mediumMsg.sentMessage("disregard");
+        
+        assertEquals(longMsg.getMessageText(), Message.findLongestMessage());
+        
+        List<Message> top2 = Message.findLongestMessages(2);
+        assertEquals(2, top2.size());
+        assertSame(longMsg, top2.get(0));
+        assertSame(mediumMsg, top2.get(1));
+        
+        Message.deleteMessageByHash(longMsg.getMessageHash());
+        assertEquals("Medium length message", Message.findLongestMessage());
+        assertEquals(2, Message.findLongestMessages(5).size());
+    }
+    
+    @Test
+    @DisplayName("Test 3.17: Batch send routes valid messages and reports invalid ones")
+    void testSendBatch() {
+        String tooLong = new String(new char[251]).replace('\0', 'a');
+        List<OutgoingMessage> batch = Arrays.asList(
+            new OutgoingMessage("+27838968976", "Hi Mike, can you join us for dinner tonight", "send"),
+            new OutgoingMessage("08575975889", "Bad number", "send"),
+            new OutgoingMessage("+27838884567", "Where are you? You are late!", "Store"),
+            new OutgoingMessage("+27838884567", tooLong, "send"),
+            new OutgoingMessage("+27838123456", "Yohoooo, I am at your gate.", "disregard"),
+            new OutgoingMessage("+27838123456", "Carrier pigeon", "fly"));
+        
+        MessageBatchResult result = Message.sendBatch(batch);
+        
+        assertEquals(1, result.getSentCount());
+        assertEquals(1, result.getStoredCount());
+        assertEquals(1, result.getDisregardedCount());
+        assertEquals(Arrays.asList(1, 3, 5), Arrays.asList(result.getFailures().keySet().toArray()));
+        assertTrue(result.getFailures().get(1).startsWith("Cell phone number incorrectly formatted"));
+        assertEquals("Message exceeds 1 characters", result.getFailures().get(3));
+        
+        // Accepted messages are fully indexed, with an ID and hash each
+        Message stored = result.getAccepted().get(1);
+        assertTrue(stored.checkMessageID(stored.getMessageID()));
+        assertEquals(stored.getMessageHash(), stored.createMessageHash());
+        assertEquals("Where are you? You are late!", Message.searchByMessageID(stored.getMessageID()));
+        assertEquals(3, Message.getMessageHashArray().size());
+        assertEquals(1, Message.getStoredMessages().size());
+    }
+    
+    @Test
+    @DisplayName("Test 3.18: Stored messages from a batch survive a reload")
+    void testSendBatchPersistsStoredMessages() {
+        List<OutgoingMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new OutgoingMessage("+27838884567", "Stored batch message " + i, i % 2 == 0 ? "store" : "send"));
+        }
+        MessageBatchResult result = Message.sendBatch(batch);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(50, result.getStoredCount());
+        
+        Message.loadFromJSON();
+        assertEquals(50, Message.getStoredMessages().size());
+        assertEquals(50, Message.getSentMessages().size());
+    }
+    
+    @Test
+    @DisplayName("Test 3.19: Sent and disregarded messages survive a restart and load lazily")
+    void testSentAndDisregardedHistoryPersisted(@TempDir Path tempDir) {
+        String history = tempDir.resolve("history").toString();
+        Message.useStorage("json", history);
+        try {
+            Message.clearAllMessages();
+            Message sent = new Message("+27838968976", "Sent before restart", 0);
+            Message deleted = new Message("+27838968976", "Deleted before restart", 1);
+            Message disregarded = new Message("+27838884567", "Disregarded before restart", 2);
+            sent.sentMessage("send");
+            deleted.sentMessage("send");
+            disregarded.sentMessage("disregard");
+            Message.deleteMessageByHash(deleted.getMessageHash());
+            
+            // Simulate a restart - empty the lists, then reopen the same files
+            Message.useStorage("json", tempDir.resolve("scratch").toString());
+            Message.clearAllMessages();
+            Message.useStorage("json", history);
+            assertFalse(Message.isHistoryLoaded(MessageStatus.SENT));
+            assertFalse(Message.isHistoryLoaded(MessageStatus.DISREGARDED));
+            
+            // A message sent after the restart goes after the history
+            new Message("+27838123456", "Sent after restart", 3).sentMessage("send");
+            
+            List<Message> sentHistory = Message.getSentMessages();
+            assertTrue(Message.isHistoryLoaded(MessageStatus.SENT));
+            assertFalse(Message.isHistoryLoaded(MessageStatus.DISREGARDED), "Disregarded history is not needed yet");
+            assertEquals(2, sentHistory.size());
+            assertEquals(sent.getMessageID(), sentHistory.get(0).getMessageID());
+            assertEquals("Sent after restart", sentHistory.get(1).getMessageText());
+            
+            // Searching touches every list, so the disregarded history comes in too
+            assertEquals("Disregarded before restart", Message.searchByMessageID(disregarded.getMessageID()));
+            assertEquals(MessageStatus.DISREGARDED, Message.findStatusByMessageID(disregarded.getMessageID()));
+            assertNull(Message.searchByMessageID(deleted.getMessageID()));
+            assertEquals(3, Message.getMessageIDArray().size());
+        } finally {
+            Message.clearAllMessages();
+            Message.useStorage("json", storageDir.toString());
+        }
+    }
+    
+    @Test
+    @DisplayName("Test 3.20: Lazy startup pages stored messages in on demand")
+    void testLazyStoredMessages(@TempDir Path tempDir) {
+        Message.useStorage("json", tempDir.toString());
+        try {
+            Message.clearAllMessages();
+            Message first = new Message("+27838968976", "Stored first", 0);
+            Message second = new Message("+27838884567", "Stored second", 1);
+            first.sentMessage("store");
+            second.sentMessage("store");
+            MessageJournal journal = (MessageJournal) Message.getStorage(MessageStatus.STORED);
+            journal.compactAsync();
+            journal.awaitCompaction();
+            
+            Message.setLazyLoading(true);
+            Message.openStoredMessages();
+            assertTrue(Message.isStoredPaged());
+            assertEquals("Stored first", Message.searchByMessageID(first.getMessageID()));
+            assertEquals(MessageStatus.STORED, Message.findStatusByMessageID(second.getMessageID()));
+            assertEquals(1, Message.searchByRecipient("+27838884567").size());
+            assertTrue(Message.isStoredPaged(), "Searches must not load every stored message");
+            
+            // Stored after startup - resident, found alongside the paged ones
+            new Message("+27838884567", "Stored after startup", 2).sentMessage("store");
+            List<Message> conversation = Message.searchByRecipient("+27838884567");
+            assertEquals(2, conversation.size());
+            assertEquals("Stored second", conversation.get(0).getMessageText());
+            assertEquals(2, Message.countByRecipient("+27838884567"), "Count covers paged and resident messages");
+            assertEquals("Stored after startup", Message.searchByRecipient("+27838884567", 1, 5).get(0).getMessageText());
+            
+            // Listing every stored message loads them all
+            assertEquals(3, Message.getStoredMessages().size());
+            assertFalse(Message.isStoredPaged());
+            assertEquals(2, Message.searchByRecipient("+27838884567").size());
+        } finally {
+            Message.setLazyLoading(false);
+            Message.clearAllMessages();
+            Message.useStorage("json", storageDir.toString());
+        }
+    }
+    
+    @Test
+    @DisplayName("Test 3.21: Clearing the lists keeps the files, resetting storage empties them")
+    void testClearKeepsStorage() {
+        Message stored = new Message("+27838968976", "Stored on disk", 0);
+        stored.sentMessage("store");
+        new Message("+27838968976", "Sent on disk", 1).sentMessage("send");
+        
+        Message.clearAllMessages();
+        assertFalse(Message.isHistoryLoaded(MessageStatus.SENT), "Clearing must not hide the sent history");
+        assertTrue(Message.getStoredMessages().isEmpty());
+        Message.loadFromJSON();
+        assertEquals(1, Message.getStoredMessages().size(), "Clearing the lists must not delete saved messages");
+        assertEquals("Sent on disk", Message.getSentMessages().get(0).getMessageText());
+        
+        Message.resetStorage();
+        assertTrue(Message.isHistoryLoaded(MessageStatus.SENT));
+        assertTrue(Message.getSentMessages().isEmpty());
+        Message.loadFromJSON();
+        assertTrue(Message.getStoredMessages().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Test 3.22: IDs of saved messages that are not loaded are never handed out again")
+    void testIdsContinueAcrossRuns() {
+        Set<String> savedIds = new HashSet<>();
+        for (int i = 0; i < 1500; i++) {
+            Message sent = new Message("+27838968976", "Saved message " + i, i);
+            sent.sentMessage("send");
+            savedIds.add(sent.getMessageID());
+        }
+        
+        // A new run over the same directory, before the sent history is read back
+        Message.clearAllMessages();
+        Message.useStorage("json", storageDir.toString());
+        assertFalse(Message.isHistoryLoaded(MessageStatus.SENT));
+        assertTrue(storageDir.resolve("message_ids.txt").toFile().exists());
+        for (int i = 0; i < 1500; i++) {
+            assertFalse(savedIds.contains(new Message().getMessageID()));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Unit tests for MessageReport
+ * Checks the streamed report layout, the counter-based summary and paging
+ */
+public class MessageReportTest {
+
+    private ConcurrentMessageStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentMessageStore();
+    }
+
+    private Message add(String text, MessageStatus status, int number) {
+        Message message = new Message("+27838968976", text, number);
+        store.add(message, status);
+        return message;
+    }
+
+    private String writeAll() throws IOException {
+        StringWriter out = new StringWriter();
+        new MessageReport(store).writeAll(out);
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("Sections appear in order with their own numbering")
+    void testSections() throws IOException {
+        Message sent = add("Hi Mike, can you join us for dinner tonight", MessageStatus.SENT, 0);
+        add("Where are you? You are late!", MessageStatus.STORED, 1);
+        add("Yohoooo, I am at your gate.", MessageStatus.DISREGARDED, 2);
+        add("It is dinner time!", MessageStatus.STORED, 3);
+
+        String report = writeAll();
+        int sentSection = report.indexOf("📤 SENT MESSAGES DETAILS:");
+        int storedSection = report.indexOf("💾 STORED MESSAGES:");
+        int disregardedSection = report.indexOf("🗑️  DISREGARDED MESSAGES:");
+        int longestSection = report.indexOf("📏 LONGEST MESSAGE:");
+
+        assertTrue(report.startsWith("\n" + "=".repeat(50) + "\n         QUICKCHAT COMPREHENSIVE REPORT\n"), report);
+        assertTrue(0 < sentSection && sentSection < storedSection && storedSection < disregardedSection
+            && disregardedSection < longestSection, report);
+        assertTrue(report.contains("Message 1:\n   Hash: " + sent.getMessageHash()), report);
+        assertTrue(report.contains("   Message ID: " + sent.getMessageID() + "\n"), report);
+        assertTrue(report.contains("Stored Message 2:\n"), report);
+        assertTrue(report.contains("Disregarded Message 1:\n"), report);
+        assertTrue(report.contains("   \"Hi Mike, can you join us for dinner tonight\"\n   Length: 43 characters\n"), report);
+        assertTrue(report.endsWith("=".repeat(50) + "\n"), report);
+    }
+
+    @Test
+    @DisplayName("Summary comes from the running counters and follows deletes")
+    void testSummary() throws IOException {
+        add("abcd", MessageStatus.SENT, 0);
+        Message removed = add("abcdefgh", MessageStatus.SENT, 1);
+        add("ab", MessageStatus.DISREGARDED, 2);
+        assertEquals(14, store.characters(MessageStatus.SENT) + store.characters(MessageStatus.DISREGARDED));
+
+        store.remove(removed);
+        assertEquals(4, store.characters(MessageStatus.SENT));
+
+        String report = writeAll();
+        assertTrue(report.contains("   Total Sent Messages: 1\n"), report);
+        assertTrue(report.contains("   Total Stored Messages: 0\n"), report);
+        assertTrue(report.contains("   Total Disregarded Messages: 1\n"), report);
+        assertTrue(report.contains("   Total Messages: 2\n"), report);
+        assertTrue(report.contains(String.format("   Average Message Length: %.1f characters\n", 3.0)), report);
+        assertFalse(report.contains("💾 STORED MESSAGES:"), "Empty sections are left out");
+    }
+
+    @Test
+    @DisplayName("Editing a message's text while it is listed does not skew the counters")
+    void testTextChangedWhileListed() {
+        Message edited = add("abcd", MessageStatus.SENT, 0);
+        add("ab", MessageStatus.SENT, 1);
+
+        edited.setMessageText("abcdefghijklmnop");
+        store.remove(edited);
+        assertEquals(2, store.characters(MessageStatus.SENT), "Removal takes away the length that was added");
+
+        Message shortened = add("abcdefgh", MessageStatus.STORED, 2);
+        shortened.setMessageText("");
+        store.remove(shortened);
+        assertEquals(0, store.characters(MessageStatus.STORED), "The counter never goes negative");
+    }
+
+    @Test
+    @DisplayName("An empty store reports only the summary")
+    void testEmptyReport() throws IOException {
+        String report = writeAll();
+        assertTrue(report.contains("   Total Messages: 0\n"), report);
+        assertFalse(report.contains("Average Message Length"), report);
+        assertFalse(report.contains("LONGEST MESSAGE"), report);
+    }
+
+    @Test
+    @DisplayName("Writing page by page gives the same report as writing it all at once")
+    void testPaging() throws IOException {
+        MessageStatus[] statuses = {MessageStatus.SENT, MessageStatus.STORED, MessageStatus.DISREGARDED};
+        for (int i = 0; i < 25; i++) {
+            add("Message number " + i, statuses[i % 3], i);
+        }
+
+        MessageReport report = new MessageReport(store);
+        StringWriter paged = new StringWriter();
+        int pages = 0;
+        int entries = 0;
+        while (report.hasMore()) {
+            int written = report.writeNext(paged, 4);
+            assertTrue(written <= 4, "A page never holds more than the limit");
+            entries += written;
+            pages++;
+        }
+
+        assertEquals(25, entries);
+        assertTrue(pages >= 7, "25 entries at 4 per page need at least 7 pages");
+        assertEquals(writeAll(), paged.toString());
+    }
+}
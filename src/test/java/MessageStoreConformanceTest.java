@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conformance tests every MessageStore backend must pass
+ * The same contract runs against the JSON, binary and in-memory backends
+ */
+public class MessageStoreConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    abstract class Contract {
+
+        abstract String backend();
+
+        MessageStore open() {
+            return MessageStore.create(backend(), tempDir.toString(), "stored");
+        }
+
+        // Durable backends are closed and opened again; the in-memory one is kept
+        MessageStore reopen(MessageStore store) {
+            store.close();
+            return open();
+        }
+
+        private List<Message> loadAll(MessageStore store) throws IOException {
+            List<Message> messages = new ArrayList<>();
+            store.load(messages::add);
+            return messages;
+        }
+
+        @Test
+        @DisplayName("Appended messages load back in order with every field intact")
+        void testAppendAndLoad() throws IOException {
+            MessageStore store = open();
+            Message first = new Message("+27838968976", "Hi Mike, can you join us for dinner tonight", 0);
+            Message second = new Message("+27838884567", "Where are you? You are late!", 1);
+            Message third = new Message("+27838123456", "Yohoooo, I am at your gate.", 2);
+            store.append(first);
+            store.appendAll(Arrays.asList(second, third));
+
+            List<Message> loaded = loadAll(reopen(store));
+            assertEquals(3, loaded.size());
+            for (int i = 0; i < 3; i++) {
+                Message expected = Arrays.asList(first, second, third).get(i);
+                assertEquals(expected.getMessageID(), loaded.get(i).getMessageID());
+                assertEquals(expected.getMessageHash(), loaded.get(i).getMessageHash());
+                assertEquals(expected.getRecipientCell(), loaded.get(i).getRecipientCell());
+                assertEquals(expected.getMessageText(), loaded.get(i).getMessageText());
+                assertEquals(expected.getMessageNumber(), loaded.get(i).getMessageNumber());
+            }
+        }
+
+        @Test
+        @DisplayName("Removed messages stay removed and reset discards everything")
+        void testRemoveAndReset() throws IOException {
+            MessageStore store = open();
+            Message kept = new Message("+27838968976", "Keep me", 0);
+            Message removed = new Message("+27838884567", "Remove me", 1);
+            store.appendAll(Arrays.asList(kept, removed));
+            store.remove(removed);
+            store.remove(new Message("+27838884567", "Never stored", 2));
+
+            store = reopen(store);
+            List<Message> loaded = loadAll(store);
+            assertEquals(1, loaded.size());
+            assertEquals(kept.getMessageID(), loaded.get(0).getMessageID());
+
+            store.reset();
+            assertTrue(loadAll(reopen(store)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Message stores, deletes and reloads through the selected backend")
+        void testSelectedByMessage() {
+            Message.useStorage(MessageStatus.STORED, open());
+            try {
+                Message.clearAllMessages();
+                Message stored = new Message("+27838968976", "Stored message", 0);
+                Message deleted = new Message("+27838884567", "Deleted message", 1);
+                stored.sentMessage("store");
+                deleted.sentMessage("store");
+                Message.deleteMessageByHash(deleted.getMessageHash());
+
+                Message.loadFromJSON();
+                assertEquals(1, Message.getStoredMessages().size());
+                assertEquals(stored.getMessageID(), Message.getStoredMessages().get(0).getMessageID());
+            } finally {
+                Message.clearAllMessages();
+                Message.useStorage(MessageStatus.STORED, MessageStore.create("memory", null, "stored"));
+            }
+        }
+
+        @Test
+        @DisplayName("A recipient a backend cannot hold fails as an IOException without stopping Message")
+        void testUnstorableRecipient() throws IOException {
+            Message kept = new Message("+27838968976", "Kept", 0);
+            Message tooLong = new Message("+27838968976 ext. 1234", "Long recipient", 1);
+            Message accented = new Message("+2783896897\u00e9", "Non-ASCII recipient", 2);
+            MessageStore store = open();
+            store.append(kept);
+            for (Message message : Arrays.asList(tooLong, accented)) {
+                try {
+                    store.append(message);
+                } catch (IOException e) {
+                    // The binary record holds at most 16 ASCII characters; any other failure type is a bug
+                }
+            }
+            store = reopen(store);
+            assertEquals(kept.getMessageID(), loadAll(store).get(0).getMessageID());
+            store.close();
+
+            Message.useStorage(MessageStatus.STORED, open());
+            try {
+                Message.clearAllMessages();
+                assertEquals("Message successfully stored",
+                    new Message("+27838968976 ext. 1234", "Long recipient", 3).sentMessage("store"));
+                assertEquals(1, Message.getStoredMessages().size());
+            } finally {
+                Message.clearAllMessages();
+                Message.useStorage(MessageStatus.STORED, MessageStore.create("memory", null, "stored"));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON snapshot and journal")
+    class Json extends Contract {
+        @Override
+        String backend() {
+            return "json";
+        }
+    }
+
+    @Nested
+    @DisplayName("Memory-mapped binary file")
+    class Binary extends Contract {
+        @Override
+        String backend() {
+            return "binary";
+        }
+    }
+
+    @Nested
+    @DisplayName("In memory")
+    class InMemory extends Contract {
+        @Override
+        String backend() {
+            return "memory";
+        }
+
+        @Override
+        MessageStore reopen(MessageStore store) {
+            return store;
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown backends are rejected")
+    void testUnknownBackend() {
+        assertThrows(IllegalArgumentException.class, () -> MessageStore.create("floppy", tempDir.toString(), "stored"));
+    }
+}
@@ -1,7 +1,10 @@
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
 
 /**
  * Test class for Message functionality
@@ -11,13 +14,23 @@ public class MessageTest {
     
     private Message message;
     
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+    
     @BeforeEach
     void setUp() {
+        Message.useStorage("json", storageDir.toString());
         // Clear all static message lists before each test
         Message.clearAllMessages();
         message = new Message();
     }
     
+    @AfterEach
+    void tearDown() {
+        Message.useStorage("memory", null);
+    }
+    
     // Test 2.1: Message length validation
     @Test
     @DisplayName("Test message length validation - success case")
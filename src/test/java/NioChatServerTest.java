@@ -0,0 +1,175 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Tests for the NIO chat server, its protocol and the load generator
+ * Each test talks to a real server bound to a free localhost port
+ */
+public class NioChatServerTest {
+
+    private NioChatServer server;
+    private int port;
+
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Message.useStorage("json", storageDir.toString());
+        Login.useStorage(UserStore.create("json", storageDir.toString()));
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+        server = new NioChatServer(new ChatRequestHandler());
+        port = server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+        Message.useStorage("memory", null);
+    }
+
+    private ChatClient loggedInClient() throws IOException {
+        ChatClient client = new ChatClient("127.0.0.1", port);
+        client.call(ChatProtocol.REGISTER, "Kyle", "Smith", "kyl_1", "Ch&&sec@ke99!", "+27838968976");
+        assertEquals(ChatProtocol.OK, client.call(ChatProtocol.LOGIN, "kyl_1", "Ch&&sec@ke99!")[0]);
+        return client;
+    }
+
+    @Test
+    @DisplayName("Fields with tabs, newlines and backslashes survive encoding")
+    void testProtocolEscaping() {
+        String[] fields = {"SEND", "send", "line one\nline\ttwo \\ end", ""};
+        assertArrayEquals(fields, ChatProtocol.splitFields(ChatProtocol.joinFields(fields)));
+    }
+
+    @Test
+    @DisplayName("Register, login, send, search and delete over the wire")
+    void testFullFlow() throws IOException {
+        try (ChatClient client = loggedInClient()) {
+            String[] sent = client.call(ChatProtocol.SEND, "send", "+27718693002", "Hi Mike, can you join us for dinner tonight");
+            assertEquals(ChatProtocol.OK, sent[0]);
+            assertEquals("Message successfully sent", sent[1]);
+
+            assertArrayEquals(new String[] {ChatProtocol.OK, "Hi Mike, can you join us for dinner tonight"},
+                client.call(ChatProtocol.SEARCH_ID, sent[2]));
+
+            String[] byRecipient = client.call(ChatProtocol.SEARCH_RECIPIENT, "+27718693002");
+            assertEquals("1", byRecipient[1]);
+            assertEquals("Hi Mike, can you join us for dinner tonight", byRecipient[2]);
+
+            assertEquals(ChatProtocol.OK, client.call(ChatProtocol.DELETE, sent[3])[0]);
+            assertEquals(ChatProtocol.ERROR, client.call(ChatProtocol.SEARCH_ID, sent[2])[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid requests get an error response and the connection stays usable")
+    void testErrors() throws IOException {
+        try (ChatClient client = new ChatClient("127.0.0.1", port)) {
+            assertEquals(ChatProtocol.ERROR, client.call(ChatProtocol.SEND, "send", "+27838968976", "Hi")[0],
+                "Messaging requires a login");
+            assertEquals(ChatProtocol.ERROR, client.call(ChatProtocol.LOGIN, "nobody", "x")[0]);
+            assertEquals(ChatProtocol.ERROR, client.call("BOGUS")[0]);
+            assertArrayEquals(new String[] {ChatProtocol.OK, "PONG"}, client.call(ChatProtocol.PING));
+        }
+
+        try (ChatClient client = loggedInClient()) {
+            assertEquals(ChatProtocol.ERROR, client.call(ChatProtocol.SEND, "send", "0838968976", "Hi")[0]);
+
+            // Bigger than the initial read buffer, so the server has to grow it
+            StringBuilder longText = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                longText.append('x');
+            }
+            String[] response = client.call(ChatProtocol.SEND, "send", "+27838968976", longText.toString());
+            assertArrayEquals(new String[] {ChatProtocol.ERROR, "Message exceeds 9750 characters"}, response);
+
+            // Rejected requests must not use up message numbers
+            String[] accepted = client.call(ChatProtocol.SEND, "send", "+27838968976", "Hi there");
+            assertEquals(ChatProtocol.OK, accepted[0]);
+            assertEquals("0", accepted[3].split(":")[1], "First accepted message should be number 0");
+        }
+    }
+
+    @Test
+    @DisplayName("Many simultaneous connections are served without errors")
+    void testManyConnections() throws Exception {
+        ChatLoadGenerator.Result result = ChatLoadGenerator.run("127.0.0.1", port, 200, 20);
+
+        assertEquals(0, result.getErrors());
+        assertEquals(200 * 20, result.getRequests());
+        assertTrue(result.getLatencyMillis(99) >= result.getLatencyMillis(50));
+        assertTrue(server.getConnectionsAccepted() >= 201);
+    }
+
+    @Test
+    @DisplayName("A client that stops reading is throttled instead of queueing without limit")
+    void testBackpressure() throws Exception {
+        String text = "x".repeat(200);
+        try (ChatClient client = loggedInClient()) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(ChatProtocol.OK, client.call(ChatProtocol.SEND, "send", "+27718693002", text)[0]);
+            }
+        }
+
+        // Each response carries all 100 messages, so 2000 of them are about 40 MB
+        int requests = 2000;
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(64 * 1024);
+            socket.connect(new InetSocketAddress("127.0.0.1", port));
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            writeFrame(out, ChatProtocol.LOGIN, "kyl_1", "Ch&&sec@ke99!");
+            assertEquals(ChatProtocol.OK, readFrame(in)[0]);
+
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < requests; i++) {
+                        writeFrame(out, ChatProtocol.SEARCH_RECIPIENT, "+27718693002");
+                    }
+                } catch (IOException e) {
+                    // The read side fails the test
+                }
+            });
+            writer.start();
+
+            long handledBefore = server.getRequestsHandled();
+            Thread.sleep(1000);
+            assertTrue(server.getRequestsHandled() - handledBefore < requests,
+                "The server stops handling requests while the responses go unread");
+
+            for (int i = 0; i < requests; i++) {
+                String[] response = readFrame(in);
+                assertEquals(ChatProtocol.OK, response[0]);
+                assertEquals("100", response[1]);
+            }
+            writer.join();
+        }
+    }
+
+    private static void writeFrame(OutputStream out, String... fields) throws IOException {
+        ByteBuffer frame = ChatProtocol.encodeFrame(fields);
+        out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+    }
+
+    private static String[] readFrame(DataInputStream in) throws IOException {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return ChatProtocol.decodePayload(payload);
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for PhoneNumberValidator
+ * Compares the character checks with the original regex and tests custom rules
+ */
+public class PhoneNumberValidatorTest {
+
+    // The regex Login.checkCellPhoneNumber used before
+    private static final Pattern LEGACY = Pattern.compile("^\\+27[0-9]{9}$");
+
+    private static final char[] ALPHABET = "+27012345689 -()\n٠０x".toCharArray();
+
+    private final PhoneNumberValidator original = PhoneNumberValidator.getDefault();
+
+    @AfterEach
+    void tearDown() {
+        PhoneNumberValidator.setDefault(original);
+    }
+
+    private static boolean legacyCheck(String number) {
+        return number != null && !number.isEmpty() && LEGACY.matcher(number).matches();
+    }
+
+    @Test
+    @DisplayName("The default rule agrees with the old regex on known and random numbers")
+    void testDifferentialAgainstRegex() {
+        PhoneNumberValidator validator = PhoneNumberValidator.parse(PhoneNumberValidator.SOUTH_AFRICA);
+        String[] known = {null, "", "+27838968976", "08575975889", "+2783896897", "+278389689766",
+            "+27838968976\n", "+2783896897a", "+27٠٠٠٠٠٠٠٠٠",
+            "+28838968976", "27838968976+"};
+        for (String number : known) {
+            assertEquals(legacyCheck(number), validator.isValid(number), () -> "Disagreement on " + number);
+        }
+
+        Random random = new Random(42);
+        for (int round = 0; round < 500_000; round++) {
+            // Mostly +27 prefixes near the right length, so both outcomes are common
+            StringBuilder number = new StringBuilder(random.nextInt(4) == 0 ? "" : "+27");
+            int extra = 7 + random.nextInt(5);
+            for (int i = 0; i < extra; i++) {
+                number.append(random.nextInt(3) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)]
+                                                     : (char) ('0' + random.nextInt(10)));
+            }
+            String text = number.toString();
+            assertEquals(legacyCheck(text), validator.isValid(text), () -> "Disagreement on " + text);
+        }
+    }
+
+    @Test
+    @DisplayName("Several country codes can be configured and are used by Login and Message")
+    void testCustomRules() {
+        PhoneNumberValidator validator = PhoneNumberValidator.parse("27:9, 44:10,1:10");
+        assertTrue(validator.isValid("+27838968976"));
+        assertTrue(validator.isValid("+447911123456"));
+        assertTrue(validator.isValid("+12025550123"));
+        assertFalse(validator.isValid("+4479111234"));
+        assertFalse(validator.isValid("+33612345678"));
+        assertEquals("27:9,44:10,1:10", validator.toString());
+
+        PhoneNumberValidator.setDefault(validator);
+        assertTrue(new Login().checkCellPhoneNumber("+447911123456"));
+        assertEquals("Cell phone number successfully validated.", new Message().checkRecipientCell("+447911123456"));
+    }
+
+    @Test
+    @DisplayName("Malformed rules are rejected")
+    void testMalformedRules() {
+        for (String rules : new String[] {"", "27", "+27:9", "27:x", "27:0", "27:9,"}) {
+            assertThrows(IllegalArgumentException.class, () -> PhoneNumberValidator.parse(rules), rules);
+        }
+    }
+}
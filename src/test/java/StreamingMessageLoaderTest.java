@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for StreamingMessageLoader
+ * Tests compatibility with Gson's file format and bounded-memory loading
+ */
+public class StreamingMessageLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Message.useStorage("json", tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        Message.setResidentMessageLimit(0);
+        Message.clearAllMessages();
+        Message.useStorage("memory", null);
+    }
+
+    @Test
+    @DisplayName("Files written by Gson are streamed back field for field")
+    void testReadsGsonFormat() throws IOException {
+        Message first = new Message("+27838968976", "Hello world", 0);
+        Message second = new Message("+27838884567", "Where are you? You are late!", 1);
+        File file = tempDir.resolve("stored_messages.json").toFile();
+        try (FileWriter writer = new FileWriter(file)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(Arrays.asList(first, second), writer);
+        }
+
+        List<Message> loaded = new ArrayList<>();
+        long count = StreamingMessageLoader.read(file, loaded::add);
+
+        assertEquals(2, count);
+        assertEquals(first.getMessageID(), loaded.get(0).getMessageID());
+        assertEquals(first.getMessageHash(), loaded.get(0).getMessageHash());
+        assertEquals(second.getRecipientCell(), loaded.get(1).getRecipientCell());
+        assertEquals(second.getMessageText(), loaded.get(1).getMessageText());
+        assertEquals(1, loaded.get(1).getMessageNumber());
+    }
+
+    @Test
+    @DisplayName("Streaming writer output round-trips through the reader")
+    void testWriteRoundTrip() throws IOException {
+        List<Message> messages = Arrays.asList(
+            new Message("+27838968976", "Quotes \"and\" unicode é", 0),
+            new Message("+27838884567", "Second", 1));
+        File file = tempDir.resolve("out.json").toFile();
+
+        StreamingMessageLoader.write(file, messages::forEach);
+
+        List<Message> loaded = new ArrayList<>();
+        StreamingMessageLoader.read(file, loaded::add);
+        assertEquals(2, loaded.size());
+        assertEquals("Quotes \"and\" unicode é", loaded.get(0).getMessageText());
+    }
+
+    @Test
+    @DisplayName("Bounded mode keeps only the most recent stored messages")
+    void testBoundedLoad() {
+        Message.clearAllMessages();
+        for (int i = 0; i < 10; i++) {
+            new Message("+27838968976", "Message " + i, i).sentMessage("store");
+        }
+
+        Message.setResidentMessageLimit(3);
+        Message.loadFromJSON();
+
+        List<Message> stored = Message.getStoredMessages();
+        assertEquals(3, stored.size());
+        assertEquals("Message 7", stored.get(0).getMessageText());
+        assertEquals("Message 9", stored.get(2).getMessageText());
+
+        StreamingMessageLoader.LoadStats stats = Message.getLastLoadStats();
+        assertEquals(10, stats.getMessagesRead());
+        assertEquals(3, stats.getMessagesKept());
+        assertTrue(stats.getMessagesPerSecond() > 0);
+    }
+}
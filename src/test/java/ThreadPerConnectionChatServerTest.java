@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Tests for the thread-per-connection chat server engines
+ * Runs the same protocol flow as the NIO engine on virtual and platform threads
+ */
+public class ThreadPerConnectionChatServerTest {
+
+    private ChatServer server;
+
+    // Scratch storage so the tests never touch the real data directory
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setUp() {
+        Message.useStorage("json", storageDir.toString());
+        Login.useStorage(UserStore.create("json", storageDir.toString()));
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+        Login.clearAllUsers();
+        Message.clearAllMessages();
+        Message.useStorage("memory", null);
+    }
+
+    @Test
+    @DisplayName("The virtual-thread engine serves the full protocol")
+    void testVirtualThreadEngine() throws IOException {
+        server = ChatServer.create("virtual", new ChatRequestHandler());
+        int port = server.start(0);
+
+        try (ChatClient client = new ChatClient("127.0.0.1", port)) {
+            assertEquals(ChatProtocol.OK,
+                client.call(ChatProtocol.REGISTER, "Kyle", "Smith", "kyl_1", "Ch&&sec@ke99!", "+27838968976")[0]);
+            assertEquals(ChatProtocol.OK, client.call(ChatProtocol.LOGIN, "kyl_1", "Ch&&sec@ke99!")[0]);
+
+            String[] sent = client.call(ChatProtocol.SEND, "store", "+27838884567", "Where are you? You are late!");
+            assertEquals("Message successfully stored", sent[1]);
+            assertEquals("Where are you? You are late!", client.call(ChatProtocol.SEARCH_ID, sent[2])[1]);
+            assertEquals(ChatProtocol.OK, client.call(ChatProtocol.DELETE, sent[3])[0]);
+        }
+        assertEquals(5, server.getRequestsHandled());
+    }
+
+    @Test
+    @DisplayName("Both thread-per-connection engines handle concurrent load without errors")
+    void testConcurrentLoad() throws Exception {
+        for (String engine : new String[] {"virtual", "platform"}) {
+            server = ChatServer.create(engine, new ChatRequestHandler());
+            int port = server.start(0);
+
+            ChatLoadGenerator.Result result = ChatLoadGenerator.run("127.0.0.1", port, 100, 20, 10_000);
+            assertEquals(0, result.getErrors(), engine);
+            assertEquals(100 * 20, result.getRequests(), engine);
+
+            server.close();
+            server = null;
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown engine names are rejected")
+    void testUnknownEngine() {
+        assertThrows(IllegalArgumentException.class, () -> ChatServer.create("carrier-pigeon", new ChatRequestHandler()));
+    }
+}
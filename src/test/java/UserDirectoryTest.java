@@ -0,0 +1,219 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for UserDirectory
+ * Tests username and cell number indexing used by Login
+ */
+public class UserDirectoryTest {
+
+    private UserDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        directory = new UserDirectory();
+    }
+
+    private Login createUser(String username, String cell) {
+        Login user = new Login("John", "Doe");
+        user.setUsername(username);
+        user.setPassword("Ch&&sec@ke99!");
+        user.setCellPhoneNumber(cell);
+        return user;
+    }
+
+    @Test
+    @DisplayName("Users can be found by username and cell number")
+    void testLookupByUsernameAndCell() {
+        Login user = createUser("kyl_1", "+27838968976");
+        assertTrue(directory.add(user));
+
+        assertSame(user, directory.findByUsername("kyl_1"));
+        assertSame(user, directory.findByCellPhoneNumber("+27838968976"));
+        assertTrue(directory.containsUsername("kyl_1"));
+        assertNull(directory.findByUsername("nobody"));
+        assertNull(directory.findByUsername(null));
+    }
+
+    @Test
+    @DisplayName("Duplicate usernames are rejected without replacing the original")
+    void testDuplicateUsernameRejected() {
+        Login first = createUser("kyl_1", "+27838968976");
+        Login second = createUser("kyl_1", "+27838884567");
+
+        assertTrue(directory.add(first));
+        assertFalse(directory.add(second));
+
+        assertEquals(1, directory.size());
+        assertSame(first, directory.findByUsername("kyl_1"));
+        assertNull(directory.findByCellPhoneNumber("+27838884567"));
+    }
+
+    @Test
+    @DisplayName("replaceAll keeps registration order and rebuilds both indexes")
+    void testReplaceAll() {
+        directory.add(createUser("old_1", "+27838000000"));
+
+        Login a = createUser("a_1", "+27838111111");
+        Login b = createUser("b_1", "+27838222222");
+        directory.replaceAll(Arrays.asList(a, b));
+
+        assertEquals(2, directory.size());
+        assertFalse(directory.containsUsername("old_1"));
+        assertNull(directory.findByCellPhoneNumber("+27838000000"));
+        assertArrayEquals(new Login[] {a, b}, directory.getUsers().toArray());
+    }
+
+    @Test
+    @DisplayName("Concurrent registrations of the same usernames never create duplicates")
+    void testConcurrentRegistrationNoDuplicates() throws Exception {
+        int threads = 8;
+        int usernames = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger registered = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < usernames; i++) {
+                    if (directory.add(createUser("u_" + i, "+27838" + String.format("%06d", i)))) {
+                        registered.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(usernames, registered.get(), "Each username should be registered exactly once");
+        assertEquals(usernames, directory.size());
+        assertEquals(usernames, directory.getUsers().size());
+    }
+
+    @Test
+    @DisplayName("Lookups never miss a user while the directory is reloaded")
+    void testLookupsDuringReplaceAll() throws Exception {
+        List<Login> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(createUser("u_" + i, "+27838" + String.format("%06d", i)));
+        }
+        directory.replaceAll(users);
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            readers.add(pool.submit(() -> {
+                while (reloading.get()) {
+                    for (int i = 0; i < 200; i++) {
+                        if (directory.findByUsername("u_" + i) == null) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        Future<?> reloader = pool.submit(() -> {
+            for (int round = 0; round < 500; round++) {
+                directory.replaceAll(users);
+            }
+            reloading.set(false);
+        });
+
+        reloader.get(30, TimeUnit.SECONDS);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, misses.get(), "A reload must never expose an empty or partial directory");
+    }
+
+    @Test
+    @DisplayName("reload keeps users added since the last load")
+    void testReloadKeepsAddedUsers() {
+        Login loaded = createUser("old_1", "+27838000000");
+        directory.reload(Arrays.asList(loaded));
+        Login added = createUser("new_1", "+27838111111");
+        directory.add(added);
+
+        Login reloaded = createUser("old_1", "+27838000000");
+        directory.reload(Arrays.asList(reloaded));
+
+        assertEquals(2, directory.size());
+        assertSame(reloaded, directory.findByUsername("old_1"), "Loaded users replace the previous load");
+        assertSame(added, directory.findByUsername("new_1"), "A user added since the last load must survive");
+        assertArrayEquals(new Login[] {reloaded, added}, directory.getUsers().toArray());
+    }
+
+    @Test
+    @DisplayName("No registration is lost while the directory is reloaded")
+    void testAddsDuringReload() throws Exception {
+        List<Login> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(createUser("u_" + i, "+27838" + String.format("%06d", i)));
+        }
+        directory.reload(users);
+
+        int threads = 4;
+        int addsPerThread = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean adding = new AtomicBoolean(true);
+        List<Future<?>> adders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            adders.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    assertTrue(directory.add(createUser("a" + thread + "_" + i, null)));
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reloader = pool.submit(() -> {
+            start.await();
+            int reloads = 0;
+            while (adding.get()) {
+                directory.reload(users);
+                reloads++;
+            }
+            return reloads;
+        });
+
+        start.countDown();
+        for (Future<?> adder : adders) {
+            adder.get(30, TimeUnit.SECONDS);
+        }
+        adding.set(false);
+        assertTrue(reloader.get(30, TimeUnit.SECONDS) > 0);
+        pool.shutdown();
+
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < addsPerThread; i++) {
+                assertNotNull(directory.findByUsername("a" + t + "_" + i), "Lost registration a" + t + "_" + i);
+            }
+        }
+        assertEquals(200 + threads * addsPerThread, directory.size());
+        assertEquals(200 + threads * addsPerThread, directory.getUsers().size());
+    }
+}
@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Conformance tests every UserStore backend must pass
+ * The same contract runs against the JSON, binary and in-memory backends
+ */
+public class UserStoreConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Login user(String username, String cell) {
+        Login user = new Login("Kyle", "Smith");
+        user.setUsername(username);
+        user.setPassword("Ch&&sec@ke99!");
+        user.setCellPhoneNumber(cell);
+        return user;
+    }
+
+    abstract class Contract {
+
+        abstract String backend();
+
+        UserStore open() {
+            UserStore store = UserStore.create(backend(), tempDir.toString());
+            store.refresh();
+            return store;
+        }
+
+        // Durable backends are closed and opened again; the in-memory one is kept
+        UserStore reopen(UserStore store) {
+            store.close();
+            return open();
+        }
+
+        @Test
+        @DisplayName("Registered users can be found and usernames stay unique")
+        void testRegisterAndFind() {
+            UserStore store = open();
+            assertTrue(store.register(user("kyl_1", "+27838968976")));
+            assertTrue(store.register(user("ann_2", "+27838884567")));
+            assertFalse(store.register(user("kyl_1", "+27838123456")), "Duplicate usernames must be rejected");
+
+            assertEquals(2, store.getDirectory().size());
+            assertEquals("+27838884567", store.getDirectory().findByUsername("ann_2").getCellPhoneNumber());
+            assertEquals("kyl_1", store.getDirectory().findByCellPhoneNumber("+27838968976").getUsername());
+        }
+
+        @Test
+        @DisplayName("Registrations survive a reopen and save replaces what was persisted")
+        void testPersistence() {
+            UserStore store = open();
+            store.register(user("kyl_1", "+27838968976"));
+            store.register(user("ann_2", "+27838884567"));
+
+            store = reopen(store);
+            Login reloaded = store.getDirectory().findByUsername("kyl_1");
+            assertNotNull(reloaded);
+            assertEquals("Ch&&sec@ke99!", reloaded.getPassword());
+            assertEquals("Kyle", reloaded.getFirstName());
+            assertEquals("Smith", reloaded.getLastName());
+
+            store.getDirectory().clear();
+            store.save();
+            assertEquals(0, reopen(store).getDirectory().size());
+        }
+
+        @Test
+        @DisplayName("Login registers and authenticates through the selected backend")
+        void testSelectedByLogin() {
+            Login.useStorage(open());
+            try {
+                Login.clearAllUsers();
+                Login login = new Login("Kyle", "Smith");
+                assertEquals("User registered successfully.", login.registerUser("kyl_1", "Ch&&sec@ke99!", "+27838968976"));
+                assertTrue(Login.authenticateUser("kyl_1", "Ch&&sec@ke99!"));
+                assertFalse(Login.authenticateUser("kyl_1", "wrong"));
+            } finally {
+                Login.clearAllUsers();
+                Login.useStorage(UserStore.create("memory", null));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON snapshot and registration log")
+    class Json extends Contract {
+        @Override
+        String backend() {
+            return "json";
+        }
+    }
+
+    @Nested
+    @DisplayName("Binary records")
+    class Binary extends Contract {
+        @Override
+        String backend() {
+            return "binary";
+        }
+
+        @Test
+        @DisplayName("A header cut short by a crash is written again before the first record")
+        void testTornHeader() throws IOException {
+            Files.write(tempDir.resolve("users.bin"), new byte[] {0x51, 0x43, 0x55});
+
+            UserStore store = open();
+            assertEquals(0, store.getDirectory().size());
+            assertTrue(store.register(user("kyl_1", "+27838968976")));
+
+            assertNotNull(reopen(store).getDirectory().findByUsername("kyl_1"));
+        }
+
+        @Test
+        @DisplayName("A file that cannot be loaded is never appended to")
+        void testUnreadableFile() throws IOException {
+            Path file = tempDir.resolve("users.bin");
+            byte[] unreadable = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+            Files.write(file, unreadable);
+
+            UserStore store = open();
+            assertTrue(store.register(user("kyl_1", "+27838968976")));
+            assertNotNull(store.getDirectory().findByUsername("kyl_1"), "The user is kept in memory");
+            store.close();
+            assertArrayEquals(unreadable, Files.readAllBytes(file));
+        }
+    }
+
+    @Nested
+    @DisplayName("In memory")
+    class InMemory extends Contract {
+        @Override
+        String backend() {
+            return "memory";
+        }
+
+        @Override
+        UserStore reopen(UserStore store) {
+            return store;
+        }
+    }
+}